@@ -2,11 +2,60 @@ package com.bobman159.mazes;
 
 import java.io.PrintStream;
 
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.monitor.GenerationStats;
+
 public interface IMazeGenerator {
 
 	/**
 	 * Create a maze using a specific algorithim
 	 */
 	public void createMaze();
+
+	/**
+	 * Create the maze again with a new seed.  The maze returned by
+	 * <code>getMaze</code> is reset and generated in place, the generator's
+	 * buffers are reused, so generating many mazes of the same size does not
+	 * allocate a new maze each time.
+	 * @param seed the seed for the new maze
+	 */
+	public void recreateMaze(long seed);
 	public void writeMaze(PrintStream outputStream);
+	
+	/**
+	 * @return the seed used to create the maze, creating a maze with the same
+	 * type, size and seed gives the same maze
+	 */
+	public long getSeed();
+	
+	/**
+	 * @return the maze being generated, null if the generator has not created
+	 * the maze in memory
+	 */
+	public Maze getMaze();
+	
+	/**
+	 * @return the type of algorithm carving the passages of the maze
+	 */
+	public MazeType getMazeType();
+	
+	/**
+	 * @return what the generator did to create the maze, null if the maze
+	 * has not been created
+	 */
+	public GenerationStats getGenerationStats();
+
+	/**
+	 * @return true if the mazes created are recorded in the
+	 * <code>MazeGenerationMetrics</code>, the default
+	 */
+	public boolean isMetricsRecorded();
+
+	/**
+	 * Stop or start recording the mazes created in the
+	 * <code>MazeGenerationMetrics</code>, for example for mazes that are only
+	 * part of a larger maze.  The flight recorder event is recorded either way.
+	 * @param metricsRecorded false to leave the mazes out of the metrics
+	 */
+	public void setMetricsRecorded(boolean metricsRecorded);
 }
@@ -0,0 +1,150 @@
+package com.bobman159.mazes;
+
+import java.nio.LongBuffer;
+
+import com.bobman159.mazes.Maze.Direction;
+
+/**
+ * The storage for the walls and visited state of every cell in a maze.
+ * <p>
+ * Cells are addressed by an int index (<code>row * columns + column</code>).
+ * Neighboring cells share walls, the left wall of a cell is the right wall
+ * of the cell to its left and the top wall of a cell is the bottom wall of
+ * the cell above it.
+ * <p>
+ * A grid is not thread safe.  The <code>atomic</code> methods may be used by
+ * several threads at once to update different cells, for example when
+ * generating parts of a maze in parallel.
+ */
+public interface IMazeGrid {
+
+	public int getRows();
+	public int getColumns();
+	public int getCellCount();
+
+	/**
+	 * Put back every wall and mark every cell as not visited.
+	 */
+	public void reset();
+
+	/**
+	 * @return the index of the cell at row, column or -1 if the cell is out
+	 * of bounds
+	 */
+	public int getCellIndex(int row, int column);
+	public int getCellRow(int index);
+	public int getCellColumn(int index);
+
+	/**
+	 * Retrieve the index of the neighbor of a cell.
+	 * @param index the cell to start from
+	 * @param direction the direction (UP, DOWN, LEFT, RIGHT) from the start cell
+	 * @return the index of the neighbor cell or -1 if it is out of bounds
+	 */
+	public int getNeighborIndex(int index, Direction direction);
+
+	public boolean isCellVisited(int index);
+	public void cellVisited(int index);
+
+	/**
+	 * Mark every cell as visited, as they are in a generated maze
+	 */
+	public void allCellsVisited();
+
+	public boolean hasRightWall(int index);
+	public boolean hasBottomWall(int index);
+	public boolean hasLeftWall(int index);
+	public boolean hasTopWall(int index);
+	public void clearRightWall(int index);
+	public void clearBottomWall(int index);
+	public void clearLeftWall(int index);
+	public void clearTopWall(int index);
+
+	/**
+	 * Mark a cell visited, safe to call while other threads update other
+	 * cells of the grid.
+	 */
+	public void atomicCellVisited(int index);
+
+	/**
+	 * Clear the right wall of a cell, safe to call while other threads
+	 * update other cells of the grid.
+	 */
+	public void atomicClearRightWall(int index);
+
+	/**
+	 * Clear the bottom wall of a cell, safe to call while other threads
+	 * update other cells of the grid.
+	 */
+	public void atomicClearBottomWall(int index);
+
+	/**
+	 * Clear the walls of up to 32 cells at once, safe to call while other
+	 * threads update other cells of the grid.
+	 * @param wordIndex the word holding the walls, 0 to
+	 * <code>getWallWordCount() - 1</code>
+	 * @param clearedWalls a bit for each wall to clear, in the layout of
+	 * <code>getWallWord</code>
+	 */
+	public void atomicClearWallWord(int wordIndex, long clearedWalls);
+
+	/**
+	 * Find the open passages from a cell to it's neighbors in the maze.  The
+	 * entrance and exit are not passages, they do not lead to a cell.
+	 * @param index the cell to start from
+	 * @return a bit (<code>1 << Direction.ordinal()</code>) for each
+	 * direction with an open passage to a neighbor cell
+	 */
+	public int getPassages(int index);
+
+	/**
+	 * Find the open passages from a cell to it's neighbors in the maze, for
+	 * callers that already know the cell's column.
+	 * @param index the cell to start from
+	 * @param column the column of the cell
+	 * @return a bit (<code>1 << Direction.ordinal()</code>) for each
+	 * direction with an open passage to a neighbor cell
+	 */
+	public int getPassages(int index, int column);
+
+	/**
+	 * Open the wall shared by two neighboring cells.
+	 * @param fromIndex the cell to carve from
+	 * @param toIndex the neighbor cell to carve to
+	 * @throws IllegalArgumentException if the cells are not neighbors
+	 */
+	public void carvePassage(int fromIndex, int toIndex);
+
+	/**
+	 * @return the number of longs holding the wall bits, 2 bits per cell with
+	 * the right wall of cell i in bit 2 * (i % 32) of long i / 32 and the
+	 * bottom wall in the bit above it
+	 */
+	public int getWallWordCount();
+
+	/**
+	 * Read the wall bits of the 32 cells in one word, for callers that
+	 * read the walls of many cells in a row.
+	 * @param wordIndex the word to read, 0 to <code>getWallWordCount() - 1</code>
+	 * @return the wall bits of the word, 1 for a wall
+	 */
+	public long getWallWord(int wordIndex);
+
+	/**
+	 * Copy the wall bits to a buffer, 1 for a wall
+	 * @param buffer a buffer with room for <code>getWallWordCount()</code> longs
+	 */
+	public void getWallWords(LongBuffer buffer);
+
+	/**
+	 * Replace the wall bits from a buffer, 1 for a wall
+	 * @param buffer a buffer holding <code>getWallWordCount()</code> longs
+	 */
+	public void setWallWords(LongBuffer buffer);
+
+	/**
+	 * @return the number of bytes of the grid's bitmaps, on the heap or in a
+	 * mapped file
+	 */
+	public long getSizeInBytes();
+}
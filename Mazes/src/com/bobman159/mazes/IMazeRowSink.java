@@ -0,0 +1,24 @@
+package com.bobman159.mazes;
+
+/**
+ * Receives a maze one row at a time, from the top row to the bottom row.
+ * <p>
+ * The wall arrays are owned by the caller and are reused for the next row,
+ * a sink must copy anything it needs to keep.  The outer left wall of every
+ * row is always present.
+ */
+public interface IMazeRowSink {
+
+	/**
+	 * Receive the top walls of the maze, called once before the first row.
+	 * @param topWalls true for each column that has a top wall
+	 */
+	public void writeTopRow(boolean[] topWalls);
+	
+	/**
+	 * Receive the next row of the maze.
+	 * @param rightWalls true for each column where the cell has a right wall
+	 * @param bottomWalls true for each column where the cell has a bottom wall
+	 */
+	public void writeRow(boolean[] rightWalls, boolean[] bottomWalls);
+}
@@ -0,0 +1,15 @@
+package com.bobman159.mazes;
+
+/**
+ * A maze generator that can hand each finished row to a sink as soon as it is
+ * generated, without holding the whole maze in memory.
+ */
+public interface IStreamingMazeGenerator extends IMazeGenerator {
+
+	/**
+	 * Generate the maze and write it one row at a time to a sink.  The 
+	 * streamed maze is the same maze <code>createMaze()</code> creates.
+	 * @param rowSink the sink that receives the rows
+	 */
+	public void streamMaze(IMazeRowSink rowSink);
+}
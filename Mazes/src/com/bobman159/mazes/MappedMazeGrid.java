@@ -0,0 +1,412 @@
+package com.bobman159.mazes;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.bobman159.mazes.Maze.Direction;
+
+/**
+ * A maze grid kept in a memory mapped file instead of on the heap, so the
+ * walls of a large maze do not need a large heap.
+ * <p>
+ * The bitmaps have the same layout as <code>MazeGrid</code> (2 wall bits per
+ * cell, 1 visited bit per cell, and the outer top and left walls) but are
+ * kept in the file, the operating system pages them in and out of memory as
+ * the cells are used.  The bits are stored inverted, 1 for an open wall, so
+ * a new file full of zeros is a grid with every wall and no visited cells
+ * and creating a grid does not write to the file.
+ * <p>
+ * The file is scratch storage in the platform byte order, use
+ * <code>MazeBinaryFile</code> to archive a maze.
+ * <p>
+ * Cells are addressed by int indexes, so a grid is limited to
+ * <code>Integer.MAX_VALUE</code> cells (about 46000x46000) like
+ * <code>MazeGrid</code>, it is not a way to build mazes of more cells.
+ * Only the grid is kept off the heap.  The generators that carve the whole
+ * maze at once keep per cell scratch arrays on the heap (Kruskal's keeps an
+ * int per cell), only the generators from
+ * <code>MazeFactory.createParallelMazeGenerator</code> keep the heap small,
+ * they hold just the tiles or rows being carved.
+ */
+public class MappedMazeGrid implements IMazeGrid, AutoCloseable {
+
+	private static final int RIGHT_OPEN_BIT = 1;
+	private static final int BOTTOM_OPEN_BIT = 2;
+	/* 2 wall bits per cell, 32 cells per long */
+	private static final int CELLS_PER_WALL_WORD = 32;
+	private static final VarHandle WORDS =
+			MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+	private final int rows;
+	private final int columns;
+	private final int cellCount;
+	private final Path file;
+	private final boolean deleteOnClose;
+	private final FileChannel channel;
+	private final MappedByteBuffer walls;
+	private final MappedByteBuffer visited;
+	private final MappedByteBuffer topBorder;
+	private final MappedByteBuffer leftBorder;
+	private final int wallWordCount;
+
+	/**
+	 * Create a grid in a file, replacing the file if it exists.  Every cell
+	 * has all of it's walls and no cell has been visited.
+	 * @param rows the number of rows in the grid
+	 * @param columns the number of columns in the grid
+	 * @param file the file to keep the grid in
+	 * @throws IOException if the file can not be created or mapped
+	 */
+	public MappedMazeGrid(int rows, int columns, Path file) throws IOException {
+		this(rows,columns,file,false);
+	}
+
+	private MappedMazeGrid(int rows, int columns, Path file, boolean deleteOnClose)
+			throws IOException {
+
+		if (rows <= 0 || columns <= 0) {
+			throw new IllegalArgumentException("rows and columns must be greater than 0");
+		}
+		if ((long) rows * columns > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("a maze grid can not hold more than "
+						+ Integer.MAX_VALUE + " cells");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		cellCount = rows * columns;
+		this.file = file;
+		this.deleteOnClose = deleteOnClose;
+		wallWordCount = wordsFor(cellCount,CELLS_PER_WALL_WORD);
+
+		channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.SPARSE);
+		long position = 0;
+		walls = map(position, wallWordCount);
+		position += (long) wallWordCount * Long.BYTES;
+		int visitedWordCount = wordsFor(cellCount,Long.SIZE);
+		visited = map(position, visitedWordCount);
+		position += (long) visitedWordCount * Long.BYTES;
+		int topBorderWordCount = wordsFor(columns,Long.SIZE);
+		topBorder = map(position, topBorderWordCount);
+		position += (long) topBorderWordCount * Long.BYTES;
+		leftBorder = map(position, wordsFor(rows,Long.SIZE));
+	}
+
+	/**
+	 * Create a grid in a temporary file that is deleted when the grid is
+	 * closed.
+	 * @param rows the number of rows in the grid
+	 * @param columns the number of columns in the grid
+	 * @return the new grid
+	 * @throws IOException if the file can not be created or mapped
+	 */
+	public static MappedMazeGrid createTemporary(int rows, int columns) throws IOException {
+		Path file = Files.createTempFile("maze", ".grid");
+		try {
+			return new MappedMazeGrid(rows,columns,file,true);
+		} catch (IOException | RuntimeException createFailed) {
+			Files.deleteIfExists(file);
+			throw createFailed;
+		}
+	}
+
+	/**
+	 * Close the file, deleting it if it is temporary.  The grid must not be
+	 * used after it is closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+		if (deleteOnClose) {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Override
+	public int getRows() {
+		return rows;
+	}
+
+	@Override
+	public int getColumns() {
+		return columns;
+	}
+
+	@Override
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	@Override
+	public void reset() {
+		fill(walls);
+		fill(visited);
+		fill(topBorder);
+		fill(leftBorder);
+	}
+
+	@Override
+	public int getCellIndex(int row, int column) {
+		if (row < 0 || row >= rows || column < 0 || column >= columns) {
+			return -1;
+		}
+		return row * columns + column;
+	}
+
+	@Override
+	public int getCellRow(int index) {
+		return index / columns;
+	}
+
+	@Override
+	public int getCellColumn(int index) {
+		return index % columns;
+	}
+
+	@Override
+	public int getNeighborIndex(int index, Direction direction) {
+
+		int neighborIndex = -1;
+		switch (direction) {
+			case UP:
+				if (index >= columns) {
+					neighborIndex = index - columns;
+				}
+				break;
+			case DOWN:
+				if (index < cellCount - columns) {
+					neighborIndex = index + columns;
+				}
+				break;
+			case LEFT:
+				if (index % columns != 0) {
+					neighborIndex = index - 1;
+				}
+				break;
+			case RIGHT:
+				if (index % columns != columns - 1) {
+					neighborIndex = index + 1;
+				}
+				break;
+		}
+		return neighborIndex;
+	}
+
+	@Override
+	public boolean isCellVisited(int index) {
+		return hasBit(visited,index);
+	}
+
+	@Override
+	public void cellVisited(int index) {
+		setBit(visited,index);
+	}
+
+	@Override
+	public void allCellsVisited() {
+		int words = visited.capacity() / Long.BYTES;
+		for (int word = 0; word < words; word++) {
+			WORDS.set(visited, word << 3, -1L);
+		}
+	}
+
+	@Override
+	public boolean hasRightWall(int index) {
+		return !isOpen(index,RIGHT_OPEN_BIT);
+	}
+
+	@Override
+	public boolean hasBottomWall(int index) {
+		return !isOpen(index,BOTTOM_OPEN_BIT);
+	}
+
+	@Override
+	public boolean hasLeftWall(int index) {
+		if (index % columns == 0) {
+			return !hasBit(leftBorder,index / columns);
+		}
+		return !isOpen(index - 1,RIGHT_OPEN_BIT);
+	}
+
+	@Override
+	public boolean hasTopWall(int index) {
+		if (index < columns) {
+			return !hasBit(topBorder,index);
+		}
+		return !isOpen(index - columns,BOTTOM_OPEN_BIT);
+	}
+
+	@Override
+	public void clearRightWall(int index) {
+		open(index,RIGHT_OPEN_BIT);
+	}
+
+	@Override
+	public void clearBottomWall(int index) {
+		open(index,BOTTOM_OPEN_BIT);
+	}
+
+	@Override
+	public void clearLeftWall(int index) {
+		if (index % columns == 0) {
+			setBit(leftBorder,index / columns);
+		} else {
+			open(index - 1,RIGHT_OPEN_BIT);
+		}
+	}
+
+	@Override
+	public void clearTopWall(int index) {
+		if (index < columns) {
+			setBit(topBorder,index);
+		} else {
+			open(index - columns,BOTTOM_OPEN_BIT);
+		}
+	}
+
+	@Override
+	public void atomicCellVisited(int index) {
+		WORDS.getAndBitwiseOr(visited, (index >>> 6) << 3, 1L << index);
+	}
+
+	@Override
+	public void atomicClearRightWall(int index) {
+		WORDS.getAndBitwiseOr(walls, (index >>> 5) << 3, (long) RIGHT_OPEN_BIT << (index << 1));
+	}
+
+	@Override
+	public void atomicClearBottomWall(int index) {
+		WORDS.getAndBitwiseOr(walls, (index >>> 5) << 3, (long) BOTTOM_OPEN_BIT << (index << 1));
+	}
+
+	@Override
+	public void atomicClearWallWord(int wordIndex, long clearedWalls) {
+		WORDS.getAndBitwiseOr(walls, wordIndex << 3, clearedWalls);
+	}
+
+	@Override
+	public int getPassages(int index) {
+		return getPassages(index,index % columns);
+	}
+
+	@Override
+	public int getPassages(int index, int column) {
+
+		/* The open bits of the cell are it's RIGHT and DOWN passages */
+		int cellOpen = openBits(index);
+		int passages = (cellOpen & RIGHT_OPEN_BIT) << Direction.RIGHT.ordinal()
+				| (cellOpen & BOTTOM_OPEN_BIT) >>> 1 << Direction.DOWN.ordinal();
+		if (column == columns - 1) {
+			passages &= ~(1 << Direction.RIGHT.ordinal());
+		}
+		if (index >= cellCount - columns) {
+			passages &= ~(1 << Direction.DOWN.ordinal());
+		}
+		if (column != 0) {
+			passages |= (openBits(index - 1) & RIGHT_OPEN_BIT) << Direction.LEFT.ordinal();
+		}
+		if (index >= columns) {
+			passages |= (openBits(index - columns) & BOTTOM_OPEN_BIT) >>> 1 << Direction.UP.ordinal();
+		}
+		return passages;
+	}
+
+	@Override
+	public void carvePassage(int fromIndex, int toIndex) {
+
+		int difference = toIndex - fromIndex;
+		if (difference == columns) {
+			open(fromIndex,BOTTOM_OPEN_BIT);
+		} else if (difference == -columns) {
+			open(toIndex,BOTTOM_OPEN_BIT);
+		} else if (difference == 1 && toIndex % columns != 0) {
+			open(fromIndex,RIGHT_OPEN_BIT);
+		} else if (difference == -1 && fromIndex % columns != 0) {
+			open(toIndex,RIGHT_OPEN_BIT);
+		} else {
+			throw new IllegalArgumentException("cells " + fromIndex + " and "
+						+ toIndex + " are not neighbors");
+		}
+	}
+
+	@Override
+	public int getWallWordCount() {
+		return wallWordCount;
+	}
+
+	@Override
+	public long getWallWord(int wordIndex) {
+		return ~(long) WORDS.get(walls, wordIndex << 3);
+	}
+
+	@Override
+	public void getWallWords(LongBuffer buffer) {
+		for (int word = 0; word < wallWordCount; word++) {
+			buffer.put(~(long) WORDS.get(walls, word << 3));
+		}
+	}
+
+	@Override
+	public void setWallWords(LongBuffer buffer) {
+		for (int word = 0; word < wallWordCount; word++) {
+			WORDS.set(walls, word << 3, ~buffer.get());
+		}
+	}
+
+	/**
+	 * @return the number of bytes of the mapped file, the bitmaps are not
+	 * kept on the heap
+	 */
+	@Override
+	public long getSizeInBytes() {
+		return (long) walls.capacity() + visited.capacity() + topBorder.capacity()
+				+ leftBorder.capacity();
+	}
+
+	private MappedByteBuffer map(long position, int words) throws IOException {
+		return channel.map(MapMode.READ_WRITE, position, (long) words * Long.BYTES);
+	}
+
+	private int openBits(int index) {
+		return (int) ((long) WORDS.get(walls, (index >>> 5) << 3) >>> (index << 1));
+	}
+
+	private boolean isOpen(int index, int openBit) {
+		return (openBits(index) & openBit) != 0;
+	}
+
+	private void open(int index, int openBit) {
+		int offset = (index >>> 5) << 3;
+		WORDS.set(walls, offset, (long) WORDS.get(walls, offset) | ((long) openBit << (index << 1)));
+	}
+
+	private static boolean hasBit(MappedByteBuffer bitmap, int bit) {
+		return ((long) WORDS.get(bitmap, (bit >>> 6) << 3) & (1L << bit)) != 0;
+	}
+
+	private static void setBit(MappedByteBuffer bitmap, int bit) {
+		int offset = (bit >>> 6) << 3;
+		WORDS.set(bitmap, offset, (long) WORDS.get(bitmap, offset) | (1L << bit));
+	}
+
+	private static void fill(MappedByteBuffer bitmap) {
+		int words = bitmap.capacity() / Long.BYTES;
+		for (int word = 0; word < words; word++) {
+			WORDS.set(bitmap, word << 3, 0L);
+		}
+	}
+
+	private static int wordsFor(int bits, int bitsPerWord) {
+		return (int) (((long) bits + bitsPerWord - 1) / bitsPerWord);
+	}
+}
@@ -2,24 +2,82 @@ package com.bobman159.mazes;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import com.bobman159.mazes.monitor.MazeStartEndEvent;
+
+/**
+ * A maze of rows and columns of cells.
+ * <p>
+ * Every maze owns a single <code>SplittableRandom</code> stream created from
+ * it's seed.  All random choices made while generating the maze (the 
+ * generator's choices, the starting cell and the start and end columns) are
+ * taken from that stream so the same seed always gives the same maze.  
+ * Deterministic sub-streams, for example one per tile or thread, can be made
+ * with <code>getRandom().split()</code>.
+ */
 public class Maze {
 
 	public enum Direction {UP,DOWN,LEFT,RIGHT}
+	/* Looked up once, finding the logger of the calling class walks the stack */
+	private static final Logger logger = LogManager.getLogger(Maze.class);
 	private int rows;
 	private int columns;
-	private MazeCell[][] maze;
-	Random randomGenerator;
+	private IMazeGrid grid;
+	private long seed;
+	private SplittableRandom randomGenerator;
+	private int entranceColumn = -1;
+	private int exitColumn = -1;
 	
+	/**
+	 * Create a maze using a random seed
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 */
 	public Maze(int rows, int columns) {
-		this.rows = rows;
-		this.columns = columns;
-		maze = new MazeCell[rows][columns];
-		createMazeCells();
-		randomGenerator = new Random();
+		this(rows,columns,new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * Create a maze 
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 * @param seed the seed for the maze's random number stream
+	 */
+	public Maze(int rows, int columns, long seed) {
+		this(new MazeGrid(rows,columns),seed);
+	}
+	
+	/**
+	 * Create a maze stored in a given grid, for example a 
+	 * <code>MappedMazeGrid</code> for a maze too large for the heap 
+	 * @param grid the grid to store the maze in, it's rows and columns are 
+	 * the size of the maze
+	 * @param seed the seed for the maze's random number stream
+	 */
+	public Maze(IMazeGrid grid, long seed) {
+		this.rows = grid.getRows();
+		this.columns = grid.getColumns();
+		this.seed = seed;
+		this.grid = grid;
+		randomGenerator = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Put back every wall and restart the random number stream from a new
+	 * seed, so the maze can be generated again without allocating a new
+	 * grid.
+	 * @param seed the seed for the maze's new random number stream
+	 */
+	public void reset(long seed) {
+		grid.reset();
+		this.seed = seed;
+		randomGenerator = new SplittableRandom(seed);
+		entranceColumn = -1;
+		exitColumn = -1;
 	}
 
 	public int getRows() {
@@ -31,7 +89,31 @@ public class Maze {
 	}
 	
 	/**
-	 * Retrieve a maze cell for a given row and column.
+	 * @return the seed the maze's random number stream was created with
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * @return the maze's random number stream, generators must take all of
+	 * their random choices from this stream
+	 */
+	public SplittableRandom getRandom() {
+		return randomGenerator;
+	}
+	
+	/**
+	 * @return the bit-packed grid holding the walls and visited state of the
+	 * maze cells
+	 */
+	public IMazeGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Retrieve a maze cell for a given row and column.  The cell is a view of
+	 * the maze grid, changes made through the cell are made to the maze.
 	 * @param row the row in the maze of the cell 
 	 * @param column the column in the maze of the cell
 	 * @return the new cell, null if the new cell is out of bounds
@@ -39,7 +121,7 @@ public class Maze {
 	public MazeCell getMazeCell(int row, int column) {
 		
 		if (isCellInBounds(row,column)) {
-			return maze[row][column];
+			return new MazeCell(this,row,column);
 		} else {
 			return null;
 		}
@@ -60,25 +142,25 @@ public class Maze {
 			case UP:
 				newCellRow = startCell.getRow() - 1;
 				if (isCellInBounds(newCellRow,newCellColumn)) {
-					newCell = maze[newCellRow][newCellColumn];
+					newCell = new MazeCell(this,newCellRow,newCellColumn);
 				}
 				break;
 			case DOWN:
 				newCellRow = startCell.getRow() + 1;
 				if (isCellInBounds(newCellRow,newCellColumn)) {
-					newCell = maze[newCellRow][newCellColumn];
+					newCell = new MazeCell(this,newCellRow,newCellColumn);
 				}
 				break;
 			case LEFT:
 				newCellColumn = startCell.getColumn() - 1;
 				if (isCellInBounds(newCellRow,newCellColumn)) {
-					newCell = maze[newCellRow][newCellColumn];
+					newCell = new MazeCell(this,newCellRow,newCellColumn);
 				}
 				break;
 			case RIGHT:
 				newCellColumn = startCell.getColumn() + 1;
 				if (isCellInBounds(newCellRow,newCellColumn)) {
-					newCell = maze[newCellRow][newCellColumn];
+					newCell = new MazeCell(this,newCellRow,newCellColumn);
 				}
 				break;	
 		}
@@ -96,29 +178,53 @@ public class Maze {
 	 */
 	public  List<MazeCell> findNotVisitedNeighbors(MazeCell startingCell) {
 		
-		List<MazeCell> unvisitedNeighbors = new ArrayList<>();
+		int[] neighborIndexes = new int[Direction.values().length];
+		int neighborCount = findNotVisitedNeighbors(startingCell.getIndex(), neighborIndexes);
 		
-		MazeCell upCell = getMazeCell(startingCell, Direction.UP);
-		if (isOkToAddAsUnvisitedNeighbor(upCell)) {
-			unvisitedNeighbors.add(upCell);
+		List<MazeCell> unvisitedNeighbors = new ArrayList<>(neighborCount);
+		for (int neighbor = 0; neighbor < neighborCount; neighbor++) {
+			int neighborIndex = neighborIndexes[neighbor];
+			unvisitedNeighbors.add(getMazeCell(grid.getCellRow(neighborIndex),
+							grid.getCellColumn(neighborIndex)));
 		}
 		
-		MazeCell downCell = getMazeCell(startingCell, Direction.DOWN);
-		if (isOkToAddAsUnvisitedNeighbor(downCell)) {
-			unvisitedNeighbors.add(downCell);
+		return unvisitedNeighbors;
+	}
+	
+	/**
+	 * Find the unvisited neighbors for a given cell in the maze without 
+	 * allocating.  The neighbors are checked in the order UP, DOWN, RIGHT, LEFT.
+	 * 
+	 * @param startingCellIndex the index of the starting cell
+	 * @param neighborIndexes a buffer of at least 4 entries that receives the
+	 * indexes of the unvisited neighbor cells
+	 * @return the number of unvisited neighbors stored in neighborIndexes
+	 */
+	public int findNotVisitedNeighbors(int startingCellIndex, int[] neighborIndexes) {
+		
+		int neighborCount = 0;
+		
+		int upIndex = grid.getNeighborIndex(startingCellIndex, Direction.UP);
+		if (isOkToAddAsUnvisitedNeighbor(upIndex)) {
+			neighborIndexes[neighborCount++] = upIndex;
 		}
 		
-		MazeCell rightCell = getMazeCell(startingCell, Direction.RIGHT);
-		if (isOkToAddAsUnvisitedNeighbor(rightCell)) {
-			unvisitedNeighbors.add(rightCell);
-		}	
-
-		MazeCell leftCell = getMazeCell(startingCell, Direction.LEFT);
-		if (isOkToAddAsUnvisitedNeighbor(leftCell)) {
-			unvisitedNeighbors.add(leftCell);
+		int downIndex = grid.getNeighborIndex(startingCellIndex, Direction.DOWN);
+		if (isOkToAddAsUnvisitedNeighbor(downIndex)) {
+			neighborIndexes[neighborCount++] = downIndex;
 		}
 		
-		return unvisitedNeighbors;
+		int rightIndex = grid.getNeighborIndex(startingCellIndex, Direction.RIGHT);
+		if (isOkToAddAsUnvisitedNeighbor(rightIndex)) {
+			neighborIndexes[neighborCount++] = rightIndex;
+		}
+		
+		int leftIndex = grid.getNeighborIndex(startingCellIndex, Direction.LEFT);
+		if (isOkToAddAsUnvisitedNeighbor(leftIndex)) {
+			neighborIndexes[neighborCount++] = leftIndex;
+		}
+		
+		return neighborCount;
 	}
 	
 	/**
@@ -126,7 +232,6 @@ public class Maze {
 	 * @return a random cell in the maze, null if the cell is not in the maze bounds
 	 */
 	public MazeCell getRandomStartingCell() {
-		randomGenerator = new Random();
 		int startRow = randomGenerator.nextInt(getRows()-1);
 		int startColumn = randomGenerator.nextInt(getColumns()-1);
 		return getMazeCell(startRow,startColumn);
@@ -142,16 +247,54 @@ public class Maze {
 		 * the start and end columns should allow for a valid path through the 
 		 * maze.
 		 */
+		MazeStartEndEvent startEndEvent = new MazeStartEndEvent();
+		startEndEvent.begin();
 		int topRowColumn = randomGenerator.nextInt(getColumns()-1);
-		getMazeCell(0, topRowColumn).clearWall(MazeCell.TOP);
-		
 		int bottomRowColumn = randomGenerator.nextInt(getColumns()-1);
-		getMazeCell(getRows()-1,bottomRowColumn).clearWall(MazeCell.BOTTOM);
+		setStartEnd(topRowColumn,bottomRowColumn);
+		startEndEvent.end();
+		if (startEndEvent.shouldCommit()) {
+			startEndEvent.rows = rows;
+			startEndEvent.columns = columns;
+			startEndEvent.seed = seed;
+			startEndEvent.entranceColumn = topRowColumn;
+			startEndEvent.exitColumn = bottomRowColumn;
+			startEndEvent.commit();
+		}
 		
-		if (LogManager.getLogger().isDebugEnabled()) {
+		if (logger.isDebugEnabled()) {
 			MazeWriter.debugMazeCellContents(this);
 		}
 	}
+	
+	/**
+	 * Sets the starting and end of a maze by opening the top wall of a cell in
+	 * the top row and the bottom wall of a cell in the bottom row.
+	 * @param entranceColumn the column of the entrance in the top row
+	 * @param exitColumn the column of the exit in the bottom row
+	 */
+	public void setStartEnd(int entranceColumn, int exitColumn) {
+		getMazeCell(0, entranceColumn).clearWall(MazeCell.TOP);
+		getMazeCell(getRows()-1,exitColumn).clearWall(MazeCell.BOTTOM);
+		this.entranceColumn = entranceColumn;
+		this.exitColumn = exitColumn;
+	}
+	
+	/**
+	 * @return the column of the entrance in the top row, -1 if the start and 
+	 * end of the maze have not been set
+	 */
+	public int getEntranceColumn() {
+		return entranceColumn;
+	}
+	
+	/**
+	 * @return the column of the exit in the bottom row, -1 if the start and 
+	 * end of the maze have not been set
+	 */
+	public int getExitColumn() {
+		return exitColumn;
+	}
 
 	/*
 	 * Returns true if a cell is in bounds, false otherwise
@@ -169,19 +312,11 @@ public class Maze {
 		return true;
 	}
 	
-	private boolean isOkToAddAsUnvisitedNeighbor(MazeCell cell) {
+	private boolean isOkToAddAsUnvisitedNeighbor(int cellIndex) {
 		
-		if (cell != null && !cell.hasCellBeenVisited()) {
+		if (cellIndex >= 0 && !grid.isCellVisited(cellIndex)) {
 				return true;
 		}
 		return false;
 	}
-	
-	private void createMazeCells() {
-		for (int rowIndex = 0; rowIndex < rows; rowIndex++) {
-			for (int columnIndex=0; columnIndex < columns; columnIndex++) {
-				maze[rowIndex][columnIndex] = new MazeCell(rowIndex,columnIndex);
-			}
-		}	
-	}
 }
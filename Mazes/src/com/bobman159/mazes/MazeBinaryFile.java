@@ -0,0 +1,201 @@
+package com.bobman159.mazes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * Reads and writes mazes in a compact binary format.
+ * <p>
+ * The format is little endian, a 32 byte header followed by the wall bits
+ * of the maze grid as longs:
+ * <pre>
+ *  0  4 bytes  magic "MAZE"
+ *  4  short    format version (1)
+ *  6  short    MazeType ordinal of the algorithm, -1 if not known
+ *  8  int      rows
+ * 12  int      columns
+ * 16  long     seed
+ * 24  int      entrance column in the top row, -1 if not set
+ * 28  int      exit column in the bottom row, -1 if not set
+ * 32  longs    2 bits per cell, the right wall of cell i in bit 2 * (i % 32)
+ *              of long i / 32 and the bottom wall in the bit above it
+ * </pre>
+ * The outer left wall is always closed and the outer top wall is closed
+ * except for the entrance.  Files are read and written through a memory
+ * mapped <code>FileChannel</code>, the wall bits are copied in bulk without
+ * any parsing.
+ */
+public class MazeBinaryFile {
+
+	public static final short VERSION = 1;
+	public static final int HEADER_SIZE = 32;
+	private static final byte[] MAGIC = {'M','A','Z','E'};
+	private static final short UNKNOWN_MAZE_TYPE = -1;
+	private static final int NO_COLUMN = -1;
+	/* 2 wall bits per cell, 32 cells per long */
+	private static final int CELLS_PER_WALL_WORD = 32;
+
+	private Maze maze;
+	private MazeType mazeType;
+
+	/**
+	 * @param maze the maze to write
+	 * @param mazeType the type of algorithm that generated the maze, null if
+	 * it is not known
+	 */
+	public MazeBinaryFile(Maze maze, MazeType mazeType) {
+		this.maze = maze;
+		this.mazeType = mazeType;
+	}
+
+	public Maze getMaze() {
+		return maze;
+	}
+
+	/**
+	 * @return the type of algorithm that generated the maze, null if it is
+	 * not known
+	 */
+	public MazeType getMazeType() {
+		return mazeType;
+	}
+
+	/**
+	 * @return the number of bytes needed to write the maze
+	 */
+	public int getSizeInBytes() {
+		return HEADER_SIZE + maze.getGrid().getWallWordCount() * Long.BYTES;
+	}
+
+	/**
+	 * Write the maze to a buffer starting at the buffer's position, the
+	 * position is moved past the maze.
+	 * @param buffer a buffer with <code>getSizeInBytes()</code> bytes remaining
+	 */
+	public void encode(ByteBuffer buffer) {
+
+		ByteBuffer mazeBuffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		mazeBuffer.put(MAGIC);
+		mazeBuffer.putShort(VERSION);
+		mazeBuffer.putShort(mazeType == null ? UNKNOWN_MAZE_TYPE : (short) mazeType.ordinal());
+		mazeBuffer.putInt(maze.getRows());
+		mazeBuffer.putInt(maze.getColumns());
+		mazeBuffer.putLong(maze.getSeed());
+		mazeBuffer.putInt(maze.getEntranceColumn());
+		mazeBuffer.putInt(maze.getExitColumn());
+		maze.getGrid().getWallWords(mazeBuffer.asLongBuffer());
+		buffer.position(buffer.position() + getSizeInBytes());
+	}
+
+	/**
+	 * Read a maze from a buffer starting at the buffer's position, the
+	 * position is moved past the maze.
+	 * @param buffer the buffer holding the maze
+	 * @return the maze and the type of algorithm that generated it
+	 * @throws IllegalArgumentException if the buffer does not hold a maze in
+	 * this format and version
+	 */
+	public static MazeBinaryFile decode(ByteBuffer buffer) {
+
+		ByteBuffer mazeBuffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		if (mazeBuffer.remaining() < HEADER_SIZE) {
+			throw new IllegalArgumentException("the maze header is incomplete");
+		}
+		for (byte magicByte : MAGIC) {
+			if (mazeBuffer.get() != magicByte) {
+				throw new IllegalArgumentException("the buffer does not hold a maze");
+			}
+		}
+		short version = mazeBuffer.getShort();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("maze format version " + version
+						+ " is not supported");
+		}
+		short mazeTypeOrdinal = mazeBuffer.getShort();
+		int rows = mazeBuffer.getInt();
+		int columns = mazeBuffer.getInt();
+		long seed = mazeBuffer.getLong();
+		int entranceColumn = mazeBuffer.getInt();
+		int exitColumn = mazeBuffer.getInt();
+
+		/* The header is checked before the maze is allocated */
+		if (rows <= 0 || columns <= 0) {
+			throw new IllegalArgumentException("the maze size " + rows + "x" + columns
+						+ " is not valid");
+		}
+		long cellCount = (long) rows * columns;
+		if (cellCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("a maze can not have more than "
+						+ Integer.MAX_VALUE + " cells");
+		}
+		long wallWordCount = (cellCount + CELLS_PER_WALL_WORD - 1) / CELLS_PER_WALL_WORD;
+		if (mazeBuffer.capacity() < HEADER_SIZE + wallWordCount * Long.BYTES) {
+			throw new IllegalArgumentException("the maze walls are incomplete");
+		}
+		if ((entranceColumn == NO_COLUMN) != (exitColumn == NO_COLUMN)) {
+			throw new IllegalArgumentException("the maze has only one of an entrance and an exit");
+		}
+		if (entranceColumn < NO_COLUMN || entranceColumn >= columns) {
+			throw new IllegalArgumentException("the entrance column " + entranceColumn
+						+ " is not in the maze");
+		}
+		if (exitColumn < NO_COLUMN || exitColumn >= columns) {
+			throw new IllegalArgumentException("the exit column " + exitColumn
+						+ " is not in the maze");
+		}
+
+		MazeType mazeType = null;
+		if (mazeTypeOrdinal >= 0 && mazeTypeOrdinal < MazeType.values().length) {
+			mazeType = MazeType.values()[mazeTypeOrdinal];
+		}
+		Maze maze = new Maze(rows,columns,seed);
+		MazeBinaryFile mazeFile = new MazeBinaryFile(maze,mazeType);
+		IMazeGrid grid = maze.getGrid();
+		grid.setWallWords(mazeBuffer.asLongBuffer());
+		grid.allCellsVisited();
+		if (entranceColumn != NO_COLUMN) {
+			maze.setStartEnd(entranceColumn,exitColumn);
+		}
+		buffer.position(buffer.position() + mazeFile.getSizeInBytes());
+		return mazeFile;
+	}
+
+	/**
+	 * Write the maze to a file, replacing the file if it exists
+	 * @param file the file to write
+	 * @throws IOException if the file can not be written
+	 */
+	public void save(Path file) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			MappedByteBuffer mappedFile = channel.map(MapMode.READ_WRITE, 0, getSizeInBytes());
+			encode(mappedFile);
+		}
+	}
+
+	/**
+	 * Read a maze from a file
+	 * @param file the file to read
+	 * @return the maze and the type of algorithm that generated it
+	 * @throws IOException if the file can not be read
+	 * @throws IllegalArgumentException if the file does not hold a maze in
+	 * this format and version
+	 */
+	public static MazeBinaryFile load(Path file) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer mappedFile = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			return decode(mappedFile);
+		}
+	}
+}
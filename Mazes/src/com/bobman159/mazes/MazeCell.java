@@ -8,6 +8,10 @@ import org.apache.logging.log4j.Logger;
 
 /**
  * A cell in a maze.  
+ * <p>
+ * A <code>MazeCell</code> is a view of one cell of a {@link Maze}, the walls
+ * and visited state are kept in the maze's {@link IMazeGrid}.  Two 
+ * <code>MazeCell</code> objects for the same maze row and column are equal.
  *
  */
 public class MazeCell {
@@ -19,26 +23,24 @@ public class MazeCell {
 	private static final String THIS_POSITION = "this: {}";
 	private static final String NEIGHBOR_POSITION = "neighborCell: {}";
 	
-	private int row;
-	private int column;
-	private boolean cellVisited;
-	private boolean[] walls = new boolean[4];
+	private static final Logger logger = LogManager.getLogger(MazeCell.class);
 	
-	Logger logger = LogManager.getLogger(MazeCell.class);
+	private final IMazeGrid grid;
+	private final int row;
+	private final int column;
+	private final int index;
 	
 	/**
-	 * Construct a cell in the maze
+	 * Construct a view of a cell in the maze
+	 * @param maze the maze the cell belongs to
 	 * @param row
 	 * @param column
 	 */
-	public MazeCell(int row,int column) {
+	public MazeCell(Maze maze,int row,int column) {
+		this.grid = maze.getGrid();
 		this.row = row;
 		this.column = column;
-		cellVisited = false;
-		walls[TOP] = true;
-		walls[RIGHT] = true;
-		walls[BOTTOM] = true;
-		walls[LEFT] = true;
+		this.index = grid.getCellIndex(row, column);
 	}
 
 	public int getRow() {
@@ -49,11 +51,18 @@ public class MazeCell {
 		return column;
 	}
 	
+	/**
+	 * @return the index of the cell in the maze grid
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
 	/**
 	 * Mark a cell as visited in the maze.
 	 */
 	public void cellVisited() {
-		cellVisited = true;
+		grid.cellVisited(index);
 	}
 	
 	/**
@@ -61,7 +70,7 @@ public class MazeCell {
 	 * @return true if cell has been visited, false otherwise.
 	 */
 	public boolean hasCellBeenVisited() {
-		return cellVisited;
+		return grid.isCellVisited(index);
 	}
 	
 	/**
@@ -69,7 +78,7 @@ public class MazeCell {
 	 * @return true if the cell has a top wall, false otherwise
 	 */
 	public boolean hasTopWall() {
-		return walls[TOP];
+		return grid.hasTopWall(index);
 	}
 		
 	/**
@@ -77,7 +86,7 @@ public class MazeCell {
 	 * @return true if the cell has a bottom wall, false otherwise
 	 */
 	public boolean hasBottomWall() {
-		return walls[BOTTOM];
+		return grid.hasBottomWall(index);
 	}
 	
 	/**
@@ -85,7 +94,7 @@ public class MazeCell {
 	 * @return true if the cell has a left wall, false otherwise
 	 */
 	public boolean hasLeftWall() {
-		return walls[LEFT];
+		return grid.hasLeftWall(index);
 	}
 	
 	/**
@@ -93,15 +102,32 @@ public class MazeCell {
 	 * @return true if the cell has a right wall, false otherwise
 	 */
 	public boolean hasRightWall() {
-		return walls[RIGHT];
+		return grid.hasRightWall(index);
 	}
 	
 	/**
-	 * Clear a specified wall from the cell (TOP=0,RIGHT=1,BOTTOM=2,LEFT=3)
+	 * Clear a specified wall from the cell (TOP=0,RIGHT=1,BOTTOM=2,LEFT=3).
+	 * Walls are shared, clearing the TOP wall also clears the BOTTOM wall 
+	 * of the cell above this cell.
 	 * @param wall
 	 */
 	public void clearWall(int wall) {
-		walls[wall] = false;
+		switch (wall) {
+			case TOP:
+				grid.clearTopWall(index);
+				break;
+			case RIGHT:
+				grid.clearRightWall(index);
+				break;
+			case BOTTOM:
+				grid.clearBottomWall(index);
+				break;
+			case LEFT:
+				grid.clearLeftWall(index);
+				break;
+			default:
+				throw new IllegalArgumentException("invalid wall " + wall);
+		}
 	}
 	
 	/**
@@ -111,8 +137,8 @@ public class MazeCell {
 
 		return MessageFormat.format("Maze Cell: {0}:{1} visited: {2} "
 				+ "topWall: {3} rightWall: {4} bottomWall: {5} leftWall: {6}", 
-				row, column,cellVisited,walls[TOP],walls[RIGHT],walls[BOTTOM],
-				walls[LEFT]);
+				row, column,hasCellBeenVisited(),hasTopWall(),hasRightWall(),
+				hasBottomWall(),hasLeftWall());
 	}
 	
 	/**
@@ -239,4 +265,21 @@ public class MazeCell {
 		}
 		return isRight;
 	}	
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof MazeCell)) {
+			return false;
+		}
+		MazeCell otherCell = (MazeCell) other;
+		return grid == otherCell.grid && index == otherCell.index;
+	}
+	
+	@Override
+	public int hashCode() {
+		return index;
+	}
 }
@@ -0,0 +1,366 @@
+package com.bobman159.mazes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+import com.bobman159.mazes.monitor.MazeWriteEvent;
+import com.bobman159.mazes.solve.MazePath;
+
+/**
+ * Writes mazes to a <code>WritableByteChannel</code> in the same text
+ * format as <code>MazeWriter</code>, for mazes too large to write a line at
+ * a time.
+ * <p>
+ * The characters of the configuration are encoded once, into a byte segment
+ * for each combination of wall and solution path a cell can have.  Rows are
+ * built by copying the segments into a reusable block that is written to
+ * the channel only when it is full, there are no strings, no character
+ * encoding and no locking per row.  The channel is not closed by the writer.
+ * <p>
+ * The segments of the last configuration and charset used are kept for the
+ * next writer, so writing many small mazes with the same configuration only
+ * encodes them once.  The block is no larger than the maze.
+ */
+public class MazeChannelWriter {
+
+	/* Large enough that a write is one system call for many rows */
+	private static final int BLOCK_SIZE = 1 << 16;
+
+	/* Segments of a cell walls row, the cell contents and it's right wall */
+	private static final int CELL_RIGHT_WALL = 0;
+	private static final int CELL_NO_RIGHT_WALL = 1;
+	private static final int PATH_RIGHT_WALL = 2;
+	private static final int PATH_NO_RIGHT_WALL = 3;
+	private static final int PATH_TO_RIGHT = 4;
+	/* Segments of a cell bottom row, the separator and the bottom wall */
+	private static final int BOTTOM_WALL = 0;
+	private static final int NO_BOTTOM_WALL = 1;
+	private static final int PATH_DOWN = 2;
+	/* Rows without a path are copied in groups of cells, one segment for each
+	 * combination of the walls of the group */
+	private static final int GROUP_SIZE = MazeWallGroups.GROUP_SIZE;
+
+	private static volatile EncodedSegments lastEncodedSegments;
+
+	private WritableByteChannel channel;
+	private Maze maze;
+	private IMazeGrid grid;
+	private MazeWriterConfiguration configuration;
+	private MazePath solutionPath;
+	private byte[][] cellSegments;
+	private byte[][] bottomSegments;
+	private byte[][] cellGroups;
+	private byte[][] bottomGroups;
+	private byte[] leftWall;
+	private byte[] separator;
+	private byte[] lineSeparator;
+	private int longestSegment;
+	private byte[] block;
+	private ByteBuffer blockBuffer;
+	private int blockPosition;
+
+	/**
+	 * Write a maze to a channel using default characters
+	 * @param channel the channel to use for writing
+	 * @param maze the maze to be written
+	 */
+	public MazeChannelWriter(WritableByteChannel channel, Maze maze) {
+		this(channel,maze,new MazeWriterConfiguration());
+	}
+
+	/**
+	 * Write a maze to an output stream, the stream is written in blocks
+	 * and does not need to be buffered.
+	 * @param outStream the stream to use for writing
+	 * @param maze the maze to be written
+	 * @param configuration the characters and cell sizes to write with
+	 */
+	public MazeChannelWriter(OutputStream outStream, Maze maze, MazeWriterConfiguration configuration) {
+		this(Channels.newChannel(outStream),maze,configuration);
+	}
+
+	/**
+	 * Write a maze to a channel, the characters are encoded with the
+	 * default charset like <code>MazeWriter</code>.
+	 * @param channel the channel to use for writing
+	 * @param maze the maze to be written
+	 * @param configuration the characters and cell sizes to write with
+	 */
+	public MazeChannelWriter(WritableByteChannel channel, Maze maze,
+			MazeWriterConfiguration configuration) {
+		this(channel,maze,configuration,Charset.defaultCharset());
+	}
+
+	/**
+	 *
+	 * @param channel the channel to use for writing
+	 * @param maze the maze to be written
+	 * @param configuration the characters and cell sizes to write with
+	 * @param charset the charset to encode the characters with
+	 */
+	public MazeChannelWriter(WritableByteChannel channel, Maze maze,
+			MazeWriterConfiguration configuration, Charset charset) {
+		this.channel = channel;
+		this.maze = maze;
+		this.grid = maze.getGrid();
+		this.configuration = configuration;
+		useSegments(charset);
+		block = new byte[(int) Math.max(longestSegment, Math.min(BLOCK_SIZE, getLargestTextSize()))];
+		blockBuffer = ByteBuffer.wrap(block);
+	}
+
+	/**
+	 * Draw a solution path over the maze using the configuration's path
+	 * character
+	 * @param solutionPath the path to draw, null to write the maze without a
+	 * path
+	 */
+	public void setSolutionPath(MazePath solutionPath) {
+		this.solutionPath = solutionPath;
+	}
+
+	/**
+	 * Write the maze, everything written is passed to the channel before
+	 * returning.
+	 * @throws IOException if the channel can not be written
+	 */
+	public void writeMaze() throws IOException {
+
+		MazeWriteEvent writeEvent = new MazeWriteEvent();
+		writeEvent.begin();
+		int columns = maze.getColumns();
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			put(separator);
+			put(bottomSegments[grid.hasTopWall(columnIndex) ? BOTTOM_WALL : NO_BOTTOM_WALL]);
+		}
+		put(separator);
+		put(lineSeparator);
+
+		boolean[] pathCells = null;
+		boolean[] pathCellsBelow = null;
+		if (solutionPath != null) {
+			pathCellsBelow = new boolean[columns + 1];
+			findPathCells(0,pathCellsBelow);
+			pathCells = new boolean[columns + 1];
+		}
+		int numberOfCellContentRows = configuration.getCellHeight() - 2;
+		for (int rowIndex = 0; rowIndex < maze.getRows(); rowIndex++) {
+			int cellIndex = grid.getCellIndex(rowIndex, 0);
+			if (solutionPath != null) {
+				boolean[] swapCells = pathCells;
+				pathCells = pathCellsBelow;
+				pathCellsBelow = swapCells;
+				findPathCells(rowIndex + 1,pathCellsBelow);
+			}
+			for (int rowsToWrite = numberOfCellContentRows; rowsToWrite > 0; rowsToWrite--) {
+				writeCellWallsRow(cellIndex,columns,pathCells);
+			}
+			writeCellBottomRow(cellIndex,columns,pathCells,pathCellsBelow);
+		}
+		flush();
+		writeEvent.commitWrite("text",maze);
+	}
+
+	private void writeCellWallsRow(int cellIndex, int columns, boolean[] pathCells)
+			throws IOException {
+
+		put(leftWall);
+		int columnIndex = 0;
+		if (pathCells == null) {
+			for (; columnIndex + GROUP_SIZE <= columns; columnIndex += GROUP_SIZE) {
+				int rightWalls = MazeWallGroups.getRightWalls(grid,cellIndex + columnIndex);
+				put(cellGroups[rightWalls]);
+			}
+		}
+		for (; columnIndex < columns; columnIndex++) {
+			int segment;
+			if (grid.hasRightWall(cellIndex + columnIndex)) {
+				segment = CELL_RIGHT_WALL;
+			} else {
+				segment = CELL_NO_RIGHT_WALL;
+			}
+			if (pathCells != null && pathCells[columnIndex]) {
+				/* Two neighboring cells on the path with an open wall are joined */
+				segment = segment == CELL_RIGHT_WALL ? PATH_RIGHT_WALL
+						: pathCells[columnIndex + 1] ? PATH_TO_RIGHT : PATH_NO_RIGHT_WALL;
+			}
+			put(cellSegments[segment]);
+		}
+		put(lineSeparator);
+	}
+
+	private void writeCellBottomRow(int cellIndex, int columns, boolean[] pathCells,
+			boolean[] pathCellsBelow) throws IOException {
+
+		int columnIndex = 0;
+		if (pathCells == null) {
+			for (; columnIndex + GROUP_SIZE <= columns; columnIndex += GROUP_SIZE) {
+				int bottomWalls = MazeWallGroups.getBottomWalls(grid,cellIndex + columnIndex);
+				put(bottomGroups[bottomWalls]);
+			}
+		}
+		for (; columnIndex < columns; columnIndex++) {
+			int segment;
+			if (grid.hasBottomWall(cellIndex + columnIndex)) {
+				segment = BOTTOM_WALL;
+			} else if (pathCells != null && pathCells[columnIndex] && pathCellsBelow[columnIndex]) {
+				segment = PATH_DOWN;
+			} else {
+				segment = NO_BOTTOM_WALL;
+			}
+			put(separator);
+			put(bottomSegments[segment]);
+		}
+		put(separator);
+		put(lineSeparator);
+	}
+
+	/*
+	 * Set the path cells of a row, no cells are on the path past the last
+	 * row or past the last column
+	 */
+	private void findPathCells(int rowIndex, boolean[] pathCells) {
+
+		int columns = maze.getColumns();
+		boolean inMaze = rowIndex < maze.getRows();
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			pathCells[columnIndex] = inMaze
+					&& solutionPath.isOnPath(grid.getCellIndex(rowIndex, columnIndex));
+		}
+	}
+
+	/*
+	 * Use the segments of the last writer when it had the same configuration
+	 * and charset, the segments are never changed once encoded
+	 */
+	private void useSegments(Charset charset) {
+
+		EncodedSegments encodedSegments = lastEncodedSegments;
+		if (encodedSegments != null && encodedSegments.charset.equals(charset)
+				&& encodedSegments.configuration.equals(configuration)) {
+			cellSegments = encodedSegments.cellSegments;
+			bottomSegments = encodedSegments.bottomSegments;
+			cellGroups = encodedSegments.cellGroups;
+			bottomGroups = encodedSegments.bottomGroups;
+			leftWall = encodedSegments.leftWall;
+			separator = encodedSegments.separator;
+			lineSeparator = encodedSegments.lineSeparator;
+			longestSegment = encodedSegments.longestSegment;
+		} else {
+			encodeSegments(charset);
+			lastEncodedSegments = new EncodedSegments(this, charset);
+		}
+	}
+
+	/*
+	 * The most bytes the maze can be written in, every line is at most the
+	 * longest cell segment for each column
+	 */
+	private long getLargestTextSize() {
+
+		int longestCell = leftWall.length;
+		for (byte[] segment : cellSegments) {
+			longestCell = Math.max(longestCell, segment.length);
+		}
+		for (byte[] segment : bottomSegments) {
+			longestCell = Math.max(longestCell, separator.length + segment.length);
+		}
+		long lines = (long) maze.getRows() * (configuration.getCellHeight() - 1) + 1;
+		return lines * ((maze.getColumns() + 1L) * longestCell + lineSeparator.length);
+	}
+
+	private void encodeSegments(Charset charset) {
+
+		String cellContents = configuration.getCellContents();
+		String pathContents = configuration.getPathContents();
+		String wall = String.valueOf(configuration.getLeftRightWall());
+		String emptyWall = " ";
+		cellSegments = new byte[5][];
+		cellSegments[CELL_RIGHT_WALL] = (cellContents + wall).getBytes(charset);
+		cellSegments[CELL_NO_RIGHT_WALL] = (cellContents + emptyWall).getBytes(charset);
+		cellSegments[PATH_RIGHT_WALL] = (pathContents + wall).getBytes(charset);
+		cellSegments[PATH_NO_RIGHT_WALL] = (pathContents + emptyWall).getBytes(charset);
+		cellSegments[PATH_TO_RIGHT] = (pathContents + configuration.getPathCharacter()).getBytes(charset);
+		bottomSegments = new byte[3][];
+		bottomSegments[BOTTOM_WALL] = configuration.getTopBottomWall().getBytes(charset);
+		bottomSegments[NO_BOTTOM_WALL] = cellContents.getBytes(charset);
+		bottomSegments[PATH_DOWN] = pathContents.getBytes(charset);
+		leftWall = wall.getBytes(charset);
+		separator = String.valueOf(configuration.getCellSeparator()).getBytes(charset);
+		lineSeparator = System.lineSeparator().getBytes(charset);
+
+		longestSegment = Math.max(leftWall.length, Math.max(separator.length, lineSeparator.length));
+		for (byte[] segment : cellSegments) {
+			longestSegment = Math.max(longestSegment, segment.length);
+		}
+		for (byte[] segment : bottomSegments) {
+			longestSegment = Math.max(longestSegment, segment.length);
+		}
+
+		/* Bit n of a group's index is the wall of the n'th cell in the group */
+		cellGroups = new byte[MazeWallGroups.GROUP_COMBINATIONS][];
+		bottomGroups = new byte[MazeWallGroups.GROUP_COMBINATIONS][];
+		for (int walls = 0; walls < cellGroups.length; walls++) {
+			ByteArrayOutputStream cellGroup = new ByteArrayOutputStream();
+			ByteArrayOutputStream bottomGroup = new ByteArrayOutputStream();
+			for (int groupCell = 0; groupCell < GROUP_SIZE; groupCell++) {
+				boolean hasWall = (walls & (1 << groupCell)) != 0;
+				cellGroup.writeBytes(cellSegments[hasWall ? CELL_RIGHT_WALL : CELL_NO_RIGHT_WALL]);
+				bottomGroup.writeBytes(separator);
+				bottomGroup.writeBytes(bottomSegments[hasWall ? BOTTOM_WALL : NO_BOTTOM_WALL]);
+			}
+			cellGroups[walls] = cellGroup.toByteArray();
+			bottomGroups[walls] = bottomGroup.toByteArray();
+			longestSegment = Math.max(longestSegment,
+					Math.max(cellGroups[walls].length, bottomGroups[walls].length));
+		}
+	}
+
+	private void put(byte[] segment) throws IOException {
+		if (blockPosition + segment.length > block.length) {
+			flush();
+		}
+		System.arraycopy(segment, 0, block, blockPosition, segment.length);
+		blockPosition += segment.length;
+	}
+
+	private void flush() throws IOException {
+		blockBuffer.clear().limit(blockPosition);
+		while (blockBuffer.hasRemaining()) {
+			channel.write(blockBuffer);
+		}
+		blockPosition = 0;
+	}
+
+	private static class EncodedSegments {
+
+		private final MazeWriterConfiguration configuration;
+		private final Charset charset;
+		private final byte[][] cellSegments;
+		private final byte[][] bottomSegments;
+		private final byte[][] cellGroups;
+		private final byte[][] bottomGroups;
+		private final byte[] leftWall;
+		private final byte[] separator;
+		private final byte[] lineSeparator;
+		private final int longestSegment;
+
+		EncodedSegments(MazeChannelWriter writer, Charset charset) {
+			configuration = new MazeWriterConfiguration(writer.configuration);
+			this.charset = charset;
+			cellSegments = writer.cellSegments;
+			bottomSegments = writer.bottomSegments;
+			cellGroups = writer.cellGroups;
+			bottomGroups = writer.bottomGroups;
+			leftWall = writer.leftWall;
+			separator = writer.separator;
+			lineSeparator = writer.lineSeparator;
+			longestSegment = writer.longestSegment;
+		}
+	}
+}
@@ -1,33 +1,211 @@
 package com.bobman159.mazes;
 
+import java.util.SplittableRandom;
+
+import com.bobman159.mazes.generate.MazeGeneratorBinaryTree;
+import com.bobman159.mazes.generate.MazeGeneratorEllersAlgorithm;
+import com.bobman159.mazes.generate.MazeGeneratorGrowingTree;
+import com.bobman159.mazes.generate.MazeGeneratorGrowingTree.CellSelection;
+import com.bobman159.mazes.generate.MazeGeneratorHuntAndKill;
+import com.bobman159.mazes.generate.MazeGeneratorKruskalsAlgorithm;
+import com.bobman159.mazes.generate.MazeGeneratorParallelTiles;
 import com.bobman159.mazes.generate.MazeGeneratorPrimsAlgorithim;
 import com.bobman159.mazes.generate.MazeGeneratorRecursiveBacktracker;
+import com.bobman159.mazes.generate.MazeGeneratorSidewinder;
+import com.bobman159.mazes.generate.MazeGeneratorWilsonsAlgorithm;
 
 public class MazeFactory {
 	
-	public enum MazeType {PRIMS, RECURSIVEBACKTRACKER}
+	/* New types are added at the end, MazeBinaryFile saves the ordinal */
+	public enum MazeType {PRIMS, RECURSIVEBACKTRACKER, ELLERS, KRUSKALS, WILSONS, HUNTANDKILL,
+		SIDEWINDER, BINARYTREE, GROWINGTREE_NEWEST, GROWINGTREE_RANDOM, GROWINGTREE_OLDEST,
+		GROWINGTREE_MIXED}
 	
 	/**
-	 * Creates a maze generator
+	 * Creates a maze generator using a random seed
 	 * @param type the type of maze generation algorithm to use
 	 * @param rows the number of rows in the maze
 	 * @param columns the number of columns in the maze
 	 * @return 
 	 */
 	public static IMazeGenerator createMazeGenerator(MazeType type,int rows, int columns) {
+		return createMazeGenerator(type,rows,columns,new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * Creates a maze generator
+	 * @param type the type of maze generation algorithm to use
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 * @param seed the seed for the maze's random numbers, the same seed always
+	 * creates the same maze
+	 * @return 
+	 */
+	public static IMazeGenerator createMazeGenerator(MazeType type,int rows, int columns, long seed) {
 		
 		IMazeGenerator mazeGenerator = null;
 		switch(type) {
 			case PRIMS:
-				mazeGenerator = new MazeGeneratorPrimsAlgorithim(rows,columns);
+				mazeGenerator = new MazeGeneratorPrimsAlgorithim(rows,columns,seed);
 				break;
 			case RECURSIVEBACKTRACKER:
-				mazeGenerator = new MazeGeneratorRecursiveBacktracker(rows,columns);
+				mazeGenerator = new MazeGeneratorRecursiveBacktracker(rows,columns,seed);
+				break;
+			case ELLERS:
+				mazeGenerator = new MazeGeneratorEllersAlgorithm(rows,columns,seed);
+				break;
+			case KRUSKALS:
+				mazeGenerator = new MazeGeneratorKruskalsAlgorithm(rows,columns,seed);
+				break;
+			case WILSONS:
+				mazeGenerator = new MazeGeneratorWilsonsAlgorithm(rows,columns,seed);
+				break;
+			case HUNTANDKILL:
+				mazeGenerator = new MazeGeneratorHuntAndKill(rows,columns,seed);
+				break;
+			case SIDEWINDER:
+				mazeGenerator = new MazeGeneratorSidewinder(rows,columns,seed);
+				break;
+			case BINARYTREE:
+				mazeGenerator = new MazeGeneratorBinaryTree(rows,columns,seed);
+				break;
+			case GROWINGTREE_NEWEST:
+				mazeGenerator = new MazeGeneratorGrowingTree(rows,columns,seed,CellSelection.NEWEST);
+				break;
+			case GROWINGTREE_RANDOM:
+				mazeGenerator = new MazeGeneratorGrowingTree(rows,columns,seed,CellSelection.RANDOM);
+				break;
+			case GROWINGTREE_OLDEST:
+				mazeGenerator = new MazeGeneratorGrowingTree(rows,columns,seed,CellSelection.OLDEST);
+				break;
+			case GROWINGTREE_MIXED:
+				mazeGenerator = new MazeGeneratorGrowingTree(rows,columns,seed,CellSelection.MIXED);
 				break;
 		}
 		
 		return mazeGenerator;
 		
 	}
+	
+	/**
+	 * Creates a maze generator that generates into an existing, empty maze.
+	 * The maze's seed is used, the same seed always creates the same maze.
+	 * The generator's scratch space for the whole maze is still kept on the
+	 * heap, <code>createParallelMazeGenerator</code> keeps the heap small for
+	 * a maze in a <code>MappedMazeGrid</code>.
+	 * @param type the type of maze generation algorithm to use
+	 * @param maze the maze to generate, for example one stored in a 
+	 * <code>MappedMazeGrid</code>
+	 * @return
+	 */
+	public static IMazeGenerator createMazeGenerator(MazeType type, Maze maze) {
+		
+		IMazeGenerator mazeGenerator = null;
+		switch(type) {
+			case PRIMS:
+				mazeGenerator = new MazeGeneratorPrimsAlgorithim(maze);
+				break;
+			case RECURSIVEBACKTRACKER:
+				mazeGenerator = new MazeGeneratorRecursiveBacktracker(maze);
+				break;
+			case ELLERS:
+				mazeGenerator = new MazeGeneratorEllersAlgorithm(maze);
+				break;
+			case KRUSKALS:
+				mazeGenerator = new MazeGeneratorKruskalsAlgorithm(maze);
+				break;
+			case WILSONS:
+				mazeGenerator = new MazeGeneratorWilsonsAlgorithm(maze);
+				break;
+			case HUNTANDKILL:
+				mazeGenerator = new MazeGeneratorHuntAndKill(maze);
+				break;
+			case SIDEWINDER:
+				mazeGenerator = new MazeGeneratorSidewinder(maze);
+				break;
+			case BINARYTREE:
+				mazeGenerator = new MazeGeneratorBinaryTree(maze);
+				break;
+			case GROWINGTREE_NEWEST:
+				mazeGenerator = new MazeGeneratorGrowingTree(maze,CellSelection.NEWEST);
+				break;
+			case GROWINGTREE_RANDOM:
+				mazeGenerator = new MazeGeneratorGrowingTree(maze,CellSelection.RANDOM);
+				break;
+			case GROWINGTREE_OLDEST:
+				mazeGenerator = new MazeGeneratorGrowingTree(maze,CellSelection.OLDEST);
+				break;
+			case GROWINGTREE_MIXED:
+				mazeGenerator = new MazeGeneratorGrowingTree(maze,CellSelection.MIXED);
+				break;
+		}
+		
+		return mazeGenerator;
+	}
+	
+	/**
+	 * Creates a maze generator that splits the maze into tiles and generates
+	 * the tiles in parallel using all available processors.
+	 * @param type the type of maze generation algorithm to use for each tile
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 * @return
+	 */
+	public static IMazeGenerator createParallelMazeGenerator(MazeType type,int rows, int columns, 
+			long seed) {
+		return createParallelMazeGenerator(type,rows,columns,seed,
+				MazeGeneratorParallelTiles.DEFAULT_TILE_SIZE,
+				Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Creates a maze generator that splits the maze into tiles and generates
+	 * the tiles in parallel.  The same seed creates the same maze for any 
+	 * parallelism, but not for a different tile size.
+	 * <code>SIDEWINDER</code> and <code>BINARYTREE</code> carve each row on
+	 * it's own, their mazes are split into ranges of rows instead of tiles
+	 * and the tile size is not used.
+	 * @param type the type of maze generation algorithm to use for each tile
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 * @param tileSize the number of rows and columns in each tile (at least 2)
+	 * @param parallelism the number of threads generating tiles
+	 * @return
+	 */
+	public static IMazeGenerator createParallelMazeGenerator(MazeType type,int rows, int columns, 
+			long seed, int tileSize, int parallelism) {
+		if (type == MazeType.SIDEWINDER) {
+			return new MazeGeneratorSidewinder(rows,columns,seed,parallelism);
+		} else if (type == MazeType.BINARYTREE) {
+			return new MazeGeneratorBinaryTree(rows,columns,seed,parallelism);
+		}
+		return new MazeGeneratorParallelTiles(type,rows,columns,seed,tileSize,parallelism);
+	}
+	
+	/**
+	 * Creates a maze generator that splits an existing, empty maze into tiles
+	 * and generates the tiles in parallel.  Only the tiles being generated are
+	 * kept on the heap, so with a <code>MappedMazeGrid</code> a maze of up to
+	 * <code>Integer.MAX_VALUE</code> cells needs only a small heap.
+	 * <code>SIDEWINDER</code> and <code>BINARYTREE</code> mazes are split into
+	 * ranges of rows instead of tiles.
+	 * @param type the type of maze generation algorithm to use for each tile
+	 * @param maze the maze to generate, for example one stored in a 
+	 * <code>MappedMazeGrid</code>
+	 * @param tileSize the number of rows and columns in each tile (at least 2)
+	 * @param parallelism the number of threads generating tiles
+	 * @return
+	 */
+	public static IMazeGenerator createParallelMazeGenerator(MazeType type, Maze maze, 
+			int tileSize, int parallelism) {
+		if (type == MazeType.SIDEWINDER) {
+			return new MazeGeneratorSidewinder(maze,parallelism);
+		} else if (type == MazeType.BINARYTREE) {
+			return new MazeGeneratorBinaryTree(maze,parallelism);
+		}
+		return new MazeGeneratorParallelTiles(type,maze,tileSize,parallelism);
+	}
 
 }
@@ -0,0 +1,367 @@
+package com.bobman159.mazes;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+import com.bobman159.mazes.Maze.Direction;
+
+/**
+ * A compact, bit-packed heap store for the walls and visited state of every
+ * cell in a maze.
+ * <p>
+ * Cells are addressed by an int index (<code>row * columns + column</code>).
+ * Neighboring cells share walls, so each cell only stores its own right and
+ * bottom walls (2 bits per cell).  The left wall of a cell is the right wall
+ * of the cell to its left and the top wall of a cell is the bottom wall of the
+ * cell above it.  The outer top and left walls of the maze are kept in their
+ * own small bitmaps.  The visited state is kept in a separate bitmap
+ * (1 bit per cell).
+ * <p>
+ * A grid is not thread safe.  The <code>atomic</code> methods may be used by
+ * several threads at once to update different cells, for example when 
+ * generating parts of a maze in parallel.
+ */
+public class MazeGrid implements IMazeGrid {
+
+	private static final int RIGHT_WALL_BIT = 1;
+	private static final int BOTTOM_WALL_BIT = 2;
+	/* 2 wall bits per cell, 32 cells per long */
+	private static final int CELLS_PER_WALL_WORD = 32;
+	private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	private final int rows;
+	private final int columns;
+	private final int cellCount;
+	private final long[] walls;
+	private final long[] visited;
+	private final long[] topBorder;
+	private final long[] leftBorder;
+
+	/**
+	 * Create a grid where every cell has all of it's walls and no cell has
+	 * been visited.
+	 * @param rows the number of rows in the grid
+	 * @param columns the number of columns in the grid
+	 */
+	public MazeGrid(int rows, int columns) {
+
+		if (rows <= 0 || columns <= 0) {
+			throw new IllegalArgumentException("rows and columns must be greater than 0");
+		}
+		if ((long) rows * columns > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("a maze grid can not hold more than "
+						+ Integer.MAX_VALUE + " cells");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		cellCount = rows * columns;
+		walls = new long[wordsFor(cellCount,CELLS_PER_WALL_WORD)];
+		visited = new long[wordsFor(cellCount,Long.SIZE)];
+		topBorder = new long[wordsFor(columns,Long.SIZE)];
+		leftBorder = new long[wordsFor(rows,Long.SIZE)];
+		reset();
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Put back every wall and mark every cell as not visited.
+	 */
+	public void reset() {
+		Arrays.fill(walls, -1L);
+		Arrays.fill(visited, 0L);
+		Arrays.fill(topBorder, -1L);
+		Arrays.fill(leftBorder, -1L);
+	}
+
+	/**
+	 * @return the index of the cell at row, column or -1 if the cell is out
+	 * of bounds
+	 */
+	public int getCellIndex(int row, int column) {
+		if (row < 0 || row >= rows || column < 0 || column >= columns) {
+			return -1;
+		}
+		return row * columns + column;
+	}
+
+	public int getCellRow(int index) {
+		return index / columns;
+	}
+
+	public int getCellColumn(int index) {
+		return index % columns;
+	}
+
+	/**
+	 * Retrieve the index of the neighbor of a cell.
+	 * @param index the cell to start from
+	 * @param direction the direction (UP, DOWN, LEFT, RIGHT) from the start cell
+	 * @return the index of the neighbor cell or -1 if it is out of bounds
+	 */
+	public int getNeighborIndex(int index, Direction direction) {
+
+		int neighborIndex = -1;
+		switch (direction) {
+			case UP:
+				if (index >= columns) {
+					neighborIndex = index - columns;
+				}
+				break;
+			case DOWN:
+				if (index < cellCount - columns) {
+					neighborIndex = index + columns;
+				}
+				break;
+			case LEFT:
+				if (index % columns != 0) {
+					neighborIndex = index - 1;
+				}
+				break;
+			case RIGHT:
+				if (index % columns != columns - 1) {
+					neighborIndex = index + 1;
+				}
+				break;
+		}
+		return neighborIndex;
+	}
+
+	public boolean isCellVisited(int index) {
+		return (visited[index >>> 6] & (1L << index)) != 0;
+	}
+
+	public void cellVisited(int index) {
+		visited[index >>> 6] |= 1L << index;
+	}
+
+	public boolean hasRightWall(int index) {
+		return hasWallBit(index,RIGHT_WALL_BIT);
+	}
+
+	public boolean hasBottomWall(int index) {
+		return hasWallBit(index,BOTTOM_WALL_BIT);
+	}
+
+	public boolean hasLeftWall(int index) {
+		if (index % columns == 0) {
+			return hasBit(leftBorder,index / columns);
+		}
+		return hasWallBit(index - 1,RIGHT_WALL_BIT);
+	}
+
+	public boolean hasTopWall(int index) {
+		if (index < columns) {
+			return hasBit(topBorder,index);
+		}
+		return hasWallBit(index - columns,BOTTOM_WALL_BIT);
+	}
+
+	public void clearRightWall(int index) {
+		clearWallBit(index,RIGHT_WALL_BIT);
+	}
+
+	public void clearBottomWall(int index) {
+		clearWallBit(index,BOTTOM_WALL_BIT);
+	}
+
+	public void clearLeftWall(int index) {
+		if (index % columns == 0) {
+			clearBit(leftBorder,index / columns);
+		} else {
+			clearWallBit(index - 1,RIGHT_WALL_BIT);
+		}
+	}
+
+	public void clearTopWall(int index) {
+		if (index < columns) {
+			clearBit(topBorder,index);
+		} else {
+			clearWallBit(index - columns,BOTTOM_WALL_BIT);
+		}
+	}
+
+	/**
+	 * Mark a cell visited, safe to call while other threads update other
+	 * cells of the grid.
+	 */
+	public void atomicCellVisited(int index) {
+		WORDS.getAndBitwiseOr(visited, index >>> 6, 1L << index);
+	}
+
+	/**
+	 * Clear the right wall of a cell, safe to call while other threads 
+	 * update other cells of the grid.
+	 */
+	public void atomicClearRightWall(int index) {
+		atomicClearWallBit(index,RIGHT_WALL_BIT);
+	}
+
+	/**
+	 * Clear the bottom wall of a cell, safe to call while other threads 
+	 * update other cells of the grid.
+	 */
+	public void atomicClearBottomWall(int index) {
+		atomicClearWallBit(index,BOTTOM_WALL_BIT);
+	}
+
+	/**
+	 * Clear the walls of up to 32 cells at once, safe to call while other
+	 * threads update other cells of the grid.
+	 * @param wordIndex the word holding the walls
+	 * @param clearedWalls a bit for each wall to clear
+	 */
+	public void atomicClearWallWord(int wordIndex, long clearedWalls) {
+		WORDS.getAndBitwiseAnd(walls, wordIndex, ~clearedWalls);
+	}
+
+	/**
+	 * Find the open passages from a cell to it's neighbors in the maze.  The
+	 * walls are read without branching on them, which keeps searches that 
+	 * visit every cell from stalling on mispredicted branches.  The entrance
+	 * and exit are not passages, they do not lead to a cell.
+	 * @param index the cell to start from
+	 * @return a bit (<code>1 << Direction.ordinal()</code>) for each
+	 * direction with an open passage to a neighbor cell
+	 */
+	public int getPassages(int index) {
+		return getPassages(index,index % columns);
+	}
+	
+	/**
+	 * Find the open passages from a cell to it's neighbors in the maze, for
+	 * callers that already know the cell's column.
+	 * @param index the cell to start from
+	 * @param column the column of the cell
+	 * @return a bit (<code>1 << Direction.ordinal()</code>) for each
+	 * direction with an open passage to a neighbor cell
+	 */
+	public int getPassages(int index, int column) {
+		
+		/* Clear right and bottom walls of the cell become RIGHT and DOWN */
+		int cellWalls = (int) (walls[index >>> 5] >>> (index << 1));
+		int passages = (~cellWalls & RIGHT_WALL_BIT) << Direction.RIGHT.ordinal()
+				| (~cellWalls & BOTTOM_WALL_BIT) >>> 1 << Direction.DOWN.ordinal();
+		if (column == columns - 1) {
+			passages &= ~(1 << Direction.RIGHT.ordinal());
+		}
+		if (index >= cellCount - columns) {
+			passages &= ~(1 << Direction.DOWN.ordinal());
+		}
+		if (column != 0) {
+			int leftWalls = (int) (walls[(index - 1) >>> 5] >>> ((index - 1) << 1));
+			passages |= (~leftWalls & RIGHT_WALL_BIT) << Direction.LEFT.ordinal();
+		}
+		if (index >= columns) {
+			int aboveWalls = (int) (walls[(index - columns) >>> 5] >>> ((index - columns) << 1));
+			passages |= (~aboveWalls & BOTTOM_WALL_BIT) >>> 1 << Direction.UP.ordinal();
+		}
+		return passages;
+	}
+	
+	/**
+	 * Open the wall shared by two neighboring cells.
+	 * @param fromIndex the cell to carve from
+	 * @param toIndex the neighbor cell to carve to
+	 * @throws IllegalArgumentException if the cells are not neighbors
+	 */
+	public void carvePassage(int fromIndex, int toIndex) {
+
+		int difference = toIndex - fromIndex;
+		if (difference == columns) {
+			clearWallBit(fromIndex,BOTTOM_WALL_BIT);
+		} else if (difference == -columns) {
+			clearWallBit(toIndex,BOTTOM_WALL_BIT);
+		} else if (difference == 1 && toIndex % columns != 0) {
+			clearWallBit(fromIndex,RIGHT_WALL_BIT);
+		} else if (difference == -1 && fromIndex % columns != 0) {
+			clearWallBit(toIndex,RIGHT_WALL_BIT);
+		} else {
+			throw new IllegalArgumentException("cells " + fromIndex + " and "
+						+ toIndex + " are not neighbors");
+		}
+	}
+
+	/**
+	 * @return the number of longs holding the wall bits, 2 bits per cell with
+	 * the right wall of cell i in bit 2 * (i % 32) of long i / 32 and the 
+	 * bottom wall in the bit above it
+	 */
+	public int getWallWordCount() {
+		return walls.length;
+	}
+	
+	/**
+	 * @param wordIndex the word to read, 0 to <code>getWallWordCount() - 1</code>
+	 * @return the wall bits of 32 cells, 1 for a wall
+	 */
+	public long getWallWord(int wordIndex) {
+		return walls[wordIndex];
+	}
+	
+	/**
+	 * Copy the wall bits to a buffer
+	 * @param buffer a buffer with room for <code>getWallWordCount()</code> longs
+	 */
+	public void getWallWords(LongBuffer buffer) {
+		buffer.put(walls);
+	}
+	
+	/**
+	 * Replace the wall bits from a buffer
+	 * @param buffer a buffer holding <code>getWallWordCount()</code> longs
+	 */
+	public void setWallWords(LongBuffer buffer) {
+		buffer.get(walls);
+	}
+	
+	/**
+	 * Mark every cell as visited, as they are in a generated maze
+	 */
+	public void allCellsVisited() {
+		Arrays.fill(visited, -1L);
+	}
+	
+	/**
+	 * @return an estimate of the heap bytes used by the grid's bitmaps
+	 */
+	public long getSizeInBytes() {
+		return 8L * (walls.length + visited.length + topBorder.length + leftBorder.length);
+	}
+
+	private boolean hasWallBit(int index, int wallBit) {
+		return (walls[index >>> 5] & ((long) wallBit << (index << 1))) != 0;
+	}
+
+	private void clearWallBit(int index, int wallBit) {
+		walls[index >>> 5] &= ~((long) wallBit << (index << 1));
+	}
+
+	private void atomicClearWallBit(int index, int wallBit) {
+		WORDS.getAndBitwiseAnd(walls, index >>> 5, ~((long) wallBit << (index << 1)));
+	}
+
+	private static boolean hasBit(long[] bitmap, int bit) {
+		return (bitmap[bit >>> 6] & (1L << bit)) != 0;
+	}
+
+	private static void clearBit(long[] bitmap, int bit) {
+		bitmap[bit >>> 6] &= ~(1L << bit);
+	}
+
+	private static int wordsFor(int bits, int bitsPerWord) {
+		return (int) (((long) bits + bitsPerWord - 1) / bitsPerWord);
+	}
+}
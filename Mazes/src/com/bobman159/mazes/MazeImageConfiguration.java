@@ -0,0 +1,58 @@
+package com.bobman159.mazes;
+
+/**
+ * A configuration class for use in drawing mazes as images.
+ *
+ */
+public class MazeImageConfiguration {
+
+	private int cellSize;
+	private int wallSize;
+
+	/**
+	 * Creates a default <Code>MazeImageConfiguration</code>
+	 * <ul>
+	 * <li>the inside of a cell is 4 by 4 pixels</li>
+	 * <li>walls are 1 pixel thick</li>
+	 * </ul>
+	 */
+	public MazeImageConfiguration() {
+		cellSize = 4;
+		wallSize = 1;
+	}
+
+	/**
+	 *
+	 * @return the width and height in pixels of the inside of a cell, not
+	 * counting it's walls
+	 */
+	public int getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Override the default cell size of 4 pixels
+	 * @param cellSize the new cell size, at least 1
+	 */
+	public void setCellSize(int cellSize) {
+		if (cellSize <= 0) {
+			throw new IllegalArgumentException("cellSize must be greater than 0");
+		}
+		this.cellSize = cellSize;
+	}
+
+	public int getWallSize() {
+		return wallSize;
+	}
+
+	/**
+	 * Override the default wall thickness of 1 pixel
+	 * @param wallSize the new wall thickness, at least 1
+	 */
+	public void setWallSize(int wallSize) {
+		if (wallSize <= 0) {
+			throw new IllegalArgumentException("wallSize must be greater than 0");
+		}
+		this.wallSize = wallSize;
+	}
+}
@@ -0,0 +1,612 @@
+package com.bobman159.mazes;
+
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.imageio.ImageIO;
+
+import com.bobman159.mazes.monitor.MazeWriteEvent;
+
+/**
+ * Draws mazes as black and white images, 1 bit per pixel with walls in
+ * black.
+ * <p>
+ * The image is drawn in bands of pixel rows, never as one image in memory.
+ * <code>writePbm</code> and <code>writePng</code> draw the bands on a
+ * <code>ForkJoinPool</code> and write them in order as they are completed,
+ * with at most two bands per thread waiting to be written.  PNG bands are
+ * compressed by the thread that draws them, so both formats are written by
+ * the JDK alone in time proportional to the number of pixels divided by the
+ * parallelism.
+ * <p>
+ * <code>createImage</code> gives the same bands as a
+ * <code>RenderedImage</code> for writing other formats with
+ * <code>javax.imageio</code>, drawn one band at a time on the calling
+ * thread.
+ */
+public class MazeImageWriter {
+
+	/* About 1MB of pixels per band */
+	private static final int BAND_BYTES = 1 << 20;
+	private static final byte[] PNG_SIGNATURE = {(byte) 0x89,'P','N','G','\r','\n',0x1a,'\n'};
+	/* The zlib header for a 32K window and the fastest compression */
+	private static final byte[] ZLIB_HEADER = {0x78,0x01};
+	private static final int PNG_BIT_DEPTH = 1;
+	private static final int PNG_PALETTE_COLOR_TYPE = 3;
+	private static final byte PNG_UP_FILTER = 2;
+	private static final int GROUP_SIZE = MazeWallGroups.GROUP_SIZE;
+
+	private Maze maze;
+	private IMazeGrid grid;
+	private int parallelism;
+	private int cellSize;
+	private int wallSize;
+	private int cellPitch;
+	private int width;
+	private int height;
+	private int rowBytes;
+	private int bandRows;
+	private int bandCount;
+	private byte[][] wallLineGroups;
+	private byte[][] cellLineGroups;
+
+	/**
+	 * Draw a maze using the default sizes and a thread for each processor
+	 * @param maze the maze to be drawn
+	 */
+	public MazeImageWriter(Maze maze) {
+		this(maze,new MazeImageConfiguration());
+	}
+
+	/**
+	 * Draw a maze using a thread for each processor
+	 * @param maze the maze to be drawn
+	 * @param configuration the cell and wall sizes to draw with
+	 */
+	public MazeImageWriter(Maze maze, MazeImageConfiguration configuration) {
+		this(maze,configuration,Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 *
+	 * @param maze the maze to be drawn
+	 * @param configuration the cell and wall sizes to draw with
+	 * @param parallelism the number of threads drawing bands
+	 * @throws IllegalArgumentException if the image would be more than
+	 * <code>Integer.MAX_VALUE</code> pixels wide or high
+	 */
+	public MazeImageWriter(Maze maze, MazeImageConfiguration configuration, int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("parallelism must be greater than 0");
+		}
+		this.maze = maze;
+		this.grid = maze.getGrid();
+		this.parallelism = parallelism;
+		cellSize = configuration.getCellSize();
+		wallSize = configuration.getWallSize();
+		cellPitch = cellSize + wallSize;
+		width = imageSize(maze.getColumns());
+		height = imageSize(maze.getRows());
+		rowBytes = (int) (((long) width + 7) >>> 3);
+		bandRows = Math.max(1, BAND_BYTES / rowBytes / cellPitch) * cellPitch;
+		bandCount = (int) (((long) height + bandRows - 1) / bandRows);
+		createLineGroups();
+	}
+
+	/**
+	 * @return the width of the image in pixels
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the image in pixels
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Write the maze as a binary PBM (P4) image.  The stream is written in
+	 * bands and does not need to be buffered, it is not closed.
+	 * @param outStream the stream to write the image to
+	 * @throws IOException if the stream can not be written
+	 */
+	public void writePbm(OutputStream outStream) throws IOException {
+
+		MazeWriteEvent writeEvent = new MazeWriteEvent();
+		writeEvent.begin();
+		outStream.write(("P4\n" + width + " " + height + "\n").getBytes(StandardCharsets.US_ASCII));
+		forEachBand(band -> {
+			byte[] pixels = new byte[getBandHeight(band) * rowBytes];
+			drawRows(band * bandRows, getBandHeight(band), pixels, 0, rowBytes);
+			return pixels;
+		}, pixels -> outStream.write(pixels));
+		outStream.flush();
+		writeEvent.commitWrite("pbm",maze);
+	}
+
+	/**
+	 * Write the maze as a 1 bit PNG image.  Each band is compressed as it
+	 * is drawn, in parallel, and ends on a byte boundary so the bands are
+	 * written one after another as a single zlib stream.  The stream does
+	 * not need to be buffered, it is not closed.
+	 * @param outStream the stream to write the image to
+	 * @throws IOException if the stream can not be written
+	 */
+	public void writePng(OutputStream outStream) throws IOException {
+
+		MazeWriteEvent writeEvent = new MazeWriteEvent();
+		writeEvent.begin();
+		outStream.write(PNG_SIGNATURE);
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		writeInt(header,width);
+		writeInt(header,height);
+		header.write(PNG_BIT_DEPTH);
+		header.write(PNG_PALETTE_COLOR_TYPE);
+		header.write(0);	// deflate compression
+		header.write(0);	// adaptive filtering
+		header.write(0);	// not interlaced
+		writeChunk(outStream,"IHDR",header.toByteArray());
+		/* Pixel value 0 is white and 1 is black, the same as PBM */
+		writeChunk(outStream,"PLTE",new byte[] {(byte) 255,(byte) 255,(byte) 255,0,0,0});
+		writeChunk(outStream,"IDAT",ZLIB_HEADER);
+
+		Adler32 checksum = new Adler32();
+		int pngRowBytes = rowBytes + 1;
+		forEachBand(band -> {
+			/* Each row is preceded by it's filter type */
+			byte[] rows = new byte[getBandHeight(band) * pngRowBytes];
+			drawRows(band * bandRows, getBandHeight(band), rows, 1, pngRowBytes);
+			filterRepeatedRows(band * bandRows, getBandHeight(band), rows, pngRowBytes);
+			return new PngBand(rows,compress(rows,band == bandCount - 1));
+		}, pngBand -> {
+			checksum.update(pngBand.rows);
+			writeChunk(outStream,"IDAT",pngBand.compressedRows);
+		});
+
+		ByteArrayOutputStream trailer = new ByteArrayOutputStream();
+		writeInt(trailer,(int) checksum.getValue());
+		writeChunk(outStream,"IDAT",trailer.toByteArray());
+		writeChunk(outStream,"IEND",new byte[0]);
+		outStream.flush();
+		writeEvent.commitWrite("png",maze);
+	}
+
+	/**
+	 * Write the maze with any format supported by <code>ImageIO</code>.
+	 * Bands are drawn one at a time on the calling thread, use
+	 * <code>writePbm</code> or <code>writePng</code> for large mazes.
+	 * @param formatName the informal name of the format, for example "bmp"
+	 * @param outStream the stream to write the image to
+	 * @throws IOException if the stream can not be written
+	 * @throws IllegalArgumentException if there is no writer for the format
+	 */
+	public void writeImage(String formatName, OutputStream outStream) throws IOException {
+		MazeWriteEvent writeEvent = new MazeWriteEvent();
+		writeEvent.begin();
+		if (!ImageIO.write(createImage(), formatName, outStream)) {
+			throw new IllegalArgumentException("no image writer for format " + formatName);
+		}
+		writeEvent.commitWrite(formatName,maze);
+	}
+
+	/**
+	 * Create an image of the maze that draws it's pixels as they are read.
+	 * The image has a tile for each band, the most recently read band is
+	 * kept and the image is not thread safe.
+	 * @return the image of the maze
+	 */
+	public RenderedImage createImage() {
+		return new BandedMazeImage();
+	}
+
+	private int imageSize(int cells) {
+		long pixels = (long) cells * cellPitch + wallSize;
+		if (pixels > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("the image would be more than "
+						+ Integer.MAX_VALUE + " pixels");
+		}
+		return (int) pixels;
+	}
+
+	private int getBandHeight(int band) {
+		return Math.min(bandRows, height - band * bandRows);
+	}
+
+	/*
+	 * Draw every band on the pool, handing them to the output in order.
+	 */
+	private <T> void forEachBand(IntFunction<T> drawBand, BandOutput<T> output) throws IOException {
+
+		ForkJoinPool bandPool = new ForkJoinPool(parallelism);
+		try {
+			Deque<ForkJoinTask<T>> drawnBands = new ArrayDeque<>();
+			int nextBand = 0;
+			for (int band = 0; band < bandCount; band++) {
+				while (nextBand < bandCount && nextBand < band + 2 * parallelism) {
+					int bandToDraw = nextBand++;
+					drawnBands.add(bandPool.submit(() -> drawBand.apply(bandToDraw)));
+				}
+				output.write(drawnBands.remove().join());
+			}
+		} finally {
+			bandPool.shutdownNow();
+		}
+	}
+
+	/*
+	 * Draw pixel rows into a zeroed array.  A maze row is wallSize rows of
+	 * the walls above it's cells followed by cellSize rows through it's
+	 * cells, the image ends with the walls below the last maze row.
+	 * Repeated pixel rows are copied from the row above.
+	 */
+	private void drawRows(int firstRow, int rows, byte[] pixels, int offset, int stride) {
+
+		int previousLine = -1;
+		for (int row = 0; row < rows; row++) {
+			int mazeRow = (firstRow + row) / cellPitch;
+			boolean wallLine = (firstRow + row) % cellPitch < wallSize;
+			int line = wallLine ? mazeRow * 2 : mazeRow * 2 + 1;
+			int rowOffset = offset + row * stride;
+			if (line == previousLine) {
+				System.arraycopy(pixels, rowOffset - stride, pixels, rowOffset, rowBytes);
+			} else if (wallLine) {
+				drawWallLine(mazeRow,pixels,rowOffset);
+			} else {
+				drawCellLine(mazeRow,pixels,rowOffset);
+			}
+			previousLine = line;
+		}
+	}
+
+	/*
+	 * The posts between cells and the walls above a maze row, or below the
+	 * last row when mazeRow is the number of rows
+	 */
+	private void drawWallLine(int mazeRow, byte[] pixels, int rowOffset) {
+
+		int columns = maze.getColumns();
+		int cellIndex = (mazeRow - 1) * columns;
+		int columnIndex = 0;
+		if (mazeRow > 0) {
+			for (; columnIndex + GROUP_SIZE <= columns; columnIndex += GROUP_SIZE) {
+				int bottomWalls = MazeWallGroups.getBottomWalls(grid,cellIndex + columnIndex);
+				System.arraycopy(wallLineGroups[bottomWalls], 0, pixels,
+						rowOffset + columnIndex / GROUP_SIZE * cellPitch, cellPitch);
+			}
+		}
+		for (; columnIndex < columns; columnIndex++) {
+			int x = columnIndex * cellPitch;
+			fillBits(pixels,rowOffset,x,wallSize);
+			boolean wall = mazeRow == 0 ? grid.hasTopWall(columnIndex)
+					: grid.hasBottomWall(cellIndex + columnIndex);
+			if (wall) {
+				fillBits(pixels,rowOffset,x + wallSize,cellSize);
+			}
+		}
+		fillBits(pixels,rowOffset,columns * cellPitch,wallSize);
+	}
+
+	/*
+	 * The left and right walls of the cells in a maze row.  The left wall of
+	 * a cell is the right wall of the cell before it.
+	 */
+	private void drawCellLine(int mazeRow, byte[] pixels, int rowOffset) {
+
+		int columns = maze.getColumns();
+		int cellIndex = mazeRow * columns;
+		int leftWall = grid.hasLeftWall(cellIndex) ? 1 : 0;
+		int columnIndex = 0;
+		for (; columnIndex + GROUP_SIZE <= columns; columnIndex += GROUP_SIZE) {
+			int rightWalls = MazeWallGroups.getRightWalls(grid,cellIndex + columnIndex);
+			int leftWalls = (rightWalls << 1 | leftWall) & (MazeWallGroups.GROUP_COMBINATIONS - 1);
+			System.arraycopy(cellLineGroups[leftWalls], 0, pixels,
+					rowOffset + columnIndex / GROUP_SIZE * cellPitch, cellPitch);
+			leftWall = rightWalls >>> (GROUP_SIZE - 1);
+		}
+		for (; columnIndex < columns; columnIndex++) {
+			if (leftWall != 0) {
+				fillBits(pixels,rowOffset,columnIndex * cellPitch,wallSize);
+			}
+			leftWall = grid.hasRightWall(cellIndex + columnIndex) ? 1 : 0;
+		}
+		if (leftWall != 0) {
+			fillBits(pixels,rowOffset,columns * cellPitch,wallSize);
+		}
+	}
+
+	/*
+	 * The pixels of each combination of walls of a group of cells.  A group
+	 * is GROUP_SIZE * cellPitch pixels, cellPitch bytes, wide and starts on
+	 * a byte.
+	 */
+	private void createLineGroups() {
+
+		wallLineGroups = new byte[MazeWallGroups.GROUP_COMBINATIONS][cellPitch];
+		cellLineGroups = new byte[MazeWallGroups.GROUP_COMBINATIONS][cellPitch];
+		for (int walls = 0; walls < MazeWallGroups.GROUP_COMBINATIONS; walls++) {
+			for (int groupCell = 0; groupCell < GROUP_SIZE; groupCell++) {
+				int x = groupCell * cellPitch;
+				fillBits(wallLineGroups[walls],0,x,wallSize);
+				if ((walls & (1 << groupCell)) != 0) {
+					fillBits(wallLineGroups[walls],0,x + wallSize,cellSize);
+					fillBits(cellLineGroups[walls],0,x,wallSize);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Set count pixels starting at x, the first pixel of a row is the high
+	 * bit of it's first byte
+	 */
+	private static void fillBits(byte[] pixels, int rowOffset, int x, int count) {
+
+		int end = x + count;
+		while (x < end) {
+			int bit = x & 7;
+			int bits = Math.min(8 - bit, end - x);
+			pixels[rowOffset + (x >>> 3)] |= (byte) (((0xff << (8 - bits)) & 0xff) >>> bit);
+			x += bits;
+		}
+	}
+
+	/*
+	 * Filter every pixel row that repeats the row above it with the PNG up
+	 * filter, leaving a row of zeros that compresses to almost nothing.
+	 * Bands start at the top of a maze row, so the first row of a band is
+	 * never a repeat.
+	 */
+	private void filterRepeatedRows(int firstRow, int rows, byte[] pngRows, int pngRowBytes) {
+
+		for (int row = 0; row < rows; row++) {
+			int rowInCell = (firstRow + row) % cellPitch;
+			if (rowInCell != 0 && rowInCell != wallSize) {
+				int rowOffset = row * pngRowBytes;
+				pngRows[rowOffset] = PNG_UP_FILTER;
+				Arrays.fill(pngRows, rowOffset + 1, rowOffset + pngRowBytes, (byte) 0);
+			}
+		}
+	}
+
+	/*
+	 * Compress a band as part of a zlib stream without it's header.  Every
+	 * band but the last is ended with a sync flush so the next band can
+	 * follow it.
+	 */
+	private static byte[] compress(byte[] rows, boolean lastBand) {
+
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+		try {
+			deflater.setInput(rows);
+			ByteArrayOutputStream compressedRows = new ByteArrayOutputStream(rows.length / 8);
+			byte[] buffer = new byte[1 << 16];
+			if (lastBand) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					compressedRows.write(buffer, 0, deflater.deflate(buffer));
+				}
+			} else {
+				int length;
+				do {
+					length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					compressedRows.write(buffer, 0, length);
+				} while (length == buffer.length);
+			}
+			return compressedRows.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static void writeChunk(OutputStream outStream, String type, byte[] data) throws IOException {
+
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data);
+		ByteArrayOutputStream chunkHeader = new ByteArrayOutputStream(8);
+		writeInt(chunkHeader,data.length);
+		chunkHeader.write(typeBytes);
+		chunkHeader.writeTo(outStream);
+		outStream.write(data);
+		ByteArrayOutputStream chunkCrc = new ByteArrayOutputStream(4);
+		writeInt(chunkCrc,(int) crc.getValue());
+		chunkCrc.writeTo(outStream);
+	}
+
+	private static void writeInt(ByteArrayOutputStream outStream, int value) {
+		outStream.write(value >>> 24);
+		outStream.write(value >>> 16);
+		outStream.write(value >>> 8);
+		outStream.write(value);
+	}
+
+	private interface BandOutput<T> {
+		public void write(T band) throws IOException;
+	}
+
+	private static class PngBand {
+
+		private final byte[] rows;
+		private final byte[] compressedRows;
+
+		PngBand(byte[] rows, byte[] compressedRows) {
+			this.rows = rows;
+			this.compressedRows = compressedRows;
+		}
+	}
+
+	/*
+	 * A single column of tiles, one tile for each band
+	 */
+	private class BandedMazeImage implements RenderedImage {
+
+		private final IndexColorModel colorModel = new IndexColorModel(1, 2,
+				new byte[] {(byte) 255,0}, new byte[] {(byte) 255,0}, new byte[] {(byte) 255,0});
+		private final SampleModel sampleModel =
+				new MultiPixelPackedSampleModel(DataBuffer.TYPE_BYTE, width, bandRows, 1);
+		private int drawnBand = -1;
+		private byte[] drawnPixels;
+
+		@Override
+		public Vector<RenderedImage> getSources() {
+			return null;
+		}
+
+		@Override
+		public Object getProperty(String name) {
+			return Image.UndefinedProperty;
+		}
+
+		@Override
+		public String[] getPropertyNames() {
+			return null;
+		}
+
+		@Override
+		public ColorModel getColorModel() {
+			return colorModel;
+		}
+
+		@Override
+		public SampleModel getSampleModel() {
+			return sampleModel;
+		}
+
+		@Override
+		public int getWidth() {
+			return width;
+		}
+
+		@Override
+		public int getHeight() {
+			return height;
+		}
+
+		@Override
+		public int getMinX() {
+			return 0;
+		}
+
+		@Override
+		public int getMinY() {
+			return 0;
+		}
+
+		@Override
+		public int getNumXTiles() {
+			return 1;
+		}
+
+		@Override
+		public int getNumYTiles() {
+			return bandCount;
+		}
+
+		@Override
+		public int getMinTileX() {
+			return 0;
+		}
+
+		@Override
+		public int getMinTileY() {
+			return 0;
+		}
+
+		@Override
+		public int getTileWidth() {
+			return width;
+		}
+
+		@Override
+		public int getTileHeight() {
+			return bandRows;
+		}
+
+		@Override
+		public int getTileGridXOffset() {
+			return 0;
+		}
+
+		@Override
+		public int getTileGridYOffset() {
+			return 0;
+		}
+
+		@Override
+		public Raster getTile(int tileX, int tileY) {
+			byte[] pixels = getBand(tileY);
+			return Raster.createPackedRaster(new DataBufferByte(pixels, pixels.length),
+					width, bandRows, 1, new Point(0, tileY * bandRows));
+		}
+
+		@Override
+		public Raster getData() {
+			return getData(new Rectangle(0, 0, width, height));
+		}
+
+		@Override
+		public Raster getData(Rectangle rectangle) {
+
+			Rectangle bounds = rectangle.intersection(new Rectangle(0, 0, width, height));
+			byte[] rows = new byte[bounds.height * rowBytes];
+			for (int row = 0; row < bounds.height; row++) {
+				int y = bounds.y + row;
+				byte[] pixels = getBand(y / bandRows);
+				System.arraycopy(pixels, (y % bandRows) * rowBytes, rows, row * rowBytes, rowBytes);
+			}
+			WritableRaster fullRows = Raster.createPackedRaster(new DataBufferByte(rows, rows.length),
+					width, bounds.height, 1, new Point(0, bounds.y));
+			if (bounds.x == 0 && bounds.width == width) {
+				return fullRows;
+			}
+			return fullRows.createChild(bounds.x, bounds.y, bounds.width, bounds.height,
+					bounds.x, bounds.y, null);
+		}
+
+		@Override
+		public WritableRaster copyData(WritableRaster raster) {
+			if (raster == null) {
+				raster = colorModel.createCompatibleWritableRaster(width, height);
+			}
+			raster.setRect(getData(raster.getBounds()));
+			return raster;
+		}
+
+		private byte[] getBand(int band) {
+			if (band != drawnBand) {
+				drawnPixels = new byte[bandRows * rowBytes];
+				drawRows(band * bandRows, getBandHeight(band), drawnPixels, 0, rowBytes);
+				drawnBand = band;
+			}
+			return drawnPixels;
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package com.bobman159.mazes;
+
+import java.io.PrintStream;
+
+/**
+ * Writes a maze one row at a time using a <code>PrintStream</code> object.
+ * A maze row is written as the cell walls rows followed by the cell bottom 
+ * row, using the characters from a <code>MazeWriterConfiguration</code>.
+ *
+ */
+public class MazeRowWriter implements IMazeRowSink {
+
+	private PrintStream outStream;
+	private int columns;
+	private MazeWriterConfiguration configuration;
+	private StringBuilder mazeRow = new StringBuilder();
+	private char emptyWall = ' ';
+	
+	/**
+	 * Write maze rows to an output stream using default characters
+	 * @param outStream the stream to use for writing
+	 * @param columns the number of columns in the maze
+	 */
+	public MazeRowWriter(PrintStream outStream, int columns) {
+		this(outStream,columns,new MazeWriterConfiguration());
+	}
+	
+	/**
+	 * 
+	 * @param outStream the stream to use for writing
+	 * @param columns the number of columns in the maze
+	 * @param configuration the characters and cell sizes to write with
+	 */
+	public MazeRowWriter(PrintStream outStream, int columns, MazeWriterConfiguration configuration) {
+		this.outStream = outStream;
+		this.columns = columns;
+		this.configuration = configuration;
+	}
+	
+	@Override
+	public void writeTopRow(boolean[] topWalls) {
+		
+		mazeRow.delete(0, mazeRow.length());	
+		for(int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			mazeRow.append(configuration.getCellSeparator());	
+			if (topWalls[columnIndex]) 
+			{
+				mazeRow.append(configuration.getTopBottomWall());
+			} else {
+				mazeRow.append(configuration.getCellContents());
+			}
+		}
+		mazeRow.append(configuration.getCellSeparator());		
+		outStream.println(mazeRow.toString());		
+	}
+	
+	@Override
+	public void writeRow(boolean[] rightWalls, boolean[] bottomWalls) {
+		writeSolutionRow(rightWalls,bottomWalls,null,null);
+	}
+	
+	/**
+	 * Write a row of the maze with a solution path drawn over it
+	 * @param rightWalls true for each cell in the row with a right wall
+	 * @param bottomWalls true for each cell in the row with a bottom wall
+	 * @param pathCells true for each cell in the row on the path, null if no 
+	 * cells in the row are on the path
+	 * @param pathCellsBelow true for each cell in the next row on the path,
+	 * null if there is no next row or no cells in it are on the path
+	 */
+	public void writeSolutionRow(boolean[] rightWalls, boolean[] bottomWalls, boolean[] pathCells,
+			boolean[] pathCellsBelow) {
+		
+		int numberOfCellContentRows = configuration.getCellHeight() - 2;
+		for (int rowsToWrite = numberOfCellContentRows; rowsToWrite > 0; rowsToWrite--) {
+			writeCellWallsRow(rightWalls,pathCells);
+		}
+		writeCellBottomRow(bottomWalls,pathCells,pathCellsBelow);
+	}
+	
+	private void writeCellBottomRow(boolean[] bottomWalls, boolean[] pathCells, boolean[] pathCellsBelow) {
+		
+		mazeRow.delete(0, mazeRow.length());
+		for(int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			mazeRow.append(configuration.getCellSeparator());	
+			if (bottomWalls[columnIndex]) {
+				mazeRow.append(configuration.getTopBottomWall());
+			} else if (isOnPath(pathCells,columnIndex) && isOnPath(pathCellsBelow,columnIndex)) {
+				/* The path goes down through the open bottom wall */
+				mazeRow.append(configuration.getPathContents());
+			} else {
+				mazeRow.append(configuration.getCellContents());
+			}
+		}
+		mazeRow.append(configuration.getCellSeparator());		
+		outStream.println(mazeRow.toString());		
+	}
+	
+	private void writeCellWallsRow(boolean[] rightWalls, boolean[] pathCells) {
+		
+		mazeRow.delete(0, mazeRow.length());
+		/* Left Wall */
+		mazeRow.append(configuration.getLeftRightWall());
+		for(int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			boolean onPath = isOnPath(pathCells,columnIndex);
+			if (onPath) {
+				mazeRow.append(configuration.getPathContents());
+			} else {
+				mazeRow.append(configuration.getCellContents());
+			}
+			/* Right Wall, shared with the left wall of the cell to the right */
+			if (rightWalls[columnIndex]) {
+				mazeRow.append(configuration.getLeftRightWall());
+			} else if (onPath && isOnPath(pathCells,columnIndex + 1)) {
+				mazeRow.append(configuration.getPathCharacter());
+			} else {
+				mazeRow.append(emptyWall);
+			}
+		}
+		outStream.println(mazeRow.toString());		
+	}
+	
+	/*
+	 * Two neighboring cells on a shortest path with an open wall between them
+	 * are always next to each other on the path.
+	 */
+	private boolean isOnPath(boolean[] pathCells, int columnIndex) {
+		return pathCells != null && columnIndex < columns && pathCells[columnIndex];
+	}
+}
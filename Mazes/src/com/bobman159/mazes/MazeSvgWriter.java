@@ -0,0 +1,281 @@
+package com.bobman159.mazes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.bobman159.mazes.monitor.MazeWriteEvent;
+/**
+ * Writes mazes as SVG documents, with the same sizes and wall positions as
+ * <code>MazeImageWriter</code>.
+ * <p>
+ * Walls are drawn as runs instead of one line per wall, neighboring walls
+ * on the same line are merged into a single run.  The horizontal walls are
+ * merged along each row and the vertical walls along each column, each run
+ * is a relative move and a line in the data of a <code>path</code>.  A path
+ * holds at most <code>RUNS_PER_PATH</code> runs so browsers never have to
+ * parse a single huge path.
+ * <p>
+ * The document is written as the grid is read, without building a DOM.
+ * The grid is read row by row in two passes, one for each direction, and
+ * the only memory used besides the output block is the walls of the row
+ * above and the start of the current vertical run in each column.
+ */
+public class MazeSvgWriter {
+
+	/**
+	 * The number of wall runs in each <code>path</code> element
+	 */
+	public static final int RUNS_PER_PATH = 4096;
+
+	/* Large enough that a write is one system call for many rows */
+	private static final int BLOCK_SIZE = 1 << 16;
+	/* The longest run, "m" and "v" with 3 numbers of up to 20 characters */
+	private static final int LONGEST_RUN = 64;
+	private static final int NO_RUN = -1;
+	/* Room for the document's header and the end of each path */
+	private static final int DOCUMENT_BYTES = 1024;
+	private static final int GROUP_SIZE = MazeWallGroups.GROUP_SIZE;
+
+	private Maze maze;
+	private IMazeGrid grid;
+	private int cellPitch;
+	private int wallSize;
+	private OutputStream outStream;
+	private byte[] block;
+	private int blockPosition;
+	private int runsInPath;
+	/* The end of the last run, in pixels */
+	private long penX;
+	private long penY;
+
+	/**
+	 * Write a maze using the default sizes
+	 * @param maze the maze to be written
+	 */
+	public MazeSvgWriter(Maze maze) {
+		this(maze,new MazeImageConfiguration());
+	}
+
+	/**
+	 *
+	 * @param maze the maze to be written
+	 * @param configuration the cell and wall sizes in pixels
+	 */
+	public MazeSvgWriter(Maze maze, MazeImageConfiguration configuration) {
+		this.maze = maze;
+		this.grid = maze.getGrid();
+		cellPitch = configuration.getCellSize() + configuration.getWallSize();
+		wallSize = configuration.getWallSize();
+		/* Runs on the same line are separated by a gap, so a line of n walls
+		 * has at most n / 2 + 1 runs.  Small mazes get a block no larger than
+		 * their document. */
+		long rows = maze.getRows();
+		long columns = maze.getColumns();
+		long largestRuns = (rows + 1) * (columns / 2 + 1) + (columns + 1) * (rows / 2 + 1);
+		block = new byte[(int) Math.min(BLOCK_SIZE, DOCUMENT_BYTES + largestRuns * LONGEST_RUN)];
+	}
+
+	/**
+	 * Write the maze as an SVG document.  The stream is written in blocks
+	 * and does not need to be buffered, it is not closed.
+	 * @param outStream the stream to write the document to
+	 * @throws IOException if the stream can not be written
+	 */
+	public void writeSvg(OutputStream outStream) throws IOException {
+
+		MazeWriteEvent writeEvent = new MazeWriteEvent();
+		writeEvent.begin();
+		this.outStream = outStream;
+		blockPosition = 0;
+		long width = (long) maze.getColumns() * cellPitch + wallSize;
+		long height = (long) maze.getRows() * cellPitch + wallSize;
+		/* Walls are centered on the cell edges, half a wall outside the cells */
+		String halfWall = wallSize % 2 == 0 ? String.valueOf(-wallSize / 2) : "-" + (wallSize / 2) + ".5";
+		put("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height
+				+ "\" viewBox=\"" + halfWall + " " + halfWall + " " + width + " " + height + "\">\n"
+				+ "<g fill=\"none\" stroke=\"black\" stroke-width=\"" + wallSize
+				+ "\" stroke-linecap=\"square\" shape-rendering=\"crispEdges\">\n");
+		startPath();
+		writeHorizontalRuns();
+		writeVerticalRuns();
+		put("\"/>\n</g>\n</svg>\n");
+		flush();
+		outStream.flush();
+		this.outStream = null;
+		writeEvent.commitWrite("svg",maze);
+	}
+
+	/*
+	 * The walls above each row and below the last row, merged along the row.
+	 * The walls are read a group of cells at a time and only the cells where
+	 * a run starts or ends are looked at.
+	 */
+	private void writeHorizontalRuns() throws IOException {
+
+		int rows = maze.getRows();
+		int columns = maze.getColumns();
+		for (int rowIndex = 0; rowIndex <= rows; rowIndex++) {
+			int cellIndex = (rowIndex - 1) * columns;
+			int runStart = NO_RUN;
+			int previousWall = 0;
+			for (int columnIndex = 0; columnIndex < columns; columnIndex += GROUP_SIZE) {
+				int cells = Math.min(GROUP_SIZE, columns - columnIndex);
+				int walls;
+				if (rowIndex > 0 && cells == GROUP_SIZE) {
+					walls = MazeWallGroups.getBottomWalls(grid,cellIndex + columnIndex);
+				} else {
+					walls = 0;
+					for (int groupCell = 0; groupCell < cells; groupCell++) {
+						boolean wall = rowIndex == 0 ? grid.hasTopWall(columnIndex + groupCell)
+								: grid.hasBottomWall(cellIndex + columnIndex + groupCell);
+						walls |= (wall ? 1 : 0) << groupCell;
+					}
+				}
+				/* A bit for each cell with a wall different to the cell before it */
+				int changes = (walls ^ (walls << 1 | previousWall)) & ((1 << cells) - 1);
+				previousWall = (walls >>> (cells - 1)) & 1;
+				while (changes != 0) {
+					int groupCell = Integer.numberOfTrailingZeros(changes);
+					changes &= changes - 1;
+					if ((walls & (1 << groupCell)) != 0) {
+						runStart = columnIndex + groupCell;
+					} else {
+						writeRun('h',runStart,rowIndex,columnIndex + groupCell - runStart);
+					}
+				}
+			}
+			if (previousWall != 0) {
+				writeRun('h',runStart,rowIndex,columns - runStart);
+			}
+		}
+	}
+
+	/*
+	 * The walls left of each column and right of the last column, merged
+	 * down the column.  The walls of each row are compared with the row
+	 * above a group of columns at a time, a run is started or written only
+	 * where they are different.
+	 */
+	private void writeVerticalRuns() throws IOException {
+
+		int rows = maze.getRows();
+		int columns = maze.getColumns();
+		int[] runStarts = new int[columns + 1];
+		int[] wallsAbove = new int[columns / GROUP_SIZE + 1];
+		for (int rowIndex = 0; rowIndex < rows; rowIndex++) {
+			int cellIndex = rowIndex * columns;
+			/* The left wall of a cell is the right wall of the cell before it */
+			int leftWall = grid.hasLeftWall(cellIndex) ? 1 : 0;
+			for (int columnIndex = 0; columnIndex <= columns; columnIndex += GROUP_SIZE) {
+				int walls;
+				if (columnIndex + GROUP_SIZE <= columns) {
+					int rightWalls = MazeWallGroups.getRightWalls(grid,cellIndex + columnIndex);
+					walls = (rightWalls << 1 | leftWall) & (MazeWallGroups.GROUP_COMBINATIONS - 1);
+					leftWall = rightWalls >>> (GROUP_SIZE - 1);
+				} else {
+					walls = leftWall;
+					for (int column = columnIndex + 1; column <= columns; column++) {
+						walls |= (grid.hasRightWall(cellIndex + column - 1) ? 1 : 0) << (column - columnIndex);
+					}
+				}
+				int group = columnIndex / GROUP_SIZE;
+				int changes = walls ^ wallsAbove[group];
+				wallsAbove[group] = walls;
+				while (changes != 0) {
+					int column = columnIndex + Integer.numberOfTrailingZeros(changes);
+					changes &= changes - 1;
+					if ((walls & (1 << (column - columnIndex))) != 0) {
+						runStarts[column] = rowIndex;
+					} else {
+						writeRun('v',column,runStarts[column],rowIndex - runStarts[column]);
+					}
+				}
+			}
+		}
+		for (int column = 0; column <= columns; column++) {
+			if ((wallsAbove[column / GROUP_SIZE] & (1 << (column % GROUP_SIZE))) != 0) {
+				writeRun('v',column,runStarts[column],rows - runStarts[column]);
+			}
+		}
+	}
+
+	/*
+	 * Move from the end of the last run to the start of this one and draw
+	 * it, h for a horizontal run and v for a vertical run
+	 */
+	private void writeRun(char direction, int column, int row, int cells) throws IOException {
+
+		if (runsInPath == RUNS_PER_PATH) {
+			put("\"/>\n");
+			startPath();
+		}
+		if (blockPosition + LONGEST_RUN > block.length) {
+			flush();
+		}
+		long x = (long) column * cellPitch;
+		long y = (long) row * cellPitch;
+		block[blockPosition++] = 'm';
+		putNumber(x - penX);
+		block[blockPosition++] = ' ';
+		putNumber(y - penY);
+		block[blockPosition++] = (byte) direction;
+		long length = (long) cells * cellPitch;
+		putNumber(length);
+		if (direction == 'h') {
+			penX = x + length;
+			penY = y;
+		} else {
+			penX = x;
+			penY = y + length;
+		}
+		runsInPath++;
+	}
+
+	/*
+	 * The first move of a path is from the origin
+	 */
+	private void startPath() throws IOException {
+		put("<path d=\"M0 0");
+		penX = 0;
+		penY = 0;
+		runsInPath = 0;
+	}
+
+	private void putNumber(long number) {
+
+		if (number < 0) {
+			block[blockPosition++] = '-';
+			number = -number;
+		}
+		int digits = 1;
+		for (long remaining = number / 10; remaining != 0; remaining /= 10) {
+			digits++;
+		}
+		/* Fill in the digits from the last one */
+		blockPosition += digits;
+		for (int digit = blockPosition - 1; digit >= blockPosition - digits; digit--) {
+			block[digit] = (byte) ('0' + number % 10);
+			number /= 10;
+		}
+	}
+
+	private void put(String text) throws IOException {
+		byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+		if (blockPosition + textBytes.length > block.length) {
+			flush();
+		}
+		if (textBytes.length > block.length) {
+			outStream.write(textBytes);
+		} else {
+			System.arraycopy(textBytes, 0, block, blockPosition, textBytes.length);
+			blockPosition += textBytes.length;
+		}
+	}
+
+	private void flush() throws IOException {
+		outStream.write(block, 0, blockPosition);
+		blockPosition = 0;
+	}
+}
@@ -0,0 +1,64 @@
+package com.bobman159.mazes;
+
+/**
+ * Reads the walls of a group of 8 neighboring cells in a row at once, for
+ * writers that draw each combination of the walls of a group from a
+ * precomputed table.
+ * <p>
+ * Bit n of a group's walls is the wall of the n'th cell in the group.  The
+ * cells are read from the grid's wall words so every cell of the group
+ * must be in the grid.
+ */
+final class MazeWallGroups {
+
+	static final int GROUP_SIZE = 8;
+	static final int GROUP_COMBINATIONS = 1 << GROUP_SIZE;
+
+	private MazeWallGroups() {
+	}
+
+	/**
+	 * @param grid the grid to read
+	 * @param cellIndex the first cell of the group
+	 * @return the right walls of the cells in the group
+	 */
+	static int getRightWalls(IMazeGrid grid, int cellIndex) {
+		return everyOtherBit(getWallBits(grid,cellIndex));
+	}
+
+	/**
+	 * @param grid the grid to read
+	 * @param cellIndex the first cell of the group
+	 * @return the bottom walls of the cells in the group
+	 */
+	static int getBottomWalls(IMazeGrid grid, int cellIndex) {
+		return everyOtherBit(getWallBits(grid,cellIndex) >>> 1);
+	}
+
+	/*
+	 * The wall bits of the cells in the group, the right wall of each cell
+	 * followed by it's bottom wall
+	 */
+	private static int getWallBits(IMazeGrid grid, int cellIndex) {
+
+		int wordIndex = cellIndex >>> 5;
+		int shift = (cellIndex & 31) << 1;
+		long wallBits = grid.getWallWord(wordIndex) >>> shift;
+		if (shift > Long.SIZE - 2 * GROUP_SIZE) {
+			wallBits |= grid.getWallWord(wordIndex + 1) << (Long.SIZE - shift);
+		}
+		return (int) wallBits;
+	}
+
+	/*
+	 * Gather every other bit, the right or the bottom walls, into the low
+	 * GROUP_SIZE bits
+	 */
+	private static int everyOtherBit(int wallBits) {
+
+		int bits = wallBits & 0x5555;
+		bits = (bits | bits >>> 1) & 0x3333;
+		bits = (bits | bits >>> 2) & 0x0f0f;
+		return (bits | bits >>> 4) & 0x00ff;
+	}
+}
@@ -6,19 +6,23 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.bobman159.mazes.Maze.Direction;
+import com.bobman159.mazes.monitor.MazeWriteEvent;
+import com.bobman159.mazes.solve.MazePath;
 
 /**
- * A class to write mazes using a <code>PrintStream</code> object.
+ * A class to write mazes using a <code>PrintStream</code> object.  The rows
+ * of the maze are read from the maze grid and written by a 
+ * <code>MazeRowWriter</code>.  A solution path found by a maze solver can be
+ * drawn over the maze.
  *
  */
 public class MazeWriter {
 
 	private PrintStream outStream;
 	private Maze maze;
+	private IMazeGrid grid;
 	private MazeWriterConfiguration configuration;
-	private StringBuilder mazeRow = new StringBuilder();
-	private char emptyWall = ' ';
+	private MazePath solutionPath;
 	
 	/**
 	 * Write a maze to an output stream using default characters
@@ -28,6 +32,7 @@ public class MazeWriter {
 	public MazeWriter(PrintStream outStream,Maze maze) {
 		this.outStream = outStream;
 		this.maze = maze;
+		this.grid = maze.getGrid();
 		configuration = new MazeWriterConfiguration();
 	}
 	
@@ -40,18 +45,72 @@ public class MazeWriter {
 	public MazeWriter(PrintStream outStream,Maze maze, MazeWriterConfiguration configuration) {
 		this.outStream = outStream;
 		this.maze = maze;
+		this.grid = maze.getGrid();
 		this.configuration = configuration;
 	}
 	
+	/**
+	 * Draw a solution path over the maze using the configuration's path 
+	 * character
+	 * @param solutionPath the path to draw, null to write the maze without a
+	 * path
+	 */
+	public void setSolutionPath(MazePath solutionPath) {
+		this.solutionPath = solutionPath;
+	}
+	
 	public void writeMaze() {
 		
-		writeMazeTopRow();		
+		MazeWriteEvent writeEvent = new MazeWriteEvent();
+		writeEvent.begin();
+		int columns = maze.getColumns();
+		MazeRowWriter rowWriter = new MazeRowWriter(outStream,columns,configuration);
+		boolean[] topWalls = new boolean[columns];
+		for(int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			topWalls[columnIndex] = grid.hasTopWall(columnIndex);
+		}
+		rowWriter.writeTopRow(topWalls);		
 		
 		/* Write the body of the maze */
+		boolean[] rightWalls = new boolean[columns];
+		boolean[] bottomWalls = new boolean[columns];
+		boolean[] pathCells = null;
+		boolean[] pathCellsBelow = null;
+		if (solutionPath != null) {
+			pathCellsBelow = new boolean[columns];
+			findPathCells(0,pathCellsBelow);
+			pathCells = new boolean[columns];
+		}
 		for (int rowIndex = 0; rowIndex < maze.getRows(); rowIndex++) {			
-			int numberOfCellContentRows = configuration.getCellHeight() - 2;
-			writeCellWallsRows(rowIndex,numberOfCellContentRows);
-			writeCellBottomRow(rowIndex);
+			int cellIndex = grid.getCellIndex(rowIndex, 0);
+			for(int columnIndex = 0; columnIndex < columns; columnIndex++) {
+				/* The bottom wall of a cell is also the top wall of the cell below */
+				rightWalls[columnIndex] = grid.hasRightWall(cellIndex + columnIndex);
+				bottomWalls[columnIndex] = grid.hasBottomWall(cellIndex + columnIndex);
+			}
+			if (solutionPath == null) {
+				rowWriter.writeRow(rightWalls,bottomWalls);
+			} else {
+				boolean[] swapCells = pathCells;
+				pathCells = pathCellsBelow;
+				pathCellsBelow = swapCells;
+				findPathCells(rowIndex + 1,pathCellsBelow);
+				rowWriter.writeSolutionRow(rightWalls,bottomWalls,pathCells,pathCellsBelow);
+			}
+		}
+		writeEvent.commitWrite("text",maze);
+	}
+	
+	/*
+	 * Set the path cells of a row, no cells are on the path past the last row
+	 */
+	private void findPathCells(int rowIndex, boolean[] pathCells) {
+		
+		int columns = maze.getColumns();
+		boolean inMaze = rowIndex < maze.getRows();
+		for(int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			pathCells[columnIndex] = inMaze 
+					&& solutionPath.isOnPath(grid.getCellIndex(rowIndex, columnIndex));
 		}
 	}
 	
@@ -69,88 +128,4 @@ public class MazeWriter {
 			}
 		}
 	}
-	
-	private void writeMazeTopRow() {
-		
-		mazeRow.delete(0, mazeRow.length());	
-		for(int columnIndex = 0; columnIndex < maze.getColumns(); columnIndex++) {
-			MazeCell cell = maze.getMazeCell(0, columnIndex);
-			mazeRow.append(configuration.getCellSeparator());	
-			if (cell.hasTopWall()) 
-			{
-				mazeRow.append(configuration.getTopBottomWall());
-			} else {
-				mazeRow.append(configuration.getCellContents());
-			}
-		}
-		mazeRow.append(configuration.getCellSeparator());		
-		outStream.println(mazeRow.toString());		
-	}
-	
-	private void writeCellBottomRow(int rowIndex) {
-		
-		mazeRow.delete(0, mazeRow.length());
-		for(int columnIndex = 0; columnIndex < maze.getColumns(); columnIndex++) {
-			mazeRow.append(configuration.getCellSeparator());	
-			MazeCell currentCell = maze.getMazeCell(rowIndex, columnIndex);
-			MazeCell belowCell = maze.getMazeCell(currentCell, Direction.DOWN);
-			if (belowCell == null) { 
-				if (currentCell.hasBottomWall()) {
-					mazeRow.append(configuration.getTopBottomWall());
-				} else {
-					mazeRow.append(configuration.getCellContents());
-				}
-			} else {				
-				if (currentCell.hasBottomWall() ||
-					belowCell.hasTopWall()) {
-					mazeRow.append(configuration.getTopBottomWall());
-				} else {
-					mazeRow.append(configuration.getCellContents());
-				}
-			} 
-		}
-		mazeRow.append(configuration.getCellSeparator());		
-		outStream.println(mazeRow.toString());		
-	}
-	
-	private void writeCellWallsRows(int currentRowIndex, int numberOfCellContentRows) {
-		
-		mazeRow.delete(0, mazeRow.length());
-		for (int rowsToWrite = numberOfCellContentRows; rowsToWrite > 0; rowsToWrite--) {
-			for(int columnIndex = 0; columnIndex < maze.getColumns(); columnIndex++) {
-				MazeCell currentCell = maze.getMazeCell(currentRowIndex, columnIndex);
-				buildLeftWall(currentCell);			
-				mazeRow.append(configuration.getCellContents());
-				buildRightMazeWall(currentCell);
-			}
-		}
-		outStream.println(mazeRow.toString());		
-	}
-
-	private void buildRightMazeWall(MazeCell currentCell) {
-		/* Right Wall */
-		MazeCell rightCell = maze.getMazeCell(currentCell, Direction.RIGHT);
-		if (rightCell != null) {
-			/* There is a logical possibility that current cell has a 
-			 * right wall but the right cell does not have a left wall or
-			 * vice versa.  To be "safe" print out the wall character
-			 */
-			if (currentCell.hasRightWall() ||
-				rightCell.hasLeftWall()) {
-				mazeRow.append(configuration.getLeftRightWall());
-			} else {
-				mazeRow.append(emptyWall);
-			}
-		} else {
-			mazeRow.append(configuration.getLeftRightWall());
-		}		
-	}
-
-	private void buildLeftWall(MazeCell currentCell) {
-		
-		/* Left Wall */
-		if (currentCell.getColumn() == 0 && currentCell.hasLeftWall()) {
-			mazeRow.append(configuration.getLeftRightWall());
-		} 
-	}
 }
@@ -1,5 +1,7 @@
 package com.bobman159.mazes;
 
+import java.util.Objects;
+
 /**
  * A configuration class for use in writing/printing mazes.
  *
@@ -13,6 +15,8 @@ public class MazeWriterConfiguration {
 	private char cellSeparator;
 	private String topBottomWall;
 	private String cellContents;
+	private char pathCharacter;
+	private String pathContents;
 	
 	/**
 	 * Creates a default <Code>MazeWriterConfiguration</code> 
@@ -22,6 +26,7 @@ public class MazeWriterConfiguration {
 	 * <li> top and bottom walls are printed with '-' for the width of the cell</li>
 	 * <li> left and right walls are printed with '|' </li>
 	 * <li> cells are separated using '+'</li>
+	 * <li> cells on a solution path are filled with '.'</li>
 	 * </ul>
 	 */
 	public MazeWriterConfiguration() {
@@ -32,6 +37,24 @@ public class MazeWriterConfiguration {
 		cellSeparator = '+';
 		topBottomWall = String.valueOf(topBottomWallCharacter).repeat(getCellWidth());
 		cellContents = String.valueOf(' ').repeat(getCellWidth());
+		setPathCharacter('.');
+	}
+
+	/**
+	 * Creates a copy of a configuration, later changes to either one do not
+	 * change the other
+	 * @param configuration the configuration to copy
+	 */
+	public MazeWriterConfiguration(MazeWriterConfiguration configuration) {
+		cellWidth = configuration.cellWidth;
+		cellHeight = configuration.cellHeight;
+		topBottomWallCharacter = configuration.topBottomWallCharacter;
+		leftRightWall = configuration.leftRightWall;
+		cellSeparator = configuration.cellSeparator;
+		topBottomWall = configuration.topBottomWall;
+		cellContents = configuration.cellContents;
+		pathCharacter = configuration.pathCharacter;
+		pathContents = configuration.pathContents;
 	}
 
 	public int getCellWidth() {
@@ -95,9 +118,58 @@ public class MazeWriterConfiguration {
 	 * 
 	 * @return the contents of a cell ' ' as a string for the width of a cell
 	 */
-	public Object getCellContents() {
+	public String getCellContents() {
 		return cellContents;
 	}
-	
-	
+
+	public char getPathCharacter() {
+		return pathCharacter;
+	}
+
+	/**
+	 * Override the default solution path character of '.'
+	 * @param pathCharacter the new solution path character
+	 */
+	public void setPathCharacter(char pathCharacter) {
+		this.pathCharacter = pathCharacter;
+		pathContents = String.valueOf(pathCharacter).repeat(getCellWidth());
+	}
+
+	/**
+	 * 
+	 * @return the contents of a cell on the solution path as a string for the
+	 * width of a cell
+	 */
+	public String getPathContents() {
+		return pathContents;
+	}
+
+	/**
+	 * Configurations are equal when they write a maze the same way
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof MazeWriterConfiguration)) {
+			return false;
+		}
+		MazeWriterConfiguration otherConfiguration = (MazeWriterConfiguration) other;
+		return cellWidth == otherConfiguration.cellWidth &&
+			   cellHeight == otherConfiguration.cellHeight &&
+			   topBottomWallCharacter == otherConfiguration.topBottomWallCharacter &&
+			   leftRightWall == otherConfiguration.leftRightWall &&
+			   cellSeparator == otherConfiguration.cellSeparator &&
+			   pathCharacter == otherConfiguration.pathCharacter &&
+			   topBottomWall.equals(otherConfiguration.topBottomWall) &&
+			   cellContents.equals(otherConfiguration.cellContents) &&
+			   pathContents.equals(otherConfiguration.pathContents);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(cellWidth,cellHeight,topBottomWallCharacter,leftRightWall,
+				cellSeparator,pathCharacter,topBottomWall,cellContents,pathContents);
+	}
 }
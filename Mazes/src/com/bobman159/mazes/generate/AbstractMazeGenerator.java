@@ -0,0 +1,127 @@
+package com.bobman159.mazes.generate;
+
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.IMazeGrid;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeWriter;
+import com.bobman159.mazes.monitor.GenerationStats;
+
+/**
+ * The common parts of the generators that build a whole <code>Maze</code>
+ * in memory.  Sub classes carve the passages in <code>buildMaze()</code>
+ * taking all of their random choices from <code>randomGenerator</code>, the
+ * maze's random number stream, and carve through <code>carvePassage</code>
+ * so the passages carved are counted.  Sub classes also count the cells
+ * they visit and the peak size of their frontier or backtrack stack, the
+ * counts are returned in the <code>GenerationStats</code> of the maze and
+ * recorded in the <code>MazeGenerationMetrics</code>.
+ */
+public abstract class AbstractMazeGenerator implements IMazeGenerator {
+
+	protected Maze maze;
+	protected IMazeGrid grid;
+	protected SplittableRandom randomGenerator;
+	protected long passagesCarved;
+	protected long cellsVisited;
+	protected int peakFrontierSize;
+	protected int peakBacktrackDepth;
+	/* Allocated for this maze by threads other than the one creating it */
+	protected long otherThreadsBytesAllocated;
+	private GenerationStats generationStats;
+	private final GenerationRecorder generationRecorder = new GenerationRecorder(this);
+
+	/**
+	 * Create the maze to be generated
+	 * @param rows number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random number stream
+	 */
+	protected AbstractMazeGenerator(int rows, int columns, long seed) {
+		this(new Maze(rows,columns,seed));
+	}
+	
+	/**
+	 * Generate into an existing, empty maze, for example one stored in a
+	 * <code>MappedMazeGrid</code>
+	 * @param maze the maze to be generated
+	 */
+	protected AbstractMazeGenerator(Maze maze) {
+		this.maze = maze;
+		grid = maze.getGrid();
+		randomGenerator = maze.getRandom();
+	}
+
+	@Override
+	public void createMaze() {
+		generationRecorder.begin(maze.getRows(),maze.getColumns(),maze.getSeed());
+		passagesCarved = 0;
+		cellsVisited = 0;
+		peakFrontierSize = 0;
+		peakBacktrackDepth = 0;
+		otherThreadsBytesAllocated = 0;
+		buildMaze();
+		maze.setStartEndTopAndBottom();
+		generationStats = generationRecorder.end(cellsVisited, passagesCarved, peakFrontierSize,
+				peakBacktrackDepth, otherThreadsBytesAllocated);
+	}
+
+	/**
+	 * Reset the maze and create it again, sub classes keep their buffers
+	 * between mazes.
+	 */
+	@Override
+	public void recreateMaze(long seed) {
+		maze.reset(seed);
+		randomGenerator = maze.getRandom();
+		createMaze();
+	}
+
+	@Override
+	public void writeMaze(PrintStream outputStream) {
+		MazeWriter mazeWriter = new MazeWriter(outputStream,maze);
+		mazeWriter.writeMaze();
+	}
+
+	@Override
+	public long getSeed() {
+		return maze.getSeed();
+	}
+
+	@Override
+	public Maze getMaze() {
+		return maze;
+	}
+
+	@Override
+	public GenerationStats getGenerationStats() {
+		return generationStats;
+	}
+
+	@Override
+	public boolean isMetricsRecorded() {
+		return generationRecorder.isMetricsRecorded();
+	}
+
+	@Override
+	public void setMetricsRecorded(boolean metricsRecorded) {
+		generationRecorder.setMetricsRecorded(metricsRecorded);
+	}
+
+	/**
+	 * Carve the passages of the maze.
+	 */
+	protected abstract void buildMaze();
+
+	/**
+	 * Carve a passage between two neighboring cells and count the passage.
+	 * @param fromIndex the index of the cell the passage starts from
+	 * @param toIndex the index of the neighboring cell
+	 */
+	protected void carvePassage(int fromIndex, int toIndex) {
+		grid.carvePassage(fromIndex, toIndex);
+		passagesCarved++;
+	}
+}
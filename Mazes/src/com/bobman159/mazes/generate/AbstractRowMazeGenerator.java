@@ -0,0 +1,325 @@
+package com.bobman159.mazes.generate;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.bobman159.mazes.IMazeGrid;
+import com.bobman159.mazes.IMazeRowSink;
+import com.bobman159.mazes.IStreamingMazeGenerator;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeRowWriter;
+import com.bobman159.mazes.MazeWriter;
+import com.bobman159.mazes.monitor.GenerationStats;
+import com.bobman159.mazes.monitor.MazeGenerationMetrics;
+
+/**
+ * The common parts of the generators that carve each row of the maze on
+ * it's own, without looking at any other row.
+ * <p>
+ * Every row takes it's random choices from it's own random number stream,
+ * seeded from the maze's seed and the row, so the rows can be carved in any
+ * order.  <code>createMaze</code> splits the rows into ranges carved on a
+ * <code>ForkJoinPool</code>, each range writes it's walls straight into the
+ * maze's grid a word of 32 cells at a time.  The words are written
+ * atomically as a word can hold cells of two ranges, there are no locks.
+ * <code>streamMaze</code> carves the rows in order and hands each one to
+ * the sink as soon as it is carved.  The same seed gives the same maze for
+ * any parallelism and in both modes.
+ */
+public abstract class AbstractRowMazeGenerator implements IStreamingMazeGenerator {
+
+	/* About the number of cells carved by each task */
+	private static final int TASK_CELLS = 1 << 16;
+	/* The grid holds the walls of 32 cells in each word, 2 bits per cell */
+	private static final int CELLS_PER_WALL_WORD = 32;
+	private static final long RIGHT_WALL_BIT = 1;
+	private static final long BOTTOM_WALL_BIT = 2;
+	/* Spreads the row seeds apart, it is not the gamma SplittableRandom
+	 * steps by so the streams of neighboring rows do not overlap */
+	private static final long ROW_SEED_GAMMA = 0xbf58476d1ce4e5b9L;
+
+	protected int rows;
+	protected int columns;
+	private long seed;
+	private int parallelism;
+	private Maze maze;
+	private Maze targetMaze;
+	private GenerationStats generationStats;
+	private final GenerationRecorder generationRecorder = new GenerationRecorder(this);
+	private Logger logger = LogManager.getLogger(getClass());
+
+	/* The statistics of the tasks carving the rows */
+	private LongAdder taskPassagesCarved;
+	private LongAdder taskBytesAllocated;
+	private Thread buildThread;
+	/* The walls of the rows carved by the thread building the maze */
+	private boolean[] rowRightWalls;
+	private boolean[] rowBottomWalls;
+
+	/**
+	 * Generate a maze with the given number of rows and columns
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 * @param parallelism the number of threads carving rows
+	 */
+	protected AbstractRowMazeGenerator(int rows, int columns, long seed, int parallelism) {
+		if (rows <= 0 || columns <= 1) {
+			throw new IllegalArgumentException("rows must be greater than 0 and columns greater than 1");
+		}
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("parallelism must be greater than 0");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		this.seed = seed;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Generate into an existing, empty maze when <code>createMaze</code> is
+	 * called
+	 * @param maze the maze to be generated
+	 * @param parallelism the number of threads carving rows
+	 */
+	protected AbstractRowMazeGenerator(Maze maze, int parallelism) {
+		this(maze.getRows(),maze.getColumns(),maze.getSeed(),parallelism);
+		targetMaze = maze;
+	}
+
+	/**
+	 * Create the whole maze in memory, carving ranges of rows in parallel.
+	 */
+	@Override
+	public void createMaze() {
+
+		maze = targetMaze != null ? targetMaze : new Maze(rows,columns,seed);
+		startGeneration();
+		taskPassagesCarved = new LongAdder();
+		taskBytesAllocated = new LongAdder();
+		buildThread = Thread.currentThread();
+
+		if (parallelism == 1) {
+			carveRows(0,rows);
+		} else {
+			ForkJoinPool rowPool = new ForkJoinPool(parallelism);
+			try {
+				rowPool.invoke(new CarveRowsTask(0,rows));
+			} finally {
+				rowPool.shutdown();
+			}
+		}
+		maze.getGrid().allCellsVisited();
+		SplittableRandom mazeRandom = new SplittableRandom(seed);
+		maze.setStartEnd(mazeRandom.nextInt(columns-1),mazeRandom.nextInt(columns-1));
+		endGeneration(taskPassagesCarved.sum(),taskBytesAllocated.sum());
+	}
+
+	/**
+	 * Reset the maze and create it again, the row buffers are kept between
+	 * mazes when the rows are carved on one thread.
+	 */
+	@Override
+	public void recreateMaze(long seed) {
+		this.seed = seed;
+		Maze reusedMaze = maze != null ? maze : targetMaze;
+		if (reusedMaze != null) {
+			reusedMaze.reset(seed);
+			targetMaze = reusedMaze;
+		}
+		createMaze();
+	}
+
+	/**
+	 * Write the maze created by <code>createMaze</code>.  If the maze has not
+	 * been created it is streamed instead, without creating it in memory.
+	 */
+	@Override
+	public void writeMaze(PrintStream outputStream) {
+		if (maze != null) {
+			MazeWriter mazeWriter = new MazeWriter(outputStream,maze);
+			mazeWriter.writeMaze();
+		} else {
+			streamMaze(new MazeRowWriter(outputStream,columns));
+		}
+	}
+
+	/**
+	 * Carve the rows in order on the calling thread, each row is written to
+	 * the sink as soon as it is carved.
+	 */
+	@Override
+	public void streamMaze(IMazeRowSink rowSink) {
+
+		startGeneration();
+
+		SplittableRandom mazeRandom = new SplittableRandom(seed);
+		int entranceColumn = mazeRandom.nextInt(columns-1);
+		int exitColumn = mazeRandom.nextInt(columns-1);
+		boolean[] topWalls = new boolean[columns];
+		Arrays.fill(topWalls, true);
+		topWalls[entranceColumn] = false;
+		rowSink.writeTopRow(topWalls);
+
+		boolean[] rightWalls = new boolean[columns];
+		boolean[] bottomWalls = new boolean[columns];
+
+		long passagesCarved = 0;
+		for (int rowIndex = 0; rowIndex < rows; rowIndex++) {
+			passagesCarved += carveRow(rowRandom(rowIndex),rowIndex,rightWalls,bottomWalls);
+			if (rowIndex == rows - 1) {
+				bottomWalls[exitColumn] = false;
+			}
+			rowSink.writeRow(rightWalls,bottomWalls);
+		}
+		endGeneration(passagesCarved,0);
+	}
+
+	@Override
+	public long getSeed() {
+		return seed;
+	}
+
+	@Override
+	public Maze getMaze() {
+		return maze;
+	}
+
+	/**
+	 * @return the statistics of the last maze created or streamed, every
+	 * cell is visited once
+	 */
+	@Override
+	public GenerationStats getGenerationStats() {
+		return generationStats;
+	}
+
+	@Override
+	public boolean isMetricsRecorded() {
+		return generationRecorder.isMetricsRecorded();
+	}
+
+	@Override
+	public void setMetricsRecorded(boolean metricsRecorded) {
+		generationRecorder.setMetricsRecorded(metricsRecorded);
+	}
+
+	/**
+	 * Carve the passages of one row.  The walls of the row must only depend
+	 * on the row and it's random number stream.
+	 * @param rowRandom the random number stream of the row
+	 * @param rowIndex the row to carve
+	 * @param rightWalls set to true for each column where the cell has a
+	 * right wall
+	 * @param bottomWalls set to true for each column where the cell has a
+	 * bottom wall, the bottom row has every bottom wall
+	 * @return the number of passages carved
+	 */
+	protected abstract int carveRow(SplittableRandom rowRandom, int rowIndex,
+			boolean[] rightWalls, boolean[] bottomWalls);
+
+	/*
+	 * Each row has it's own random number stream
+	 */
+	private SplittableRandom rowRandom(int rowIndex) {
+		return new SplittableRandom(seed + (rowIndex + 1) * ROW_SEED_GAMMA);
+	}
+
+	/*
+	 * Carve a range of rows into the grid.  The cleared walls are gathered
+	 * into a grid word and each word is written once, atomically as the
+	 * first and last words of a range may hold cells of other ranges.
+	 */
+	private void carveRows(int firstRow, int endRow) {
+
+		long startBytes = MazeGenerationMetrics.getCurrentThreadAllocatedBytes();
+		IMazeGrid grid = maze.getGrid();
+		boolean[] rightWalls;
+		boolean[] bottomWalls;
+		if (Thread.currentThread() == buildThread) {
+			if (rowRightWalls == null) {
+				rowRightWalls = new boolean[columns];
+				rowBottomWalls = new boolean[columns];
+			}
+			rightWalls = rowRightWalls;
+			bottomWalls = rowBottomWalls;
+		} else {
+			rightWalls = new boolean[columns];
+			bottomWalls = new boolean[columns];
+		}
+
+		long passagesCarved = 0;
+		int cellIndex = firstRow * columns;
+		long clearedWalls = 0;
+		for (int rowIndex = firstRow; rowIndex < endRow; rowIndex++) {
+			passagesCarved += carveRow(rowRandom(rowIndex),rowIndex,rightWalls,bottomWalls);
+			for (int columnIndex = 0; columnIndex < columns; columnIndex++, cellIndex++) {
+				long cellWalls = (rightWalls[columnIndex] ? 0 : RIGHT_WALL_BIT)
+						| (bottomWalls[columnIndex] ? 0 : BOTTOM_WALL_BIT);
+				clearedWalls |= cellWalls << (cellIndex << 1);
+				if ((cellIndex & (CELLS_PER_WALL_WORD - 1)) == CELLS_PER_WALL_WORD - 1) {
+					grid.atomicClearWallWord(cellIndex / CELLS_PER_WALL_WORD, clearedWalls);
+					clearedWalls = 0;
+				}
+			}
+		}
+		if (clearedWalls != 0) {
+			grid.atomicClearWallWord(cellIndex / CELLS_PER_WALL_WORD, clearedWalls);
+		}
+		taskPassagesCarved.add(passagesCarved);
+
+		/* Allocations on the thread building the maze are measured by it */
+		if (Thread.currentThread() != buildThread && startBytes >= 0) {
+			taskBytesAllocated.add(MazeGenerationMetrics.getCurrentThreadAllocatedBytes() - startBytes);
+		}
+	}
+
+	private void startGeneration() {
+		logger.log(Level.INFO,"Build maze using {} on {} threads, seed {}", getMazeType(),
+				parallelism, seed);
+		generationRecorder.begin(rows,columns,seed);
+	}
+
+	/*
+	 * Both createMaze and streamMaze are recorded as a generation
+	 */
+	private void endGeneration(long passagesCarved, long otherThreadsBytesAllocated) {
+		generationStats = generationRecorder.end((long) rows * columns, passagesCarved, 0, 0,
+				otherThreadsBytesAllocated);
+	}
+
+	/*
+	 * Carves a range of rows, splitting the range in half until it has
+	 * about TASK_CELLS cells.
+	 */
+	private class CarveRowsTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int firstRow;
+		private final int endRow;
+
+		CarveRowsTask(int firstRow, int endRow) {
+			this.firstRow = firstRow;
+			this.endRow = endRow;
+		}
+
+		@Override
+		protected void compute() {
+			if (endRow - firstRow == 1 || (long) (endRow - firstRow) * columns <= TASK_CELLS) {
+				carveRows(firstRow,endRow);
+			} else {
+				int middleRow = (firstRow + endRow) >>> 1;
+				invokeAll(new CarveRowsTask(firstRow,middleRow),
+						  new CarveRowsTask(middleRow,endRow));
+			}
+		}
+	}
+}
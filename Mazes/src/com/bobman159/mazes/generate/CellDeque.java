@@ -0,0 +1,87 @@
+package com.bobman159.mazes.generate;
+
+import java.util.Arrays;
+
+/**
+ * A double ended queue of maze cell indexes used by the Growing Tree
+ * generator.
+ * <p>
+ * The cells are kept in a circular int array that doubles when it is full.
+ * Cells are added at the end, positions count from the oldest cell (0) to
+ * the newest cell (size() - 1).  Removing the oldest or the newest cell
+ * keeps the order of the other cells, removing any other cell moves the
+ * newest cell into it's place.  Every operation is O(1) and nothing is
+ * allocated except when the array grows.
+ */
+class CellDeque {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private int[] cells = new int[INITIAL_CAPACITY];
+	private int mask = INITIAL_CAPACITY - 1;
+	private int head;
+	private int size;
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Add a cell as the newest cell
+	 * @param cellIndex the index of the cell to add
+	 */
+	void addNewest(int cellIndex) {
+		if (size == cells.length) {
+			grow();
+		}
+		cells[(head + size) & mask] = cellIndex;
+		size++;
+	}
+
+	/**
+	 * @param position a position from 0 (the oldest cell) to size() - 1 (the
+	 * newest cell)
+	 * @return the cell index at the position
+	 */
+	int get(int position) {
+		return cells[(head + position) & mask];
+	}
+
+	/**
+	 * Remove the cell at a position, the newest cell is moved to the
+	 * position unless the oldest or the newest cell is removed.
+	 * @param position a position from 0 to size() - 1
+	 */
+	void removeAt(int position) {
+		if (position == 0) {
+			head = (head + 1) & mask;
+		} else if (position != size - 1) {
+			cells[(head + position) & mask] = cells[(head + size - 1) & mask];
+		}
+		size--;
+	}
+
+	/**
+	 * Remove every cell, keeping the allocated storage.
+	 */
+	void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	/*
+	 * Double the array, the cells are copied from the oldest to the start
+	 * of the new array
+	 */
+	private void grow() {
+		int[] newCells = Arrays.copyOfRange(cells, head, head + cells.length * 2);
+		System.arraycopy(cells, 0, newCells, cells.length - head, head);
+		cells = newCells;
+		mask = cells.length - 1;
+		head = 0;
+	}
+}
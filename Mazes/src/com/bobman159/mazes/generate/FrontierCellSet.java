@@ -0,0 +1,98 @@
+package com.bobman159.mazes.generate;
+
+import java.util.Arrays;
+
+/**
+ * A set of maze cell indexes used to hold the frontier cells of a maze
+ * generator.
+ * <p>
+ * Membership is kept in a bitmap over all of the cell indexes, the cells
+ * themselves are kept in a dense array.  Adding a cell, testing if a cell is
+ * in the set, retrieving the cell at a position and removing the cell at a
+ * position (by swapping the last cell into it's place) are all O(1).  The
+ * order of the cells in the set is not preserved by removes.
+ */
+public class FrontierCellSet {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final long[] members;
+	private int[] cells;
+	private int size;
+
+	/**
+	 * Create an empty set
+	 * @param cellCount the number of cells in the maze, all cell indexes added
+	 * to the set must be less than this
+	 */
+	public FrontierCellSet(int cellCount) {
+		members = new long[(int) (((long) cellCount + Long.SIZE - 1) / Long.SIZE)];
+		cells = new int[INITIAL_CAPACITY];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return true if the cell index is in the set, false otherwise
+	 */
+	public boolean contains(int cellIndex) {
+		return (members[cellIndex >>> 6] & (1L << cellIndex)) != 0;
+	}
+
+	/**
+	 * Add a cell to the set if it is not already in the set.
+	 * @param cellIndex the index of the cell to add
+	 * @return true if the cell was added, false if it was already in the set
+	 */
+	public boolean add(int cellIndex) {
+
+		if (contains(cellIndex)) {
+			return false;
+		}
+		if (size == cells.length) {
+			cells = Arrays.copyOf(cells, cells.length * 2);
+		}
+		cells[size++] = cellIndex;
+		members[cellIndex >>> 6] |= 1L << cellIndex;
+		return true;
+	}
+
+	/**
+	 * @param position a position in the set from 0 to size() - 1
+	 * @return the cell index at the position
+	 */
+	public int get(int position) {
+		return cells[position];
+	}
+
+	/**
+	 * Remove the cell at a position, the last cell in the set is moved to
+	 * the position.
+	 * @param position a position in the set from 0 to size() - 1
+	 * @return the index of the removed cell
+	 */
+	public int removeAt(int position) {
+
+		int cellIndex = cells[position];
+		cells[position] = cells[--size];
+		members[cellIndex >>> 6] &= ~(1L << cellIndex);
+		return cellIndex;
+	}
+
+	/**
+	 * Remove every cell from the set, keeping the allocated storage.
+	 */
+	public void clear() {
+		for (int position = 0; position < size; position++) {
+			int cellIndex = cells[position];
+			members[cellIndex >>> 6] &= ~(1L << cellIndex);
+		}
+		size = 0;
+	}
+}
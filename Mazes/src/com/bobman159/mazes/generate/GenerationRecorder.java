@@ -0,0 +1,92 @@
+package com.bobman159.mazes.generate;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.monitor.GenerationStats;
+import com.bobman159.mazes.monitor.MazeGenerationEvent;
+import com.bobman159.mazes.monitor.MazeGenerationMetrics;
+
+/**
+ * Times one generation of a maze and records it, shared by all of the
+ * generators.  <code>begin</code> starts the <code>MazeGenerationEvent</code>
+ * and the clock, <code>end</code> builds the <code>GenerationStats</code>,
+ * records them in the <code>MazeGenerationMetrics</code> unless the
+ * generator opted out, and commits the event.
+ */
+class GenerationRecorder {
+
+	private final IMazeGenerator generator;
+	private boolean metricsRecorded = true;
+	private MazeGenerationEvent generationEvent;
+	private int rows;
+	private int columns;
+	private long seed;
+	private long startNanos;
+	private long startBytes;
+
+	GenerationRecorder(IMazeGenerator generator) {
+		this.generator = generator;
+	}
+
+	boolean isMetricsRecorded() {
+		return metricsRecorded;
+	}
+
+	void setMetricsRecorded(boolean metricsRecorded) {
+		this.metricsRecorded = metricsRecorded;
+	}
+
+	/**
+	 * Start timing a generation on the calling thread
+	 * @param rows number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed of the maze
+	 */
+	void begin(int rows, int columns, long seed) {
+		this.rows = rows;
+		this.columns = columns;
+		this.seed = seed;
+		generationEvent = new MazeGenerationEvent();
+		generationEvent.begin();
+		startNanos = System.nanoTime();
+		startBytes = MazeGenerationMetrics.getCurrentThreadAllocatedBytes();
+	}
+
+	/**
+	 * Finish timing the generation started by <code>begin</code> and record
+	 * it
+	 * @param cellsVisited the number of visits to cells
+	 * @param passagesCarved the number of passages carved
+	 * @param peakFrontierSize the most frontier cells at one time
+	 * @param peakBacktrackDepth the deepest the backtrack stack grew
+	 * @param otherThreadsBytesAllocated the bytes allocated for the maze by
+	 * threads other than the calling thread
+	 * @return the statistics of the generation
+	 */
+	GenerationStats end(long cellsVisited, long passagesCarved, int peakFrontierSize,
+			int peakBacktrackDepth, long otherThreadsBytesAllocated) {
+
+		generationEvent.end();
+		long bytesAllocated = -1;
+		if (startBytes >= 0) {
+			bytesAllocated = MazeGenerationMetrics.getCurrentThreadAllocatedBytes() - startBytes
+					+ otherThreadsBytesAllocated;
+		}
+		GenerationStats generationStats = new GenerationStats(generator.getMazeType(),
+				System.nanoTime() - startNanos, cellsVisited, passagesCarved, peakFrontierSize,
+				peakBacktrackDepth, bytesAllocated);
+		if (metricsRecorded) {
+			MazeGenerationMetrics.getInstance().record(generationStats);
+		}
+		if (generationEvent.shouldCommit()) {
+			generationEvent.algorithm = generator.getMazeType().name();
+			generationEvent.generator = generator.getClass().getSimpleName();
+			generationEvent.rows = rows;
+			generationEvent.columns = columns;
+			generationEvent.seed = seed;
+			generationEvent.cellsCarved = passagesCarved;
+			generationEvent.commit();
+		}
+		generationEvent = null;
+		return generationStats;
+	}
+}
@@ -0,0 +1,97 @@
+package com.bobman159.mazes.generate;
+
+import java.util.SplittableRandom;
+
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * A maze generator using the Binary Tree algorithm.
+ * Based on https://weblog.jamisbuck.org/2011/2/1/maze-generation-binary-tree-algorithm
+ * <p>
+ * Every cell carves a passage either right or down, picked at random.
+ * Cells in the last column can only carve down and cells in the bottom
+ * row can only carve right, so the bottom row and the last column are
+ * straight corridors and every passage leads towards the bottom right
+ * corner.  It is the fastest generator, one random bit per cell.
+ */
+public class MazeGeneratorBinaryTree extends AbstractRowMazeGenerator {
+
+	/**
+	 * Generate a maze with the given number of rows and columns
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 */
+	public MazeGeneratorBinaryTree(int rows, int columns, long seed) {
+		this(rows,columns,seed,1);
+	}
+
+	/**
+	 * Generate a maze with the given number of rows and columns, carving
+	 * ranges of rows in parallel
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 * @param parallelism the number of threads carving rows
+	 */
+	public MazeGeneratorBinaryTree(int rows, int columns, long seed, int parallelism) {
+		super(rows,columns,seed,parallelism);
+	}
+
+	/**
+	 * Generate into an existing, empty maze when <code>createMaze</code> is
+	 * called
+	 * @param maze the maze to be generated
+	 */
+	public MazeGeneratorBinaryTree(Maze maze) {
+		this(maze,1);
+	}
+
+	/**
+	 * Generate into an existing, empty maze when <code>createMaze</code> is
+	 * called, carving ranges of rows in parallel
+	 * @param maze the maze to be generated
+	 * @param parallelism the number of threads carving rows
+	 */
+	public MazeGeneratorBinaryTree(Maze maze, int parallelism) {
+		super(maze,parallelism);
+	}
+
+	@Override
+	public MazeType getMazeType() {
+		return MazeType.BINARYTREE;
+	}
+
+	/*
+	 * A set bit carves right and a clear bit carves down, the bits are taken
+	 * from a random long 64 at a time
+	 */
+	@Override
+	protected int carveRow(SplittableRandom rowRandom, int rowIndex, boolean[] rightWalls,
+			boolean[] bottomWalls) {
+
+		int lastColumn = columns - 1;
+		if (rowIndex == rows - 1) {
+			for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+				rightWalls[columnIndex] = columnIndex == lastColumn;
+				bottomWalls[columnIndex] = true;
+			}
+			return lastColumn;
+		}
+
+		for (int columnIndex = 0; columnIndex < lastColumn; columnIndex += Long.SIZE) {
+			long carveRightBits = rowRandom.nextLong();
+			int endColumn = Math.min(columnIndex + Long.SIZE, lastColumn);
+			for (int column = columnIndex; column < endColumn; column++) {
+				boolean carveRight = (carveRightBits & 1) != 0;
+				carveRightBits >>>= 1;
+				rightWalls[column] = !carveRight;
+				bottomWalls[column] = carveRight;
+			}
+		}
+		rightWalls[lastColumn] = true;
+		bottomWalls[lastColumn] = false;
+		return columns;
+	}
+}
@@ -0,0 +1,317 @@
+package com.bobman159.mazes.generate;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.bobman159.mazes.IMazeRowSink;
+import com.bobman159.mazes.IStreamingMazeGenerator;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.MazeRowWriter;
+import com.bobman159.mazes.MazeWriter;
+import com.bobman159.mazes.monitor.GenerationStats;
+
+/**
+ * A maze generator using Eller's Algorithm.
+ * Based on https://weblog.jamisbuck.org/2010/12/29/maze-generation-eller-s-algorithm
+ * <p>
+ * The maze is generated one row at a time, only the current row's walls and
+ * the set each cell of the row belongs to are kept.  The memory used depends
+ * only on the number of columns so mazes with millions of rows can be 
+ * streamed with <code>streamMaze</code>, each row is written as soon as it is
+ * finished.  <code>createMaze</code> stores the same rows in a 
+ * <code>Maze</code>.
+ *
+ */
+public class MazeGeneratorEllersAlgorithm implements IStreamingMazeGenerator {
+
+	private int rows;
+	private int columns;
+	private long seed;
+	private Maze maze;
+	private Maze targetMaze;
+	private long passagesCarved;
+	private GenerationStats generationStats;
+	private final GenerationRecorder generationRecorder = new GenerationRecorder(this);
+	private Logger logger = LogManager.getLogger(MazeGeneratorEllersAlgorithm.class);
+	
+	/* The current row, the set of each cell and the walls of each cell */
+	private int[] cellSets;
+	private boolean[] rightWalls;
+	private boolean[] bottomWalls;
+	
+	/* Scratch space indexed by set, sets are numbered 0 to columns-1 */
+	private int[] setParents;
+	private int[] setCellCounts;
+	private int[] setDownCells;
+	private boolean[] setHasDownCell;
+	private int[] freeSets;
+	
+	/**
+	 * Generate a maze with the given number of rows and columns
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random number stream
+	 */
+	public MazeGeneratorEllersAlgorithm(int rows, int columns, long seed) {
+		if (rows <= 0 || columns <= 0) {
+			throw new IllegalArgumentException("rows and columns must be greater than 0");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		this.seed = seed;
+	}
+	
+	/**
+	 * Generate into an existing, empty maze when <code>createMaze</code> is
+	 * called
+	 * @param maze the maze to be generated
+	 */
+	public MazeGeneratorEllersAlgorithm(Maze maze) {
+		this(maze.getRows(),maze.getColumns(),maze.getSeed());
+		targetMaze = maze;
+	}
+	
+	/**
+	 * Create the whole maze in memory.
+	 */
+	@Override
+	public void createMaze() {
+		maze = targetMaze != null ? targetMaze : new Maze(rows,columns,seed);
+		generateRows(maze.getRandom(),new MazeGridRowSink(maze));
+	}
+
+	/**
+	 * Reset the maze and create it again, the row buffers are kept between
+	 * mazes.
+	 */
+	@Override
+	public void recreateMaze(long seed) {
+		this.seed = seed;
+		Maze reusedMaze = maze != null ? maze : targetMaze;
+		if (reusedMaze != null) {
+			reusedMaze.reset(seed);
+			targetMaze = reusedMaze;
+		}
+		createMaze();
+	}
+
+	/**
+	 * Write the maze created by <code>createMaze</code>.  If the maze has not
+	 * been created it is streamed instead, without creating it in memory.
+	 */
+	@Override
+	public void writeMaze(PrintStream outputStream) {
+		if (maze != null) {
+			MazeWriter mazeWriter = new MazeWriter(outputStream,maze);
+			mazeWriter.writeMaze();
+		} else {
+			streamMaze(new MazeRowWriter(outputStream,columns));
+		}
+	}
+
+	@Override
+	public void streamMaze(IMazeRowSink rowSink) {
+		generateRows(new SplittableRandom(seed),rowSink);
+	}
+
+	@Override
+	public long getSeed() {
+		return seed;
+	}
+
+	@Override
+	public Maze getMaze() {
+		return maze;
+	}
+
+	@Override
+	public MazeType getMazeType() {
+		return MazeType.ELLERS;
+	}
+
+	/**
+	 * @return the statistics of the last maze created or streamed, every
+	 * cell is visited once
+	 */
+	@Override
+	public GenerationStats getGenerationStats() {
+		return generationStats;
+	}
+
+	@Override
+	public boolean isMetricsRecorded() {
+		return generationRecorder.isMetricsRecorded();
+	}
+
+	@Override
+	public void setMetricsRecorded(boolean metricsRecorded) {
+		generationRecorder.setMetricsRecorded(metricsRecorded);
+	}
+	
+	/*
+	 * Both createMaze and streamMaze are recorded as a generation, the
+	 * entrance and exit are part of the rows.
+	 */
+	private void generateRows(SplittableRandom randomGenerator, IMazeRowSink rowSink) {
+		
+		logger.log(Level.INFO,"Build maze using Ellers Algorithm, seed {}", seed);
+		generationRecorder.begin(rows,columns,seed);
+		passagesCarved = 0;
+		if (cellSets == null) {
+			allocateRow();
+		}
+		
+		/* The entrance is picked first so the top row can be written before 
+		 * any other row is generated.
+		 */
+		/* The bottom walls are not used until the first row is carved */
+		boolean[] topWalls = bottomWalls;
+		Arrays.fill(topWalls, true);
+		topWalls[randomGenerator.nextInt(columns-1)] = false;
+		rowSink.writeTopRow(topWalls);
+		
+		/* Each cell of the first row starts in it's own set */
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			cellSets[columnIndex] = columnIndex;
+		}
+		
+		for (int rowIndex = 0; rowIndex < rows; rowIndex++) {
+			boolean lastRow = rowIndex == rows - 1;
+			joinCellsInRow(randomGenerator,lastRow);
+			if (lastRow) {
+				Arrays.fill(bottomWalls, true);
+				bottomWalls[randomGenerator.nextInt(columns-1)] = false;
+			} else {
+				carveDownFromEachSet(randomGenerator);
+			}
+			rowSink.writeRow(rightWalls,bottomWalls);
+			if (!lastRow) {
+				startNextRow();
+			}
+		}
+		
+		generationStats = generationRecorder.end((long) rows * columns, passagesCarved, 0, 0, 0);
+	}
+	
+	private void allocateRow() {
+		cellSets = new int[columns];
+		rightWalls = new boolean[columns];
+		bottomWalls = new boolean[columns];
+		setParents = new int[columns];
+		setCellCounts = new int[columns];
+		setDownCells = new int[columns];
+		setHasDownCell = new boolean[columns];
+		freeSets = new int[columns];
+	}
+	
+	/*
+	 * Randomly join adjacent cells that are in different sets, in the last row
+	 * all adjacent cells in different sets are joined.  The sets are merged
+	 * using a union find over the set numbers, afterwards every cell holds the
+	 * root of it's set.
+	 */
+	private void joinCellsInRow(SplittableRandom randomGenerator, boolean lastRow) {
+		
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			int cellSet = cellSets[columnIndex];
+			setParents[cellSet] = cellSet;
+		}
+		
+		for (int columnIndex = 0; columnIndex < columns - 1; columnIndex++) {
+			int leftSet = findSet(cellSets[columnIndex]);
+			int rightSet = findSet(cellSets[columnIndex + 1]);
+			if (leftSet != rightSet && (lastRow || randomGenerator.nextBoolean())) {
+				setParents[rightSet] = leftSet;
+				rightWalls[columnIndex] = false;
+				passagesCarved++;
+			} else {
+				rightWalls[columnIndex] = true;
+			}
+		}
+		rightWalls[columns - 1] = true;
+		
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			cellSets[columnIndex] = findSet(cellSets[columnIndex]);
+		}
+	}
+	
+	/*
+	 * Randomly carve down from the cells of the row, every set carves down 
+	 * at least once so no set is closed off from the rows below.  A set
+	 * that did not carve down carves down from one of it's cells picked at 
+	 * random (reservoir sampling).
+	 */
+	private void carveDownFromEachSet(SplittableRandom randomGenerator) {
+		
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			int cellSet = cellSets[columnIndex];
+			setCellCounts[cellSet] = 0;
+			setHasDownCell[cellSet] = false;
+		}
+		
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			int cellSet = cellSets[columnIndex];
+			boolean carveDown = randomGenerator.nextBoolean();
+			bottomWalls[columnIndex] = !carveDown;
+			if (carveDown) {
+				setHasDownCell[cellSet] = true;
+				passagesCarved++;
+			}
+			setCellCounts[cellSet]++;
+			if (randomGenerator.nextInt(setCellCounts[cellSet]) == 0) {
+				setDownCells[cellSet] = columnIndex;
+			}
+		}
+		
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			int cellSet = cellSets[columnIndex];
+			if (!setHasDownCell[cellSet]) {
+				bottomWalls[setDownCells[cellSet]] = false;
+				setHasDownCell[cellSet] = true;
+				passagesCarved++;
+			}
+		}
+	}
+	
+	/*
+	 * Cells below a passage down keep the set of the cell above, every other
+	 * cell of the next row starts in a new set of it's own.
+	 */
+	private void startNextRow() {
+		
+		boolean[] setInUse = setHasDownCell;
+		Arrays.fill(setInUse, false);
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			if (!bottomWalls[columnIndex]) {
+				setInUse[cellSets[columnIndex]] = true;
+			}
+		}
+		
+		int freeSetCount = 0;
+		for (int cellSet = 0; cellSet < columns; cellSet++) {
+			if (!setInUse[cellSet]) {
+				freeSets[freeSetCount++] = cellSet;
+			}
+		}
+		
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			if (bottomWalls[columnIndex]) {
+				cellSets[columnIndex] = freeSets[--freeSetCount];
+			}
+		}
+	}
+	
+	private int findSet(int cellSet) {
+		while (setParents[cellSet] != cellSet) {
+			setParents[cellSet] = setParents[setParents[cellSet]];
+			cellSet = setParents[cellSet];
+		}
+		return cellSet;
+	}
+}
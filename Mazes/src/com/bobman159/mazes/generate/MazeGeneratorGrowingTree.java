@@ -0,0 +1,168 @@
+package com.bobman159.mazes.generate;
+
+import java.util.SplittableRandom;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.Maze.Direction;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.MazeWriter;
+
+/**
+ * A maze generator using the Growing Tree algorithm.
+ * Based on https://weblog.jamisbuck.org/2011/1/27/maze-generation-growing-tree-algorithm
+ * <p>
+ * The cells in the maze that may still have unvisited neighbors are kept in
+ * a <code>CellDeque</code>.  Each step selects a cell from the deque and
+ * carves into a random unvisited neighbor, which is added as the newest
+ * cell, or removes the cell when it has no unvisited neighbors.  How the
+ * cell is selected decides the kind of maze:
+ * <ul>
+ * <li>NEWEST always continues from the newest cell, the long winding
+ * passages of the recursive backtracker</li>
+ * <li>RANDOM selects any cell, the many short dead ends of Prim's
+ * algorithm</li>
+ * <li>OLDEST always selects the oldest cell, long straight passages
+ * spreading out from the start</li>
+ * <li>MIXED selects the newest cell with a given probability and a random
+ * cell otherwise</li>
+ * </ul>
+ * Every selection uses the same loop, the only memory used besides the maze
+ * is the deque.  Removing a cell from the middle of the deque moves the
+ * newest cell into it's place, so after a RANDOM selection in a MIXED maze
+ * the newest cell is the one added last that has not been moved.
+ */
+public class MazeGeneratorGrowingTree extends AbstractMazeGenerator {
+
+	/**
+	 * How the next cell to carve from is selected
+	 */
+	public enum CellSelection {NEWEST, RANDOM, OLDEST, MIXED}
+
+	/**
+	 * The probability a MIXED maze selects the newest cell when none is given
+	 */
+	public static final double DEFAULT_NEWEST_WEIGHT = 0.5;
+
+	private CellSelection cellSelection;
+	private double newestWeight;
+	private CellDeque cells = new CellDeque();
+	private int[] unvisitedNeighbors = new int[Direction.values().length];
+	private Logger logger = LogManager.getLogger(MazeGeneratorGrowingTree.class);
+
+	/**
+	 * Generate a maze with the given number of rows and columns
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random number stream
+	 * @param cellSelection how the next cell to carve from is selected
+	 */
+	public MazeGeneratorGrowingTree(int rows, int columns, long seed, CellSelection cellSelection) {
+		this(new Maze(rows,columns,seed),cellSelection);
+	}
+
+	/**
+	 * Generate into an existing, empty maze
+	 * @param maze the maze to be generated
+	 * @param cellSelection how the next cell to carve from is selected
+	 */
+	public MazeGeneratorGrowingTree(Maze maze, CellSelection cellSelection) {
+		this(maze,cellSelection,DEFAULT_NEWEST_WEIGHT);
+	}
+
+	/**
+	 * Generate into an existing, empty maze
+	 * @param maze the maze to be generated
+	 * @param cellSelection how the next cell to carve from is selected
+	 * @param newestWeight the probability a MIXED maze selects the newest
+	 * cell instead of a random cell, from 0 to 1
+	 */
+	public MazeGeneratorGrowingTree(Maze maze, CellSelection cellSelection, double newestWeight) {
+		super(maze);
+		if (!(newestWeight >= 0 && newestWeight <= 1)) {
+			throw new IllegalArgumentException("newestWeight must be from 0 to 1");
+		}
+		this.cellSelection = cellSelection;
+		this.newestWeight = newestWeight;
+	}
+
+	@Override
+	public MazeType getMazeType() {
+		switch (cellSelection) {
+			case NEWEST:
+				return MazeType.GROWINGTREE_NEWEST;
+			case RANDOM:
+				return MazeType.GROWINGTREE_RANDOM;
+			case OLDEST:
+				return MazeType.GROWINGTREE_OLDEST;
+			default:
+				return MazeType.GROWINGTREE_MIXED;
+		}
+	}
+
+	public CellSelection getCellSelection() {
+		return cellSelection;
+	}
+
+	@Override
+	protected void buildMaze() {
+
+		logger.log(Level.INFO,"Build maze using Growing Tree {}, seed {}", cellSelection,
+				maze.getSeed());
+		cells.clear();
+		int startCell = maze.getRandomStartingCell().getIndex();
+		grid.cellVisited(startCell);
+		cells.addNewest(startCell);
+		cellsVisited++;
+		int peakCells = 1;
+
+		while (!cells.isEmpty()) {
+			int position = selectPosition();
+			int cell = cells.get(position);
+			int unvisitedNeighborCount = maze.findNotVisitedNeighbors(cell, unvisitedNeighbors);
+			if (unvisitedNeighborCount == 0) {
+				cells.removeAt(position);
+			} else {
+				int nextCell = unvisitedNeighbors[unvisitedNeighborCount == 1 ? 0
+						: randomGenerator.nextInt(unvisitedNeighborCount)];
+				carvePassage(cell, nextCell);
+				grid.cellVisited(nextCell);
+				cells.addNewest(nextCell);
+				cellsVisited++;
+				peakCells = Math.max(peakCells, cells.size());
+			}
+		}
+
+		/* The deque is the backtrack stack of NEWEST and the frontier of the others */
+		if (cellSelection == CellSelection.NEWEST) {
+			peakBacktrackDepth = peakCells;
+		} else {
+			peakFrontierSize = peakCells;
+		}
+
+		if (logger.isDebugEnabled()) {
+			MazeWriter.debugMazeCellContents(maze);
+		}
+	}
+
+	/*
+	 * The position in the deque of the next cell to carve from
+	 */
+	private int selectPosition() {
+		int size = cells.size();
+		switch (cellSelection) {
+			case NEWEST:
+				return size - 1;
+			case OLDEST:
+				return 0;
+			case RANDOM:
+				return randomGenerator.nextInt(size);
+			default:
+				return randomGenerator.nextDouble() < newestWeight ? size - 1
+						: randomGenerator.nextInt(size);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package com.bobman159.mazes.generate;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.Maze.Direction;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.MazeWriter;
+
+/**
+ * A maze generator using the Hunt-and-Kill algorithm.
+ * Based on https://weblog.jamisbuck.org/2011/1/24/maze-generation-hunt-and-kill-algorithm
+ * <p>
+ * A random walk carves into unvisited neighbors until it reaches a cell
+ * with none (the kill phase), then the grid is scanned for an unvisited
+ * cell next to a visited one, a passage is carved between them and the
+ * walk starts again from there (the hunt phase).  There is no stack and
+ * no frontier, the only memory used besides the maze is a count of the
+ * unvisited cells in each row.
+ * <p>
+ * Each hunt starts at the hunt cursor instead of the first row.  The first
+ * walk starts from the first cell and every cell before the cursor is
+ * visited, so the first unvisited cell from the cursor always has a visited
+ * neighbor above or to it's left and the cursor only moves forward.  Rows
+ * with no unvisited cells are skipped without looking at their cells, the
+ * total work of all the hunts is at most one scan of the grid.
+ */
+public class MazeGeneratorHuntAndKill extends AbstractMazeGenerator {
+
+	private static final int NO_CELL = -1;
+
+	private int[] unvisitedNeighbors = new int[Direction.values().length];
+	private int[] visitedNeighbors = new int[Direction.values().length];
+	private Logger logger = LogManager.getLogger(MazeGeneratorHuntAndKill.class);
+
+	/* The number of unvisited cells in each row */
+	private int[] rowUnvisitedCells;
+	/* Every cell before the cursor is visited */
+	private int huntCursor;
+
+	public MazeGeneratorHuntAndKill(int rows, int columns) {
+		this(rows,columns,new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Generate a maze with the given number of rows and columns
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random number stream
+	 */
+	public MazeGeneratorHuntAndKill(int rows, int columns, long seed) {
+		this(new Maze(rows,columns,seed));
+	}
+
+	/**
+	 * Generate into an existing, empty maze
+	 * @param maze the maze to be generated
+	 */
+	public MazeGeneratorHuntAndKill(Maze maze) {
+		super(maze);
+	}
+
+	@Override
+	public MazeType getMazeType() {
+		return MazeType.HUNTANDKILL;
+	}
+
+	@Override
+	protected void buildMaze() {
+
+		logger.log(Level.INFO,"Build maze using Hunt and Kill, seed {}", maze.getSeed());
+		if (rowUnvisitedCells == null) {
+			rowUnvisitedCells = new int[maze.getRows()];
+		}
+		Arrays.fill(rowUnvisitedCells, maze.getColumns());
+		huntCursor = 0;
+
+		/* The walk starts where the first hunt would, the first cell */
+		int cell = 0;
+		visitCell(cell);
+		while (cell != NO_CELL) {
+			killWalk(cell);
+			cell = hunt();
+		}
+
+		if (logger.isDebugEnabled()) {
+			MazeWriter.debugMazeCellContents(maze);
+		}
+	}
+
+	/*
+	 * Walk from the cell, carving into a random unvisited neighbor, until
+	 * the walk reaches a cell with no unvisited neighbors
+	 */
+	private void killWalk(int cell) {
+
+		int unvisitedNeighborCount = maze.findNotVisitedNeighbors(cell, unvisitedNeighbors);
+		while (unvisitedNeighborCount > 0) {
+			int nextCell = unvisitedNeighbors[randomGenerator.nextInt(unvisitedNeighborCount)];
+			carvePassage(cell, nextCell);
+			visitCell(nextCell);
+			cell = nextCell;
+			unvisitedNeighborCount = maze.findNotVisitedNeighbors(cell, unvisitedNeighbors);
+		}
+	}
+
+	/*
+	 * Find the first unvisited cell from the hunt cursor and carve a passage
+	 * into it from a random visited neighbor.
+	 * @return the cell carved into, NO_CELL when every cell is visited
+	 */
+	private int hunt() {
+
+		int columns = maze.getColumns();
+		int cellCount = grid.getCellCount();
+		while (huntCursor < cellCount) {
+			int row = huntCursor / columns;
+			if (rowUnvisitedCells[row] == 0) {
+				cellsVisited++;
+				huntCursor = (row + 1) * columns;
+				continue;
+			}
+			cellsVisited++;
+			if (!grid.isCellVisited(huntCursor)) {
+				int cell = huntCursor;
+				int visitedNeighborCount = findVisitedNeighbors(cell);
+				carvePassage(visitedNeighbors[randomGenerator.nextInt(visitedNeighborCount)], cell);
+				visitCell(cell);
+				return cell;
+			}
+			huntCursor++;
+		}
+		return NO_CELL;
+	}
+
+	private void visitCell(int cell) {
+		grid.cellVisited(cell);
+		rowUnvisitedCells[grid.getCellRow(cell)]--;
+		cellsVisited++;
+	}
+
+	/*
+	 * The visited neighbors of a cell, in the same order as
+	 * Maze.findNotVisitedNeighbors
+	 */
+	private int findVisitedNeighbors(int cell) {
+
+		int visitedNeighborCount = 0;
+		visitedNeighborCount = addVisitedNeighbor(grid.getNeighborIndex(cell, Direction.UP), visitedNeighborCount);
+		visitedNeighborCount = addVisitedNeighbor(grid.getNeighborIndex(cell, Direction.DOWN), visitedNeighborCount);
+		visitedNeighborCount = addVisitedNeighbor(grid.getNeighborIndex(cell, Direction.RIGHT), visitedNeighborCount);
+		visitedNeighborCount = addVisitedNeighbor(grid.getNeighborIndex(cell, Direction.LEFT), visitedNeighborCount);
+		return visitedNeighborCount;
+	}
+
+	private int addVisitedNeighbor(int neighborCell, int visitedNeighborCount) {
+		if (neighborCell >= 0 && grid.isCellVisited(neighborCell)) {
+			visitedNeighbors[visitedNeighborCount++] = neighborCell;
+		}
+		return visitedNeighborCount;
+	}
+}
@@ -0,0 +1,195 @@
+package com.bobman159.mazes.generate;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.MazeWriter;
+
+/**
+ * A maze generator using randomized Kruskal's Algorithm.
+ * Based on https://weblog.jamisbuck.org/2011/1/3/maze-generation-kruskal-s-algorithm
+ * <p>
+ * Every wall between two neighboring cells is an edge, the edges are
+ * shuffled and a passage is carved through each edge joining two cells
+ * that are not yet connected.  The edges are ints in a single array,
+ * shuffled in place, and the sets of connected cells are a disjoint set
+ * forest in an int array with one entry per cell, using union by rank and
+ * path halving.  The memory used is one
+ * int per cell plus one int per edge (about two per cell), there are no
+ * objects per cell or per edge.
+ */
+public class MazeGeneratorKruskalsAlgorithm extends AbstractMazeGenerator {
+
+	/* Edge e is the wall right of cell e / 2 when e is even and the wall
+	 * below it when e is odd, so the edges must fit in an int */
+	private static final int MAXIMUM_CELLS = Integer.MAX_VALUE / 2;
+	/* About the number of edges in each bucket of the shuffle, 256KB */
+	private static final int BUCKET_EDGES = 1 << 16;
+	private static final int MAXIMUM_BUCKETS = 1024;
+
+	private Logger logger = LogManager.getLogger(MazeGeneratorKruskalsAlgorithm.class);
+
+	/* The parent of each cell in the disjoint set forest, a root holds
+	 * -1 - rank of it's set instead */
+	private int[] cellSets;
+	/* Kept to be shuffled again when the maze is recreated */
+	private int[] edges;
+
+	public MazeGeneratorKruskalsAlgorithm(int rows, int columns) {
+		this(rows,columns,new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Generate a maze with the given number of rows and columns
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random number stream
+	 */
+	public MazeGeneratorKruskalsAlgorithm(int rows, int columns, long seed) {
+		this(new Maze(rows,columns,seed));
+	}
+
+	/**
+	 * Generate into an existing, empty maze
+	 * @param maze the maze to be generated
+	 */
+	public MazeGeneratorKruskalsAlgorithm(Maze maze) {
+		super(maze);
+		if (grid.getCellCount() > MAXIMUM_CELLS) {
+			throw new IllegalArgumentException("Kruskal's algorithm supports at most "
+					+ MAXIMUM_CELLS + " cells");
+		}
+	}
+
+	@Override
+	public MazeType getMazeType() {
+		return MazeType.KRUSKALS;
+	}
+
+	@Override
+	protected void buildMaze() {
+
+		logger.log(Level.INFO,"Build maze using Kruskals Algorithm, seed {}", maze.getSeed());
+
+		shuffleEdges();
+		int columns = maze.getColumns();
+		int passagesNeeded = grid.getCellCount() - 1;
+		if (cellSets == null) {
+			cellSets = new int[grid.getCellCount()];
+		}
+		Arrays.fill(cellSets, -1);
+
+		/* The maze is complete once every cell is in one set */
+		for (int edgeIndex = 0; edgeIndex < edges.length && passagesCarved < passagesNeeded; edgeIndex++) {
+			int edge = edges[edgeIndex];
+			int cell = edge >>> 1;
+			int neighborCell = (edge & 1) == 0 ? cell + 1 : cell + columns;
+			cellsVisited += 2;
+			int cellSet = findSet(cell);
+			int neighborSet = findSet(neighborCell);
+			if (cellSet != neighborSet) {
+				joinSets(cellSet, neighborSet);
+				carvePassage(cell, neighborCell);
+			}
+		}
+		grid.allCellsVisited();
+
+		if (logger.isDebugEnabled()) {
+			MazeWriter.debugMazeCellContents(maze);
+		}
+	}
+
+	/*
+	 * Put the edges in a random order.  Shuffling the whole array moves
+	 * every edge to a random place in a large array, so the edges are
+	 * shuffled in two steps that both stay in the cache (the Rao-Sandelius
+	 * shuffle).  Each edge is written to a random bucket, the buckets are
+	 * small enough to fit in the cache and each one is then shuffled on
+	 * it's own.  The bucket of each edge is drawn twice from the same
+	 * seed, once to count the size of each bucket and once to place the
+	 * edges.
+	 */
+	private void shuffleEdges() {
+
+		int rows = maze.getRows();
+		int columns = maze.getColumns();
+		if (edges == null) {
+			edges = new int[rows * (columns - 1) + (rows - 1) * columns];
+		}
+		int buckets = Math.max(1, Math.min(MAXIMUM_BUCKETS,
+				Integer.highestOneBit(edges.length / BUCKET_EDGES)));
+
+		long bucketSeed = randomGenerator.nextLong();
+		int[] bucketStarts = new int[buckets + 1];
+		SplittableRandom bucketRandom = new SplittableRandom(bucketSeed);
+		for (int edge = 0; edge < edges.length; edge++) {
+			bucketStarts[bucketRandom.nextInt(buckets) + 1]++;
+		}
+		for (int bucket = 0; bucket < buckets; bucket++) {
+			bucketStarts[bucket + 1] += bucketStarts[bucket];
+		}
+
+		int[] bucketEnds = Arrays.copyOf(bucketStarts, buckets);
+		bucketRandom = new SplittableRandom(bucketSeed);
+		for (int rowIndex = 0; rowIndex < rows; rowIndex++) {
+			int cellIndex = rowIndex * columns;
+			for (int columnIndex = 0; columnIndex < columns; columnIndex++, cellIndex++) {
+				if (columnIndex < columns - 1) {
+					edges[bucketEnds[bucketRandom.nextInt(buckets)]++] = cellIndex << 1;
+				}
+				if (rowIndex < rows - 1) {
+					edges[bucketEnds[bucketRandom.nextInt(buckets)]++] = cellIndex << 1 | 1;
+				}
+			}
+		}
+
+		for (int bucket = 0; bucket < buckets; bucket++) {
+			int bucketStart = bucketStarts[bucket];
+			for (int edge = bucketStarts[bucket + 1] - 1; edge > bucketStart; edge--) {
+				int swap = bucketStart + randomGenerator.nextInt(edge - bucketStart + 1);
+				int swapEdge = edges[edge];
+				edges[edge] = edges[swap];
+				edges[swap] = swapEdge;
+			}
+		}
+	}
+
+	/*
+	 * Find the root of a cell's set, halving the path to the root on the way
+	 */
+	private int findSet(int cell) {
+		int parent;
+		while ((parent = cellSets[cell]) >= 0) {
+			int grandParent = cellSets[parent];
+			if (grandParent < 0) {
+				return parent;
+			}
+			cellSets[cell] = grandParent;
+			cell = grandParent;
+		}
+		return cell;
+	}
+
+	/*
+	 * Join two sets by rank, the root of the set with the lower rank points
+	 * to the other root
+	 */
+	private void joinSets(int rootSet, int otherRootSet) {
+		int rank = -1 - cellSets[rootSet];
+		int otherRank = -1 - cellSets[otherRootSet];
+		if (rank < otherRank) {
+			cellSets[rootSet] = otherRootSet;
+		} else {
+			cellSets[otherRootSet] = rootSet;
+			if (rank == otherRank) {
+				cellSets[rootSet]--;
+			}
+		}
+	}
+}
@@ -0,0 +1,314 @@
+package com.bobman159.mazes.generate;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.IMazeGrid;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.monitor.GenerationStats;
+
+/**
+ * Generates a large maze in parallel by splitting it into square tiles.
+ * <p>
+ * Each tile is generated on a <code>ForkJoinPool</code> as an independent
+ * perfect maze using any of the other maze types, and it's passages are
+ * copied into the large maze.  The tiles are then joined by a random
+ * spanning tree over the tiles, for every pair of neighboring tiles in the
+ * tree exactly one passage is opened through the seam between them.  The
+ * result is a single perfect maze.
+ * <p>
+ * The tile seeds and seam passages are drawn from the maze's random number
+ * stream before and after the parallel part, so the same seed gives the
+ * same maze for any parallelism.
+ */
+public class MazeGeneratorParallelTiles extends AbstractMazeGenerator {
+
+	/**
+	 * The tile size used when none is given
+	 */
+	public static final int DEFAULT_TILE_SIZE = 256;
+
+	private static final int MINIMUM_TILE_SIZE = 2;
+
+	private MazeType tileMazeType;
+	private int tileSize;
+	private int parallelism;
+	private Logger logger = LogManager.getLogger(MazeGeneratorParallelTiles.class);
+
+	/* The first row of each tile row and the first column of each tile
+	 * column, with an extra entry holding the number of rows/columns.
+	 */
+	private int[] tileRowStarts;
+	private int[] tileColumnStarts;
+	private long[] tileSeeds;
+	/* The statistics of the tiles, added to the statistics of the maze */
+	private LongAdder tilePassagesCarved;
+	private LongAdder tileCellsVisited;
+	private LongAdder tileBytesAllocated;
+	private AtomicInteger tilePeakFrontierSize;
+	private AtomicInteger tilePeakBacktrackDepth;
+	private Thread buildThread;
+
+	/**
+	 * Generate a maze with the given number of rows and columns in parallel
+	 * @param tileMazeType the type of maze generated for each tile
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random number stream
+	 * @param tileSize the number of rows and columns in a tile, the last tile
+	 * in each row and column also takes any remaining rows or columns
+	 * @param parallelism the number of threads generating tiles
+	 */
+	public MazeGeneratorParallelTiles(MazeType tileMazeType, int rows, int columns, long seed,
+			int tileSize, int parallelism) {
+		this(tileMazeType,new Maze(rows,columns,seed),tileSize,parallelism);
+	}
+	
+	/**
+	 * Generate into an existing, empty maze in parallel.  Only the tile being
+	 * generated by each thread is kept on the heap, so a maze stored in a
+	 * <code>MappedMazeGrid</code> can be larger than the heap.
+	 * @param tileMazeType the type of maze generated for each tile
+	 * @param maze the maze to be generated
+	 * @param tileSize the number of rows and columns in a tile, the last tile
+	 * in each row and column also takes any remaining rows or columns
+	 * @param parallelism the number of threads generating tiles
+	 */
+	public MazeGeneratorParallelTiles(MazeType tileMazeType, Maze maze, int tileSize, 
+			int parallelism) {
+		super(maze);
+		if (tileSize < MINIMUM_TILE_SIZE) {
+			throw new IllegalArgumentException("tileSize must be at least " + MINIMUM_TILE_SIZE);
+		}
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("parallelism must be greater than 0");
+		}
+		this.tileMazeType = tileMazeType;
+		this.tileSize = tileSize;
+		this.parallelism = parallelism;
+		tileRowStarts = createTileStarts(maze.getRows());
+		tileColumnStarts = createTileStarts(maze.getColumns());
+	}
+
+	/**
+	 * @return the type of maze generated for each tile
+	 */
+	@Override
+	public MazeType getMazeType() {
+		return tileMazeType;
+	}
+
+	@Override
+	protected void buildMaze() {
+
+		int tileCount = getTileRows() * getTileColumns();
+		logger.log(Level.INFO,"Build maze using {} {} tiles of {} on {} threads, seed {}",
+				tileCount, tileMazeType, tileSize, parallelism, maze.getSeed());
+
+		tileSeeds = new long[tileCount];
+		for (int tile = 0; tile < tileCount; tile++) {
+			tileSeeds[tile] = randomGenerator.nextLong();
+		}
+
+		tilePassagesCarved = new LongAdder();
+		tileCellsVisited = new LongAdder();
+		tileBytesAllocated = new LongAdder();
+		tilePeakFrontierSize = new AtomicInteger();
+		tilePeakBacktrackDepth = new AtomicInteger();
+		buildThread = Thread.currentThread();
+		ForkJoinPool tilePool = new ForkJoinPool(parallelism);
+		try {
+			tilePool.invoke(new GenerateTilesTask(0,tileCount));
+		} finally {
+			tilePool.shutdown();
+		}
+		passagesCarved += tilePassagesCarved.sum();
+		cellsVisited += tileCellsVisited.sum();
+		otherThreadsBytesAllocated += tileBytesAllocated.sum();
+		peakFrontierSize = tilePeakFrontierSize.get();
+		peakBacktrackDepth = tilePeakBacktrackDepth.get();
+
+		openSeamPassages();
+	}
+
+	public int getTileRows() {
+		return tileRowStarts.length - 1;
+	}
+
+	public int getTileColumns() {
+		return tileColumnStarts.length - 1;
+	}
+
+	private int[] createTileStarts(int cells) {
+
+		int tiles = Math.max(1, cells / tileSize);
+		int[] tileStarts = new int[tiles + 1];
+		for (int tile = 0; tile < tiles; tile++) {
+			tileStarts[tile] = tile * tileSize;
+		}
+		tileStarts[tiles] = cells;
+		return tileStarts;
+	}
+
+	/*
+	 * Generate one tile and copy it's passages into the maze.  Tiles share
+	 * grid words at their edges so the passages are copied atomically.
+	 */
+	private void generateTile(int tile) {
+
+		int tileRow = tile / getTileColumns();
+		int tileColumn = tile % getTileColumns();
+		int firstRow = tileRowStarts[tileRow];
+		int firstColumn = tileColumnStarts[tileColumn];
+		int rows = tileRowStarts[tileRow + 1] - firstRow;
+		int columns = tileColumnStarts[tileColumn + 1] - firstColumn;
+
+		IMazeGenerator tileGenerator = MazeFactory.createMazeGenerator(tileMazeType,
+				rows, columns, tileSeeds[tile]);
+		/* The tiles are part of the parallel maze, not mazes of their own */
+		tileGenerator.setMetricsRecorded(false);
+		tileGenerator.createMaze();
+		IMazeGrid tileGrid = tileGenerator.getMaze().getGrid();
+		addTileStats(tileGenerator.getGenerationStats());
+
+		int tileCell = 0;
+		int passages = 0;
+		for (int row = 0; row < rows; row++) {
+			int cellIndex = grid.getCellIndex(firstRow + row, firstColumn);
+			for (int column = 0; column < columns; column++, tileCell++, cellIndex++) {
+				/* The outer walls of the tile (and it's entrance and exit)
+				 * are left closed, the seams are opened later.
+				 */
+				if (column < columns - 1 && !tileGrid.hasRightWall(tileCell)) {
+					grid.atomicClearRightWall(cellIndex);
+					passages++;
+				}
+				if (row < rows - 1 && !tileGrid.hasBottomWall(tileCell)) {
+					grid.atomicClearBottomWall(cellIndex);
+					passages++;
+				}
+				grid.atomicCellVisited(cellIndex);
+			}
+		}
+		tilePassagesCarved.add(passages);
+	}
+
+	private void addTileStats(GenerationStats tileStats) {
+		tileCellsVisited.add(tileStats.getCellsVisited());
+		tilePeakFrontierSize.accumulateAndGet(tileStats.getPeakFrontierSize(), Math::max);
+		tilePeakBacktrackDepth.accumulateAndGet(tileStats.getPeakBacktrackDepth(), Math::max);
+		/* Allocations on the thread building the maze are measured by it */
+		if (Thread.currentThread() != buildThread && tileStats.getBytesAllocated() > 0) {
+			tileBytesAllocated.add(tileStats.getBytesAllocated());
+		}
+	}
+
+	/*
+	 * Join the tiles with a random spanning tree (randomized Kruskal over the
+	 * seams between tiles) and open one random passage through each seam in
+	 * the tree.
+	 */
+	private void openSeamPassages() {
+
+		int tileColumns = getTileColumns();
+		int tileCount = getTileRows() * tileColumns;
+
+		/* Seam 2 * tile is the seam to the right of a tile, 2 * tile + 1 the
+		 * seam below it.
+		 */
+		int[] seams = new int[tileCount * 2];
+		int seamCount = 0;
+		for (int tile = 0; tile < tileCount; tile++) {
+			if (tile % tileColumns < tileColumns - 1) {
+				seams[seamCount++] = tile * 2;
+			}
+			if (tile + tileColumns < tileCount) {
+				seams[seamCount++] = tile * 2 + 1;
+			}
+		}
+		for (int seam = seamCount - 1; seam > 0; seam--) {
+			int swap = randomGenerator.nextInt(seam + 1);
+			int swapSeam = seams[seam];
+			seams[seam] = seams[swap];
+			seams[swap] = swapSeam;
+		}
+
+		int[] tileSets = new int[tileCount];
+		for (int tile = 0; tile < tileCount; tile++) {
+			tileSets[tile] = tile;
+		}
+		for (int seam = 0; seam < seamCount; seam++) {
+			int tile = seams[seam] / 2;
+			boolean belowSeam = (seams[seam] & 1) == 1;
+			int neighborTile = belowSeam ? tile + tileColumns : tile + 1;
+			int tileSet = findTileSet(tileSets, tile);
+			int neighborSet = findTileSet(tileSets, neighborTile);
+			if (tileSet != neighborSet) {
+				tileSets[neighborSet] = tileSet;
+				openSeamPassage(tile, belowSeam);
+			}
+		}
+	}
+
+	private void openSeamPassage(int tile, boolean belowSeam) {
+
+		int tileRow = tile / getTileColumns();
+		int tileColumn = tile % getTileColumns();
+		if (belowSeam) {
+			int row = tileRowStarts[tileRow + 1] - 1;
+			int column = tileColumnStarts[tileColumn] + randomGenerator.nextInt(
+					tileColumnStarts[tileColumn + 1] - tileColumnStarts[tileColumn]);
+			grid.clearBottomWall(grid.getCellIndex(row, column));
+		} else {
+			int row = tileRowStarts[tileRow] + randomGenerator.nextInt(
+					tileRowStarts[tileRow + 1] - tileRowStarts[tileRow]);
+			int column = tileColumnStarts[tileColumn + 1] - 1;
+			grid.clearRightWall(grid.getCellIndex(row, column));
+		}
+		passagesCarved++;
+	}
+
+	private static int findTileSet(int[] tileSets, int tile) {
+		while (tileSets[tile] != tile) {
+			tileSets[tile] = tileSets[tileSets[tile]];
+			tile = tileSets[tile];
+		}
+		return tile;
+	}
+
+	/*
+	 * Generates a range of tiles, splitting the range in half until it is a
+	 * single tile.
+	 */
+	private class GenerateTilesTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int firstTile;
+		private final int endTile;
+
+		GenerateTilesTask(int firstTile, int endTile) {
+			this.firstTile = firstTile;
+			this.endTile = endTile;
+		}
+
+		@Override
+		protected void compute() {
+			if (endTile - firstTile == 1) {
+				generateTile(firstTile);
+			} else {
+				int middleTile = (firstTile + endTile) >>> 1;
+				invokeAll(new GenerateTilesTask(firstTile,middleTile),
+						  new GenerateTilesTask(middleTile,endTile));
+			}
+		}
+	}
+}
@@ -1,16 +1,13 @@
 package com.bobman159.mazes.generate;
 
-import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.bobman159.mazes.IMazeGenerator;
 import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory.MazeType;
 import com.bobman159.mazes.Maze.Direction;
 import com.bobman159.mazes.MazeCell;
 import com.bobman159.mazes.MazeWriter;
@@ -21,34 +18,45 @@ import com.bobman159.mazes.MazeWriter;
  * 
  *
  */
-public class MazeGeneratorPrimsAlgorithim implements IMazeGenerator {
+public class MazeGeneratorPrimsAlgorithim extends AbstractMazeGenerator {
 
-	private Maze maze;
-	private List<MazeCell> frontierCellsList;
-	private Random randomGenerator;
+	private FrontierCellSet frontierCells;
+	private int[] unvisitedNeighbors = new int[Direction.values().length];
+	private int[] visitedNeighbors = new int[Direction.values().length];
 	private Logger logger = LogManager.getLogger(MazeGeneratorPrimsAlgorithim.class);
 	
 	public MazeGeneratorPrimsAlgorithim(int rows, int columns) {
-		maze = new Maze(rows,columns);
-		frontierCellsList = new ArrayList<>();
-		randomGenerator = new Random();
+		this(rows,columns,new SplittableRandom().nextLong());
 	}
 	
-	@Override
-	public void createMaze() {
-		buildMaze();
-		maze.setStartEndTopAndBottom();	
+	/**
+	 * Generate a maze with the given number of rows and columns
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random number stream
+	 */
+	public MazeGeneratorPrimsAlgorithim(int rows, int columns, long seed) {
+		this(new Maze(rows,columns,seed));
 	}
-
+	
+	/**
+	 * Generate into an existing, empty maze
+	 * @param maze the maze to be generated
+	 */
+	public MazeGeneratorPrimsAlgorithim(Maze maze) {
+		super(maze);
+		frontierCells = new FrontierCellSet(grid.getCellCount());
+	}
+	
 	@Override
-	public void writeMaze(PrintStream outputStream) {
-		MazeWriter mazeOut = new MazeWriter(outputStream,maze);
-		mazeOut.writeMaze();
+	public MazeType getMazeType() {
+		return MazeType.PRIMS;
 	}
 	
-	private void buildMaze() {
+	@Override
+	protected void buildMaze() {
 
-		logger.log(Level.INFO,"Build maze using Prims Algorithim");
+		logger.log(Level.INFO,"Build maze using Prims Algorithim, seed {}", maze.getSeed());
 		
 		/* Choose a point at random and add it to the maze */
 		MazeCell startCell = maze.getRandomStartingCell();
@@ -56,18 +64,20 @@ public class MazeGeneratorPrimsAlgorithim implements IMazeGenerator {
 			logger.log(Level.DEBUG, "Starting Cell: {}", startCell.cellPositionAsString());
 		}
 		
+		frontierCells.clear();
 		if (startCell != null) {
 			startCell.cellVisited();
-			frontierCellsList.add(startCell);
+			frontierCells.add(startCell.getIndex());
 		}
 		
-		while (!frontierCellsList.isEmpty()) {
+		while (!frontierCells.isEmpty()) {
 			
-			int frontierCellIndex = randomGenerator.nextInt(frontierCellsList.size());
-			MazeCell frontierCell = frontierCellsList.get(frontierCellIndex);
+			int frontierCellPosition = randomGenerator.nextInt(frontierCells.size());
+			int frontierCell = frontierCells.get(frontierCellPosition);
+			cellsVisited++;
 			
 			if (logger.isDebugEnabled()) {
-				logger.log(Level.DEBUG, "frontierCell: {}",frontierCell.cellPositionAsString());
+				logger.log(Level.DEBUG, "frontierCell: {}",cellPositionAsString(frontierCell));
 			}
 			
 			/* Build a list of frontier cells
@@ -75,15 +85,15 @@ public class MazeGeneratorPrimsAlgorithim implements IMazeGenerator {
 			 * 		  	yet in the maze, but are adjacent to a cell that is in the 
 			 * 			maze, the frontier. 
 			 */
-			 List<MazeCell> unvisitedNeighbors = maze.findNotVisitedNeighbors(frontierCell);
+			 int unvisitedNeighborCount = maze.findNotVisitedNeighbors(frontierCell, unvisitedNeighbors);
 			 
 			 /* Add the Unvisited neighbors to the list of frontier cells */
-			 addUnvisitedNeighborsToFrontierCellsList(unvisitedNeighbors);
+			 addUnvisitedNeighborsToFrontierCells(unvisitedNeighborCount);
 			 if (logger.isDebugEnabled()) {
-				 debugArrayCells("unVisitedNeighbors",unvisitedNeighbors);
-				 debugArrayCells("frontierCellsList",frontierCellsList);
+				 debugArrayCells("unVisitedNeighbors",unvisitedNeighbors,unvisitedNeighborCount);
+				 debugFrontierCells();
 				 logger.log(Level.DEBUG,"find visited neighbors for frontierCell: {}", 
-						 frontierCell.cellPositionAsString());
+						 cellPositionAsString(frontierCell));
 			 }
 			 
 			 /* Then we choose a random in neighbor of that frontier cell:
@@ -94,15 +104,18 @@ public class MazeGeneratorPrimsAlgorithim implements IMazeGenerator {
 			 /*
 			  * And finally, we mark the frontier cell as being in the maze 
 			  */
-			 frontierCell.cellVisited();
-			 debugArrayCells("frontierCellsList: ", frontierCellsList);
+			 grid.cellVisited(frontierCell);
 
 			 if (logger.isDebugEnabled()) {
-				logger.log(Level.DEBUG, "frontierCellsList remove cell: {}",frontierCell.cellPositionAsString());
+				debugFrontierCells();
+				logger.log(Level.DEBUG, "frontierCells remove cell: {}",cellPositionAsString(frontierCell));
 			 }
-			 frontierCellsList.remove(frontierCell);
+			 /* Only neighbors were appended since the frontier cell was picked
+			  * so it is still at the same position. 
+			  */
+			 frontierCells.removeAt(frontierCellPosition);
 			 if (logger.isDebugEnabled()) { 
-				 logger.log(Level.DEBUG, "frontierCellsList size after remove: {}",frontierCellsList.size());		 
+				 logger.log(Level.DEBUG, "frontierCells size after remove: {}",frontierCells.size());		 
 			 }
 		}	
 		
@@ -111,107 +124,104 @@ public class MazeGeneratorPrimsAlgorithim implements IMazeGenerator {
 		}
 	}
 
-	private void carvePathBetweenNeighborAndFrontierCells(MazeCell frontierCell) {
+	private void carvePathBetweenNeighborAndFrontierCells(int frontierCell) {
 		 
-		List<MazeCell> visitedNeighbors = findVisitedNeighbors(frontierCell);
-		 if (!visitedNeighbors.isEmpty()) {
+		int visitedNeighborCount = findVisitedNeighbors(frontierCell);
+		 if (visitedNeighborCount > 0) {
 			 if (logger.isDebugEnabled()) {
-				 debugArrayCells("visitedNeighbors: ", visitedNeighbors);
+				 debugArrayCells("visitedNeighbors: ", visitedNeighbors, visitedNeighborCount);
 			 }
-			 int randomCellIndex = randomGenerator.nextInt(visitedNeighbors.size());
-			 MazeCell neighborCell = visitedNeighbors.get(randomCellIndex);
-			 neighborCell.cellVisited();
-			 frontierCell.carvePassage(neighborCell);				 
+			 int randomCellIndex = randomGenerator.nextInt(visitedNeighborCount);
+			 carvePassage(frontierCell, visitedNeighbors[randomCellIndex]);				 
 		 }
 		
 	}
 
-	private void addUnvisitedNeighborsToFrontierCellsList(List<MazeCell> unvisitedNeighbors) {
+	private void addUnvisitedNeighborsToFrontierCells(int unvisitedNeighborCount) {
 
-		 for (MazeCell unVisitedNeighborCell: unvisitedNeighbors) {
-			 if (isOkToAddAsUnvisitedNeighbor(unVisitedNeighborCell)) {
-				 frontierCellsList.add(unVisitedNeighborCell);
-			 }
+		 for (int neighbor = 0; neighbor < unvisitedNeighborCount; neighbor++) {
+			 frontierCells.add(unvisitedNeighbors[neighbor]);
+		 }
+		 peakFrontierSize = Math.max(peakFrontierSize, frontierCells.size());
+		 if (logger.isDebugEnabled()) {
+			 logger.log(Level.DEBUG, "frontierCells.size: {}",frontierCells.size());
 		 }
-		 logger.log(Level.DEBUG, "frontierCellsList.size: {}",frontierCellsList.size());
 		
 	}
 
 	/*
-	 * Print the frontierCellsList.  The method is only called when log level is
+	 * Print a buffer of cells.  The method is only called when log level is
 	 * DEBUG
 	 */
-	private void debugArrayCells(String arrayName, List<MazeCell> arrayList) {
-		logger.log(Level.DEBUG, "{}.size: {}",  arrayName, arrayList.size());
-		for (MazeCell currentCell : arrayList) {
-			if (logger.isDebugEnabled()) {
-				logger.log(Level.DEBUG, "{} [{}] {}",arrayName, 
-					arrayList.indexOf(currentCell),currentCell.cellDebugToString());
-			}
+	private void debugArrayCells(String arrayName, int[] cells, int cellCount) {
+		logger.log(Level.DEBUG, "{}.size: {}",  arrayName, cellCount);
+		for (int position = 0; position < cellCount; position++) {
+			logger.log(Level.DEBUG, "{} [{}] {}",arrayName, position,
+					maze.getMazeCell(grid.getCellRow(cells[position]),
+							grid.getCellColumn(cells[position])).cellDebugToString());
 		}	
 	}
 
+	/*
+	 * Print the frontierCells.  The method is only called when log level is
+	 * DEBUG
+	 */
+	private void debugFrontierCells() {
+		logger.log(Level.DEBUG, "frontierCells.size: {}", frontierCells.size());
+		for (int position = 0; position < frontierCells.size(); position++) {
+			logger.log(Level.DEBUG, "frontierCells [{}] {}", position,
+					cellPositionAsString(frontierCells.get(position)));
+		}
+	}
 
+	private String cellPositionAsString(int cellIndex) {
+		return grid.getCellRow(cellIndex) + ":" + grid.getCellColumn(cellIndex);
+	}
 	
 	/*
-	 * Build a list of visited neighbors for a given frontier cell in the maze.
+	 * Find the visited neighbors for a given frontier cell in the maze.
+	 * The neighbor indexes are stored in visitedNeighbors.
 	 * 
 	 * NOTE: This method is currently in the generation class since it's currently
 	 * only used by the prims algorithim logic.  If it's needed by other generators
-	 * it could be moved to the MazeCell class.
+	 * it could be moved to the Maze class.
 	 */
-	private  List<MazeCell> findVisitedNeighbors(MazeCell frontierCell) {
+	private int findVisitedNeighbors(int frontierCell) {
 		
-		List<MazeCell> visitedNeighbors = new ArrayList<>();
+		int visitedNeighborCount = 0;
 		
-		MazeCell upCell = maze.getMazeCell(frontierCell, Direction.UP);
+		int upCell = grid.getNeighborIndex(frontierCell, Direction.UP);
 		if (isOkToAddAsVisitedNeighbor(upCell)) {
-			visitedNeighbors.add(upCell);
+			visitedNeighbors[visitedNeighborCount++] = upCell;
 		}
 		
-		MazeCell rightCell = maze.getMazeCell(frontierCell, Direction.RIGHT);
+		int rightCell = grid.getNeighborIndex(frontierCell, Direction.RIGHT);
 		if (isOkToAddAsVisitedNeighbor(rightCell)) {
-			visitedNeighbors.add(rightCell);
+			visitedNeighbors[visitedNeighborCount++] = rightCell;
 		}
 		
-		MazeCell downCell = maze.getMazeCell(frontierCell, Direction.DOWN);
+		int downCell = grid.getNeighborIndex(frontierCell, Direction.DOWN);
 		if (isOkToAddAsVisitedNeighbor(downCell)) {
-			visitedNeighbors.add(downCell);
+			visitedNeighbors[visitedNeighborCount++] = downCell;
 		}
 		
-		MazeCell leftCell = maze.getMazeCell(frontierCell, Direction.LEFT);
+		int leftCell = grid.getNeighborIndex(frontierCell, Direction.LEFT);
 		if (isOkToAddAsVisitedNeighbor(leftCell)) {
-			visitedNeighbors.add(leftCell);
+			visitedNeighbors[visitedNeighborCount++] = leftCell;
 		}
 		
-		return visitedNeighbors;
-	}
-	
-	/*
-	 * IF cell is in maze boundaries (not equal null) AND
-	 *    cell has NOT been visited AND
-	 *    cell is NOT already in frontier cells list 
-	 *    THEN cell is ok to add as neighbor cell
-	 */
-	private boolean isOkToAddAsUnvisitedNeighbor(MazeCell cell) {
-	
-		boolean isUnvisitedNeighborCell = false;
-		if (cell != null && !cell.hasCellBeenVisited() &&
-			!(frontierCellsList.contains(cell))) {
-				isUnvisitedNeighborCell = true;
-		}
-		return isUnvisitedNeighborCell;
+		return visitedNeighborCount;
 	}
 	
 	/*
-	 * IF cell is in maze boundaries (not equal null) AND
+	 * IF cell is in maze boundaries (not equal -1) AND
 	 *    cell HAS been visited 
 	 *    THEN cell is ok to as visited neighbor cell
 	 */
-	private boolean isOkToAddAsVisitedNeighbor(MazeCell cell) {
+	private boolean isOkToAddAsVisitedNeighbor(int cellIndex) {
 	
 		boolean isVisitedNeighborCell = false;
-		if (cell != null && cell.hasCellBeenVisited()) {
+		if (cellIndex >= 0 && grid.isCellVisited(cellIndex)) {
 				isVisitedNeighborCell = true;
 		}
 		return isVisitedNeighborCell;
@@ -1,15 +1,14 @@
 package com.bobman159.mazes.generate;
 
-import java.io.PrintStream;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.SplittableRandom;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.bobman159.mazes.IMazeGenerator;
 import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory.MazeType;
 import com.bobman159.mazes.Maze.Direction;
 import com.bobman159.mazes.MazeCell;
 import com.bobman159.mazes.MazeWriter;
@@ -18,12 +17,29 @@ import com.bobman159.mazes.MazeWriter;
  * An implementation of a RecursiveBacktracker algorithm to generate mazes.
  * Uses https://weblog.jamisbuck.org/2010/12/27/maze-generation-recursive-backtracking
  * as a reference.
+ * <p>
+ * The passages are carved using an explicit stack of cells instead of 
+ * recursion so very large mazes do not overflow the thread stack.  For the
+ * same seed cells are visited in the same order as the recursive algorithm,
+ * when a cell is first visited one of the 24 orders of the four directions is
+ * picked at random and the cell's neighbors are tried in that order.
  *
  */
-public class MazeGeneratorRecursiveBacktracker implements IMazeGenerator {
+public class MazeGeneratorRecursiveBacktracker extends AbstractMazeGenerator {
+
+	private static final int INITIAL_STACK_CAPACITY = 1024;
+	private static final int DIRECTIONS_TRIED = 4;
+	private static final Direction[][] DIRECTION_PERMUTATIONS = createDirectionPermutations();
 
-	private Maze maze;
 	private Logger logger = LogManager.getLogger(MazeGeneratorRecursiveBacktracker.class);
+	
+	/* The backtrack stack, for each cell on the stack the state holds the
+	 * direction permutation (upper bits) and the next direction to try 
+	 * (lower 3 bits).
+	 */
+	private int[] stackCells;
+	private byte[] stackStates;
+	private int stackDepth;
 
 	/**
 	 * Generate a maze with the given number of rows and columns
@@ -31,24 +47,38 @@ public class MazeGeneratorRecursiveBacktracker implements IMazeGenerator {
 	 * @param columns number of columns in the maze
 	 */
 	public MazeGeneratorRecursiveBacktracker(int rows,int columns) {
-		maze = new Maze(rows,columns);
+		this(rows,columns,new SplittableRandom().nextLong());
 	}
 	
-	@Override
-	public void createMaze() {
-		buildMaze();
-		maze.setStartEndTopAndBottom();	
+	/**
+	 * Generate a maze with the given number of rows and columns
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random number stream
+	 */
+	public MazeGeneratorRecursiveBacktracker(int rows,int columns,long seed) {
+		this(new Maze(rows,columns,seed));
 	}
-
+	
+	/**
+	 * Generate into an existing, empty maze
+	 * @param maze the maze to be generated
+	 */
+	public MazeGeneratorRecursiveBacktracker(Maze maze) {
+		super(maze);
+		stackCells = new int[INITIAL_STACK_CAPACITY];
+		stackStates = new byte[INITIAL_STACK_CAPACITY];
+	}
+	
 	@Override
-	public void writeMaze(PrintStream outputStream) {
-		MazeWriter mazeWriter = new MazeWriter(outputStream,maze);
-		mazeWriter.writeMaze();
-
+	public MazeType getMazeType() {
+		return MazeType.RECURSIVEBACKTRACKER;
 	}
 	
-	private void buildMaze() {
-		logger.log(Level.INFO,"Create a maze using the RecursiveBacktracker algorithm");
+	@Override
+	protected void buildMaze() {
+		logger.log(Level.INFO,"Create a maze using the RecursiveBacktracker algorithm, seed {}",
+				maze.getSeed());
 		
 		/*
 		 *	1 	Choose a starting point in the field.
@@ -56,11 +86,10 @@ public class MazeGeneratorRecursiveBacktracker implements IMazeGenerator {
 		
 		MazeCell startCell = maze.getRandomStartingCell();
 		if (startCell != null) {
-			startCell.cellVisited();
 			if (logger.isDebugEnabled()) {
 				logger.log(Level.DEBUG, "Starting Cell: {}", startCell.cellPositionAsString());
 			}
-			carvePassages(startCell);
+			carvePassages(startCell.getIndex());
 		}
 
 		if (logger.isDebugEnabled()) {
@@ -68,36 +97,88 @@ public class MazeGeneratorRecursiveBacktracker implements IMazeGenerator {
 		}
 	}
 		
-	private void carvePassages(MazeCell fromCell) {
+	private void carvePassages(int startCell) {
 	
-		/*	This begins carving passages in the grid, starting at the 
-		 * 	upper-left corner, (0,0). And as you might have guessed from the 
-		 * 	algorithms name, this works recursively, as well see next.
-		 * 	The carve_passages_from method first creates a list of directions 
-		 * 	that ought to be tried from the current cell:
+		/*	This begins carving passages in the grid from the starting cell.
+		 * 	Each cell on the stack tries it's neighbors in the direction 
+		 * 	order picked for the cell.  An unvisited neighbor is carved to and
+		 * 	pushed, when all directions have been tried the cell is popped and
+		 * 	we backtrack to the previous cell.
 		*/
-		
-		Direction[] directions = Direction.values();		
-		Collections.shuffle(Arrays.asList(directions));
-		for(int directionIndex = 0; directionIndex < directions.length; directionIndex++) {
-		    logger.log(Level.DEBUG, "directions[{}]: {}", directionIndex, 
-		    		   directions[directionIndex]);
-		}
-
-		for (Direction cellDirection : directions) {
-			MazeCell newCell = maze.getMazeCell(fromCell, cellDirection);
-			if (newCell != null &&
-				!(newCell.hasCellBeenVisited()))
+		stackDepth = 0;
+		pushCell(startCell);
+		while (stackDepth > 0) {
+			int top = stackDepth - 1;
+			int state = stackStates[top] & 0xFF;
+			int nextDirection = state & 0x07;
+			if (nextDirection == DIRECTIONS_TRIED) {
+				stackDepth--;
+				if (stackDepth > 0) {
+					/* Backtracked to the cell below it on the stack */
+					cellsVisited++;
+				}
+				continue;
+			}
+			stackStates[top] = (byte) (state + 1);
+			
+			int fromCell = stackCells[top];
+			Direction cellDirection = DIRECTION_PERMUTATIONS[state >>> 3][nextDirection];
+			int newCell = grid.getNeighborIndex(fromCell, cellDirection);
+			if (newCell >= 0 &&
+				!(grid.isCellVisited(newCell)))
 			{
 				if (logger.isDebugEnabled()) {
 					logger.log(Level.DEBUG, "carvePassage fromCell:{} newCell{}",
-						fromCell.cellPositionAsString(),newCell.cellPositionAsString());
+						fromCell,newCell);
+				}
+				carvePassage(newCell, fromCell);
+				pushCell(newCell);
+			}
+		}
+	}
+	
+	/*
+	 * Mark a cell visited and push it on the stack with a random direction
+	 * order.
+	 */
+	private void pushCell(int cell) {
+		
+		if (stackDepth == stackCells.length) {
+			int newCapacity = (int) Math.min((long) stackCells.length * 2, grid.getCellCount());
+			stackCells = Arrays.copyOf(stackCells, newCapacity);
+			stackStates = Arrays.copyOf(stackStates, newCapacity);
+		}
+		grid.cellVisited(cell);
+		int permutation = randomGenerator.nextInt(DIRECTION_PERMUTATIONS.length);
+		stackCells[stackDepth] = cell;
+		stackStates[stackDepth] = (byte) (permutation << 3);
+		stackDepth++;
+		cellsVisited++;
+		peakBacktrackDepth = Math.max(peakBacktrackDepth, stackDepth);
+	}
+	
+	/*
+	 * Build the table of all 24 orders the four directions can be tried in.
+	 */
+	private static Direction[][] createDirectionPermutations() {
+		
+		Direction[] directions = Direction.values();
+		Direction[][] permutations = new Direction[24][];
+		int permutation = 0;
+		for (Direction first : directions) {
+			for (Direction second : directions) {
+				for (Direction third : directions) {
+					for (Direction fourth : directions) {
+						if (first != second && first != third && first != fourth &&
+							second != third && second != fourth && third != fourth) {
+							permutations[permutation++] = 
+									new Direction[] {first, second, third, fourth};
+						}
+					}
 				}
-				newCell.carvePassage(fromCell);
-				newCell.cellVisited();
-				carvePassages(newCell);
 			}
 		}
+		return permutations;
 	}
 
 }
@@ -0,0 +1,103 @@
+package com.bobman159.mazes.generate;
+
+import java.util.SplittableRandom;
+
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * A maze generator using the Sidewinder algorithm.
+ * Based on https://weblog.jamisbuck.org/2011/2/3/maze-generation-sidewinder-algorithm
+ * <p>
+ * The bottom row is one long corridor.  Every other row is split into runs
+ * of cells joined left to right, each run is closed at random and a passage
+ * is carved down from a random cell of the run.  Each run only carves into
+ * it's own row's bottom walls so every row is carved on it's own, the mazes
+ * have a straight bottom corridor and a bias towards vertical passages.
+ */
+public class MazeGeneratorSidewinder extends AbstractRowMazeGenerator {
+
+	/**
+	 * Generate a maze with the given number of rows and columns
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 */
+	public MazeGeneratorSidewinder(int rows, int columns, long seed) {
+		this(rows,columns,seed,1);
+	}
+
+	/**
+	 * Generate a maze with the given number of rows and columns, carving
+	 * ranges of rows in parallel
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 * @param parallelism the number of threads carving rows
+	 */
+	public MazeGeneratorSidewinder(int rows, int columns, long seed, int parallelism) {
+		super(rows,columns,seed,parallelism);
+	}
+
+	/**
+	 * Generate into an existing, empty maze when <code>createMaze</code> is
+	 * called
+	 * @param maze the maze to be generated
+	 */
+	public MazeGeneratorSidewinder(Maze maze) {
+		this(maze,1);
+	}
+
+	/**
+	 * Generate into an existing, empty maze when <code>createMaze</code> is
+	 * called, carving ranges of rows in parallel
+	 * @param maze the maze to be generated
+	 * @param parallelism the number of threads carving rows
+	 */
+	public MazeGeneratorSidewinder(Maze maze, int parallelism) {
+		super(maze,parallelism);
+	}
+
+	@Override
+	public MazeType getMazeType() {
+		return MazeType.SIDEWINDER;
+	}
+
+	/*
+	 * A run is closed when a random bit is set, the bits are taken from a
+	 * random long 64 at a time
+	 */
+	@Override
+	protected int carveRow(SplittableRandom rowRandom, int rowIndex, boolean[] rightWalls,
+			boolean[] bottomWalls) {
+
+		if (rowIndex == rows - 1) {
+			for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+				rightWalls[columnIndex] = columnIndex == columns - 1;
+				bottomWalls[columnIndex] = true;
+			}
+			return columns - 1;
+		}
+
+		long runBits = 0;
+		int runBitsLeft = 0;
+		int runStart = 0;
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			if (runBitsLeft == 0) {
+				runBits = rowRandom.nextLong();
+				runBitsLeft = Long.SIZE;
+			}
+			boolean closeRun = (runBits & 1) != 0 || columnIndex == columns - 1;
+			runBits >>>= 1;
+			runBitsLeft--;
+			bottomWalls[columnIndex] = true;
+			rightWalls[columnIndex] = closeRun;
+			if (closeRun) {
+				bottomWalls[runStart + rowRandom.nextInt(columnIndex - runStart + 1)] = false;
+				runStart = columnIndex + 1;
+			}
+		}
+		/* Every cell carves right or closes a run by carving down */
+		return columns;
+	}
+}
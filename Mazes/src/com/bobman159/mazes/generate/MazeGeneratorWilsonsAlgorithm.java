@@ -0,0 +1,221 @@
+package com.bobman159.mazes.generate;
+
+import java.util.SplittableRandom;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.Maze.Direction;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.MazeWriter;
+
+/**
+ * A maze generator using Wilson's Algorithm, the mazes are uniform spanning
+ * trees: every possible maze of the size is equally likely, without the
+ * short dead ends of Prim's or the long corridors of the backtracker.
+ * Based on https://weblog.jamisbuck.org/2011/1/20/maze-generation-wilson-s-algorithm
+ * <p>
+ * A random walk starts from a cell not in the maze and continues until it
+ * reaches the maze, then the walk with it's loops erased is added to the
+ * maze.  The walk is recorded as the direction it last left each cell in a
+ * byte array indexed by cell, a cell visited again simply has it's
+ * direction overwritten so the loops are erased without keeping the walk.
+ * <p>
+ * The first walks are slow, they wander until they find the few cells in
+ * the maze.  The early part of the maze can instead be carved by the
+ * Aldous-Broder algorithm, a single random walk that carves into every
+ * cell it visits for the first time, which is fast while most cells are
+ * not in the maze.  Both algorithms create uniform spanning trees on their
+ * own but switching from one to the other does not, the hybrid is
+ * measurably biased on small mazes so it is only used when an
+ * <code>aldousBroderFraction</code> is given.  A fraction of 0.1 to 0.3
+ * generates about one and a half times as fast on average, and the time
+ * varies much less from maze to maze.
+ */
+public class MazeGeneratorWilsonsAlgorithm extends AbstractMazeGenerator {
+
+	private static final int UP = Direction.UP.ordinal();
+	private static final int DOWN = Direction.DOWN.ordinal();
+	private static final int LEFT = Direction.LEFT.ordinal();
+	private static final int DIRECTION_BITS = 2;
+	private static final int DIRECTION_MASK = (1 << DIRECTION_BITS) - 1;
+
+	private double aldousBroderFraction;
+	private Logger logger = LogManager.getLogger(MazeGeneratorWilsonsAlgorithm.class);
+
+	/* The cell and column offsets of a step in each direction */
+	private int[] cellSteps;
+	private int[] columnSteps;
+	/* The edges of the maze */
+	private int lastColumn;
+	private int firstRowEnd;
+	private int lastRowStart;
+	/* Random directions are taken 2 bits at a time from a random long */
+	private long directionBits;
+	private int directionsLeft;
+	/* The direction each walk last left a cell, kept between mazes */
+	private byte[] nextDirections;
+
+	public MazeGeneratorWilsonsAlgorithm(int rows, int columns) {
+		this(rows,columns,new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Generate a maze with the given number of rows and columns
+	 * @param rows  number of rows in the maze
+	 * @param columns number of columns in the maze
+	 * @param seed the seed for the maze's random number stream
+	 */
+	public MazeGeneratorWilsonsAlgorithm(int rows, int columns, long seed) {
+		this(new Maze(rows,columns,seed));
+	}
+
+	/**
+	 * Generate into an existing, empty maze using only Wilson's algorithm
+	 * @param maze the maze to be generated
+	 */
+	public MazeGeneratorWilsonsAlgorithm(Maze maze) {
+		this(maze,0);
+	}
+
+	/**
+	 * Generate into an existing, empty maze, carving the first cells with
+	 * the Aldous-Broder algorithm.  The maze is no longer exactly uniform.
+	 * @param maze the maze to be generated
+	 * @param aldousBroderFraction the fraction of the cells carved by the
+	 * Aldous-Broder algorithm before switching to Wilson's, 0 for only
+	 * Wilson's algorithm
+	 */
+	public MazeGeneratorWilsonsAlgorithm(Maze maze, double aldousBroderFraction) {
+		super(maze);
+		if (!(aldousBroderFraction >= 0 && aldousBroderFraction <= 1)) {
+			throw new IllegalArgumentException("aldousBroderFraction must be from 0 to 1");
+		}
+		this.aldousBroderFraction = aldousBroderFraction;
+		int columns = maze.getColumns();
+		cellSteps = new int[] {-columns, columns, -1, 1};
+		columnSteps = new int[] {0, 0, -1, 1};
+		lastColumn = columns - 1;
+		firstRowEnd = columns;
+		lastRowStart = grid.getCellCount() - columns;
+	}
+
+	@Override
+	public MazeType getMazeType() {
+		return MazeType.WILSONS;
+	}
+
+	@Override
+	protected void buildMaze() {
+
+		logger.log(Level.INFO,"Build maze using Wilsons Algorithm, seed {}", maze.getSeed());
+		directionsLeft = 0;
+		int cellCount = grid.getCellCount();
+		/* Pure Wilson's algorithm starts from a maze of one random cell */
+		int aldousBroderCells = (int) Math.max(1, Math.min(cellCount, aldousBroderFraction * cellCount));
+		carveAldousBroder(aldousBroderCells);
+		if (aldousBroderCells < cellCount) {
+			carveLoopErasedWalks();
+		}
+
+		if (logger.isDebugEnabled()) {
+			MazeWriter.debugMazeCellContents(maze);
+		}
+	}
+
+	/*
+	 * Walk from a random cell, carving into each cell the walk enters for
+	 * the first time, until the given number of cells are in the maze
+	 */
+	private void carveAldousBroder(int aldousBroderCells) {
+
+		int columns = maze.getColumns();
+		int cell = randomGenerator.nextInt(grid.getCellCount());
+		int column = cell % columns;
+		grid.cellVisited(cell);
+		cellsVisited++;
+		for (int cellsInMaze = 1; cellsInMaze < aldousBroderCells; ) {
+			int direction = randomDirection(cell, column);
+			int nextCell = cell + cellSteps[direction];
+			column += columnSteps[direction];
+			cellsVisited++;
+			if (!grid.isCellVisited(nextCell)) {
+				grid.cellVisited(nextCell);
+				carvePassage(cell, nextCell);
+				cellsInMaze++;
+			}
+			cell = nextCell;
+		}
+	}
+
+	/*
+	 * Start a walk from each cell not in the maze in turn.  A walk records
+	 * the direction it leaves each cell until it reaches the maze, then it
+	 * is followed again from it's start carving the loop erased path.
+	 */
+	private void carveLoopErasedWalks() {
+
+		int columns = maze.getColumns();
+		if (nextDirections == null) {
+			nextDirections = new byte[grid.getCellCount()];
+		}
+		for (int startCell = 0; startCell < nextDirections.length; startCell++) {
+			if (grid.isCellVisited(startCell)) {
+				continue;
+			}
+			int cell = startCell;
+			int column = startCell % columns;
+			while (!grid.isCellVisited(cell)) {
+				int direction = randomDirection(cell, column);
+				nextDirections[cell] = (byte) direction;
+				cell += cellSteps[direction];
+				column += columnSteps[direction];
+				cellsVisited++;
+			}
+
+			cell = startCell;
+			while (!grid.isCellVisited(cell)) {
+				grid.cellVisited(cell);
+				int nextCell = cell + cellSteps[nextDirections[cell]];
+				carvePassage(cell, nextCell);
+				cell = nextCell;
+			}
+		}
+	}
+
+	/*
+	 * A random direction to a neighbor of the cell.  Cells inside the maze
+	 * can step in any direction, at the edges directions off the maze are
+	 * drawn again.
+	 */
+	private int randomDirection(int cell, int column) {
+
+		for (;;) {
+			if (directionsLeft == 0) {
+				directionBits = randomGenerator.nextLong();
+				directionsLeft = Long.SIZE / DIRECTION_BITS;
+			}
+			int direction = (int) directionBits & DIRECTION_MASK;
+			directionBits >>>= DIRECTION_BITS;
+			directionsLeft--;
+			if (column > 0 && column < lastColumn && cell >= firstRowEnd && cell < lastRowStart) {
+				return direction;
+			}
+			boolean onMaze;
+			if (direction == UP) {
+				onMaze = cell >= firstRowEnd;
+			} else if (direction == DOWN) {
+				onMaze = cell < lastRowStart;
+			} else if (direction == LEFT) {
+				onMaze = column > 0;
+			} else {
+				onMaze = column < lastColumn;
+			}
+			if (onMaze) {
+				return direction;
+			}
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.bobman159.mazes.generate;
+
+import com.bobman159.mazes.IMazeGrid;
+import com.bobman159.mazes.IMazeRowSink;
+import com.bobman159.mazes.Maze;
+
+/**
+ * Stores streamed maze rows in a maze's grid so a streaming generator can 
+ * also create a whole <code>Maze</code>.  Every cell written is marked as
+ * visited.
+ */
+class MazeGridRowSink implements IMazeRowSink {
+
+	private Maze maze;
+	private IMazeGrid grid;
+	private int columns;
+	private int nextRow;
+	private int entranceColumn = -1;
+	
+	MazeGridRowSink(Maze maze) {
+		this.maze = maze;
+		grid = maze.getGrid();
+		columns = grid.getColumns();
+	}
+	
+	@Override
+	public void writeTopRow(boolean[] topWalls) {
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++) {
+			if (!topWalls[columnIndex]) {
+				grid.clearTopWall(columnIndex);
+				entranceColumn = columnIndex;
+			}
+		}
+	}
+
+	@Override
+	public void writeRow(boolean[] rightWalls, boolean[] bottomWalls) {
+		
+		boolean lastRow = nextRow == grid.getRows() - 1;
+		int cellIndex = grid.getCellIndex(nextRow, 0);
+		for (int columnIndex = 0; columnIndex < columns; columnIndex++, cellIndex++) {
+			if (!rightWalls[columnIndex]) {
+				grid.clearRightWall(cellIndex);
+			}
+			if (!bottomWalls[columnIndex]) {
+				grid.clearBottomWall(cellIndex);
+				/* The only opening in the bottom row is the exit */
+				if (lastRow) {
+					maze.setStartEnd(entranceColumn,columnIndex);
+				}
+			}
+			grid.cellVisited(cellIndex);
+		}
+		nextRow++;
+	}
+}
@@ -0,0 +1,101 @@
+package com.bobman159.mazes.monitor;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * What a generator did to create one maze, returned by
+ * <code>IMazeGenerator.getGenerationStats()</code> after the maze is
+ * created.
+ */
+public class GenerationStats {
+
+	private final MazeType mazeType;
+	private final long elapsedNanos;
+	private final long cellsVisited;
+	private final long passagesCarved;
+	private final int peakFrontierSize;
+	private final int peakBacktrackDepth;
+	private final long bytesAllocated;
+
+	/**
+	 *
+	 * @param mazeType the type of algorithm that generated the maze
+	 * @param elapsedNanos the wall clock time to generate the maze
+	 * @param cellsVisited the number of visits to cells, a cell visited
+	 * again when backtracking is counted again
+	 * @param passagesCarved the number of passages carved
+	 * @param peakFrontierSize the most frontier cells at one time, 0 for
+	 * algorithms without a frontier
+	 * @param peakBacktrackDepth the deepest the backtrack stack grew, 0 for
+	 * algorithms without a backtrack stack
+	 * @param bytesAllocated the approximate number of bytes allocated while
+	 * generating, -1 if the JVM can not measure it
+	 */
+	public GenerationStats(MazeType mazeType, long elapsedNanos, long cellsVisited,
+			long passagesCarved, int peakFrontierSize, int peakBacktrackDepth,
+			long bytesAllocated) {
+		this.mazeType = mazeType;
+		this.elapsedNanos = elapsedNanos;
+		this.cellsVisited = cellsVisited;
+		this.passagesCarved = passagesCarved;
+		this.peakFrontierSize = peakFrontierSize;
+		this.peakBacktrackDepth = peakBacktrackDepth;
+		this.bytesAllocated = bytesAllocated;
+	}
+
+	public MazeType getMazeType() {
+		return mazeType;
+	}
+
+	/**
+	 * @return the wall clock time to generate the maze in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return the number of visits to cells, a cell visited again when
+	 * backtracking or by a random walk is counted again
+	 */
+	public long getCellsVisited() {
+		return cellsVisited;
+	}
+
+	public long getPassagesCarved() {
+		return passagesCarved;
+	}
+
+	/**
+	 * @return the most frontier cells at one time, 0 for algorithms without
+	 * a frontier
+	 */
+	public int getPeakFrontierSize() {
+		return peakFrontierSize;
+	}
+
+	/**
+	 * @return the deepest the backtrack stack grew, 0 for algorithms
+	 * without a backtrack stack
+	 */
+	public int getPeakBacktrackDepth() {
+		return peakBacktrackDepth;
+	}
+
+	/**
+	 * @return the approximate number of bytes allocated by the threads
+	 * generating the maze, -1 if the JVM can not measure it.  A maze
+	 * created before <code>createMaze</code> is not included.
+	 */
+	public long getBytesAllocated() {
+		return bytesAllocated;
+	}
+
+	@Override
+	public String toString() {
+		return mazeType + " " + (elapsedNanos / 1000) + "us, " + cellsVisited + " cells visited, "
+				+ passagesCarved + " passages carved, peak frontier " + peakFrontierSize
+				+ ", peak backtrack depth " + peakBacktrackDepth + ", " + bytesAllocated
+				+ " bytes allocated";
+	}
+}
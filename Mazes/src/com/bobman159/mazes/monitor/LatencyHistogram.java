@@ -0,0 +1,88 @@
+package com.bobman159.mazes.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free histogram of latencies with a bucket for each power of 2
+ * microseconds.  Bucket 0 counts latencies under 1 microsecond and bucket
+ * n latencies from 2^(n-1) up to 2^n microseconds, the last bucket also
+ * counts everything longer.  Percentiles are the upper bound of the bucket
+ * they fall in, so they are at most twice the true value.
+ */
+final class LatencyHistogram {
+
+	static final int BUCKETS = 40;
+
+	private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	void record(long nanos) {
+		long micros = Math.max(0, nanos / 1000);
+		int bucket = Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(micros));
+		bucketCounts.incrementAndGet(bucket);
+		totalNanos.addAndGet(nanos);
+		maxNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	long getCount() {
+		long count = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			count += bucketCounts.get(bucket);
+		}
+		return count;
+	}
+
+	long getTotalNanos() {
+		return totalNanos.get();
+	}
+
+	long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/*
+	 * The upper bound of the bucket holding the percentile in microseconds,
+	 * 0 if nothing has been recorded
+	 */
+	long getPercentileMicros(double percentile) {
+		long[] counts = getBucketCounts();
+		long count = 0;
+		for (long bucketCount : counts) {
+			count += bucketCount;
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(count * percentile / 100);
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts[bucket];
+			if (seen >= rank) {
+				return getBucketUpperBoundMicros(bucket);
+			}
+		}
+		return getBucketUpperBoundMicros(BUCKETS - 1);
+	}
+
+	long[] getBucketCounts() {
+		long[] counts = new long[BUCKETS];
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			counts[bucket] = bucketCounts.get(bucket);
+		}
+		return counts;
+	}
+
+	static long getBucketUpperBoundMicros(int bucket) {
+		return 1L << bucket;
+	}
+
+	void reset() {
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			bucketCounts.set(bucket, 0);
+		}
+		totalNanos.set(0);
+		maxNanos.set(0);
+	}
+}
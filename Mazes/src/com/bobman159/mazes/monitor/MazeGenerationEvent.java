@@ -0,0 +1,47 @@
+package com.bobman159.mazes.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for the generation of a maze, from the start
+ * of <code>IMazeGenerator.createMaze</code> until the entrance and exit are
+ * set.
+ * <p>
+ * The fields are only filled in when <code>shouldCommit()</code> is true, so
+ * when no recording is running an event costs one small allocation per
+ * generation, it is kept by the generator between <code>begin</code> and
+ * <code>end</code>.
+ */
+@Name("com.bobman159.mazes.MazeGeneration")
+@Label("Maze Generation")
+@Category("Mazes")
+@Description("A maze generated by an IMazeGenerator")
+@StackTrace(false)
+public class MazeGenerationEvent extends Event {
+
+	@Label("Algorithm")
+	@Description("The MazeType of the algorithm carving the passages")
+	public String algorithm;
+
+	@Label("Generator")
+	@Description("The class of the generator")
+	public String generator;
+
+	@Label("Rows")
+	public int rows;
+
+	@Label("Columns")
+	public int columns;
+
+	@Label("Seed")
+	public long seed;
+
+	@Label("Cells Carved")
+	@Description("The number of passages carved, each one joins a cell to the maze")
+	public long cellsCarved;
+}
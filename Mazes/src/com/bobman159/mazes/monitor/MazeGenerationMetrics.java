@@ -0,0 +1,100 @@
+package com.bobman159.mazes.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * Aggregates the <code>GenerationStats</code> of every maze generated, per
+ * <code>MazeType</code>.  The metrics of each type are registered with the
+ * platform MBean server as a <code>MazeTypeMetricsMBean</code> the first
+ * time the metrics are used, so they can be read by JMX monitoring.
+ * <p>
+ * Generators record their statistics themselves at the end of
+ * <code>createMaze</code>, the tiles of a parallel generator are part of
+ * the parallel maze and are not recorded separately.
+ */
+public class MazeGenerationMetrics {
+
+	/**
+	 * The domain and type of the registered MBeans, the maze type is added
+	 * as the <code>mazeType</code> key
+	 */
+	public static final String OBJECT_NAME_PREFIX = "com.bobman159.mazes:type=MazeGenerationMetrics";
+
+	private static final MazeGenerationMetrics INSTANCE = new MazeGenerationMetrics();
+	private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+	private static final boolean ALLOCATION_MEASURED = isAllocationMeasured();
+
+	private final Map<MazeType,MazeTypeMetrics> typeMetrics = new EnumMap<>(MazeType.class);
+	private Logger logger = LogManager.getLogger(MazeGenerationMetrics.class);
+
+	private MazeGenerationMetrics() {
+		MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		for (MazeType mazeType : MazeType.values()) {
+			MazeTypeMetrics metrics = new MazeTypeMetrics(mazeType);
+			typeMetrics.put(mazeType, metrics);
+			try {
+				ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + ",mazeType=" + mazeType.name());
+				if (!mbeanServer.isRegistered(name)) {
+					mbeanServer.registerMBean(metrics, name);
+				}
+			} catch (JMException exception) {
+				/* The metrics are still recorded, only the JMX view is lost */
+				logger.log(Level.WARN, "Unable to register the {} metrics MBean", mazeType, exception);
+			}
+		}
+	}
+
+	public static MazeGenerationMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Add the statistics of a generated maze to the metrics of it's type
+	 * @param generationStats the statistics of the generated maze
+	 */
+	public void record(GenerationStats generationStats) {
+		typeMetrics.get(generationStats.getMazeType()).record(generationStats);
+	}
+
+	/**
+	 * @param mazeType the type of maze generation algorithm
+	 * @return the metrics of the maze type
+	 */
+	public MazeTypeMetricsMBean getMetrics(MazeType mazeType) {
+		return typeMetrics.get(mazeType);
+	}
+
+	/**
+	 * Used by generators to measure the bytes they allocate, as the
+	 * difference of two calls on the same thread.
+	 * @return the bytes allocated by the current thread since it started,
+	 * -1 if the JVM can not measure it
+	 */
+	public static long getCurrentThreadAllocatedBytes() {
+		if (!ALLOCATION_MEASURED) {
+			return -1;
+		}
+		return ((com.sun.management.ThreadMXBean) THREAD_BEAN).getCurrentThreadAllocatedBytes();
+	}
+
+	private static boolean isAllocationMeasured() {
+		if (!(THREAD_BEAN instanceof com.sun.management.ThreadMXBean)) {
+			return false;
+		}
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) THREAD_BEAN;
+		return threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled();
+	}
+}
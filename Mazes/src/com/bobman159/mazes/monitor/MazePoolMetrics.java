@@ -0,0 +1,146 @@
+package com.bobman159.mazes.monitor;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * The metrics of the ready mazes a <code>MazePregenerationPool</code> keeps
+ * for one maze type and size.  The refill latency is the time to generate
+ * one maze in the background.
+ */
+public class MazePoolMetrics implements MazePoolMetricsMBean {
+
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+	private static final double MICROS_PER_MILLI = 1_000.0;
+
+	private final MazeType mazeType;
+	private final int rows;
+	private final int columns;
+	private final int maximumReadyMazes;
+	private final IntSupplier readyMazes;
+	private volatile int targetReadyMazes;
+	private final LongAdder mazesTaken = new LongAdder();
+	private final LongAdder starvedTakes = new LongAdder();
+	private final LongAdder refillFailures = new LongAdder();
+	private final LatencyHistogram refillLatencies = new LatencyHistogram();
+
+	/**
+	 * @param mazeType the type of maze generation algorithm
+	 * @param rows the number of rows in the mazes
+	 * @param columns the number of columns in the mazes
+	 * @param maximumReadyMazes the most mazes the pool keeps ready
+	 * @param readyMazes counts the mazes ready to be taken
+	 */
+	public MazePoolMetrics(MazeType mazeType, int rows, int columns, int maximumReadyMazes,
+			IntSupplier readyMazes) {
+		this.mazeType = mazeType;
+		this.rows = rows;
+		this.columns = columns;
+		this.maximumReadyMazes = maximumReadyMazes;
+		this.readyMazes = readyMazes;
+		targetReadyMazes = maximumReadyMazes;
+	}
+
+	/**
+	 * @param starved true if there was no ready maze and it was generated on
+	 * the caller's thread
+	 */
+	public void recordTake(boolean starved) {
+		mazesTaken.increment();
+		if (starved) {
+			starvedTakes.increment();
+		}
+	}
+
+	/**
+	 * @param nanos the time taken to generate a maze in the background
+	 */
+	public void recordRefill(long nanos) {
+		refillLatencies.record(nanos);
+	}
+
+	public void recordRefillFailure() {
+		refillFailures.increment();
+	}
+
+	public void setTargetReadyMazes(int targetReadyMazes) {
+		this.targetReadyMazes = targetReadyMazes;
+	}
+
+	@Override
+	public String getMazeType() {
+		return mazeType.name();
+	}
+
+	@Override
+	public int getRows() {
+		return rows;
+	}
+
+	@Override
+	public int getColumns() {
+		return columns;
+	}
+
+	@Override
+	public int getReadyMazes() {
+		return readyMazes.getAsInt();
+	}
+
+	@Override
+	public int getTargetReadyMazes() {
+		return targetReadyMazes;
+	}
+
+	@Override
+	public int getMaximumReadyMazes() {
+		return maximumReadyMazes;
+	}
+
+	@Override
+	public long getMazesTaken() {
+		return mazesTaken.sum();
+	}
+
+	@Override
+	public long getStarvedTakes() {
+		return starvedTakes.sum();
+	}
+
+	@Override
+	public long getMazesRefilled() {
+		return refillLatencies.getCount();
+	}
+
+	@Override
+	public long getRefillFailures() {
+		return refillFailures.sum();
+	}
+
+	@Override
+	public double getMeanRefillLatencyMillis() {
+		long mazesRefilled = refillLatencies.getCount();
+		return mazesRefilled == 0 ? 0
+				: refillLatencies.getTotalNanos() / NANOS_PER_MILLI / mazesRefilled;
+	}
+
+	@Override
+	public double getMaxRefillLatencyMillis() {
+		return refillLatencies.getMaxNanos() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getRefillLatency99thPercentileMillis() {
+		return refillLatencies.getPercentileMicros(99) / MICROS_PER_MILLI;
+	}
+
+	@Override
+	public void reset() {
+		mazesTaken.reset();
+		starvedTakes.reset();
+		refillFailures.reset();
+		refillLatencies.reset();
+	}
+}
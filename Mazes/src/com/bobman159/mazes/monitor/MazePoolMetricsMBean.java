@@ -0,0 +1,57 @@
+package com.bobman159.mazes.monitor;
+
+/**
+ * The JMX view of the ready mazes a <code>MazePregenerationPool</code> keeps
+ * for one maze type and size, registered as
+ * <code>com.bobman159.mazes:type=MazePregenerationPool,pool=&lt;n&gt;,mazeType=&lt;type&gt;,rows=&lt;rows&gt;,columns=&lt;columns&gt;</code>.
+ * Counters only increase until <code>reset</code> is called.
+ */
+public interface MazePoolMetricsMBean {
+
+	public String getMazeType();
+
+	public int getRows();
+
+	public int getColumns();
+
+	/**
+	 * @return the number of mazes ready to be taken
+	 */
+	public int getReadyMazes();
+
+	/**
+	 * @return the number of ready mazes the pool currently refills to
+	 */
+	public int getTargetReadyMazes();
+
+	public int getMaximumReadyMazes();
+
+	public long getMazesTaken();
+
+	/**
+	 * @return the number of takes that found no ready maze and generated it
+	 * on the caller's thread
+	 */
+	public long getStarvedTakes();
+
+	/**
+	 * @return the number of mazes generated in the background
+	 */
+	public long getMazesRefilled();
+
+	/**
+	 * @return the number of background generations that failed
+	 */
+	public long getRefillFailures();
+
+	public double getMeanRefillLatencyMillis();
+
+	public double getMaxRefillLatencyMillis();
+
+	public double getRefillLatency99thPercentileMillis();
+
+	/**
+	 * Set all of the counters and the histogram back to 0
+	 */
+	public void reset();
+}
@@ -0,0 +1,35 @@
+package com.bobman159.mazes.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for picking the entrance and exit of a maze
+ * in <code>Maze.setStartEndTopAndBottom</code>.
+ */
+@Name("com.bobman159.mazes.MazeStartEnd")
+@Label("Maze Start and End")
+@Category("Mazes")
+@Description("The entrance and exit of a maze picked at random")
+@StackTrace(false)
+public class MazeStartEndEvent extends Event {
+
+	@Label("Rows")
+	public int rows;
+
+	@Label("Columns")
+	public int columns;
+
+	@Label("Seed")
+	public long seed;
+
+	@Label("Entrance Column")
+	public int entranceColumn;
+
+	@Label("Exit Column")
+	public int exitColumn;
+}
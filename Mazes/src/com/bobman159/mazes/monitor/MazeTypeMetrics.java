@@ -0,0 +1,107 @@
+package com.bobman159.mazes.monitor;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * The generation metrics of one <code>MazeType</code>, recorded from the
+ * <code>GenerationStats</code> of each maze generated.
+ */
+public class MazeTypeMetrics implements MazeTypeMetricsMBean {
+
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+	private static final double MICROS_PER_MILLI = 1_000.0;
+
+	private final MazeType mazeType;
+	private final LongAdder cellsVisited = new LongAdder();
+	private final LongAdder passagesCarved = new LongAdder();
+	private final LongAdder bytesAllocated = new LongAdder();
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	MazeTypeMetrics(MazeType mazeType) {
+		this.mazeType = mazeType;
+	}
+
+	void record(GenerationStats generationStats) {
+		cellsVisited.add(generationStats.getCellsVisited());
+		passagesCarved.add(generationStats.getPassagesCarved());
+		if (generationStats.getBytesAllocated() > 0) {
+			bytesAllocated.add(generationStats.getBytesAllocated());
+		}
+		latencies.record(generationStats.getElapsedNanos());
+	}
+
+	@Override
+	public String getMazeType() {
+		return mazeType.name();
+	}
+
+	@Override
+	public long getMazesGenerated() {
+		return latencies.getCount();
+	}
+
+	@Override
+	public long getCellsVisited() {
+		return cellsVisited.sum();
+	}
+
+	@Override
+	public long getPassagesCarved() {
+		return passagesCarved.sum();
+	}
+
+	@Override
+	public long getBytesAllocated() {
+		return bytesAllocated.sum();
+	}
+
+	@Override
+	public double getMeanLatencyMillis() {
+		long mazesGenerated = latencies.getCount();
+		return mazesGenerated == 0 ? 0 : latencies.getTotalNanos() / NANOS_PER_MILLI / mazesGenerated;
+	}
+
+	@Override
+	public double getMaxLatencyMillis() {
+		return latencies.getMaxNanos() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getLatency50thPercentileMillis() {
+		return latencies.getPercentileMicros(50) / MICROS_PER_MILLI;
+	}
+
+	@Override
+	public double getLatency90thPercentileMillis() {
+		return latencies.getPercentileMicros(90) / MICROS_PER_MILLI;
+	}
+
+	@Override
+	public double getLatency99thPercentileMillis() {
+		return latencies.getPercentileMicros(99) / MICROS_PER_MILLI;
+	}
+
+	@Override
+	public long[] getLatencyBucketUpperBoundsMicros() {
+		long[] upperBounds = new long[LatencyHistogram.BUCKETS];
+		for (int bucket = 0; bucket < upperBounds.length; bucket++) {
+			upperBounds[bucket] = LatencyHistogram.getBucketUpperBoundMicros(bucket);
+		}
+		return upperBounds;
+	}
+
+	@Override
+	public long[] getLatencyBucketCounts() {
+		return latencies.getBucketCounts();
+	}
+
+	@Override
+	public void reset() {
+		cellsVisited.reset();
+		passagesCarved.reset();
+		bytesAllocated.reset();
+		latencies.reset();
+	}
+}
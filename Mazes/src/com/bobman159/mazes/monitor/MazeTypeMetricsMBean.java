@@ -0,0 +1,49 @@
+package com.bobman159.mazes.monitor;
+
+/**
+ * The JMX view of the generation metrics of one <code>MazeType</code>,
+ * registered as
+ * <code>com.bobman159.mazes:type=MazeGenerationMetrics,mazeType=&lt;type&gt;</code>.
+ * Counters only increase until <code>reset</code> is called.
+ */
+public interface MazeTypeMetricsMBean {
+
+	public String getMazeType();
+
+	public long getMazesGenerated();
+
+	public long getCellsVisited();
+
+	public long getPassagesCarved();
+
+	/**
+	 * @return the approximate number of bytes allocated generating mazes
+	 */
+	public long getBytesAllocated();
+
+	public double getMeanLatencyMillis();
+
+	public double getMaxLatencyMillis();
+
+	public double getLatency50thPercentileMillis();
+
+	public double getLatency90thPercentileMillis();
+
+	public double getLatency99thPercentileMillis();
+
+	/**
+	 * @return the upper bound of each latency histogram bucket in
+	 * microseconds, a power of 2
+	 */
+	public long[] getLatencyBucketUpperBoundsMicros();
+
+	/**
+	 * @return the number of mazes generated in each latency histogram bucket
+	 */
+	public long[] getLatencyBucketCounts();
+
+	/**
+	 * Set all of the counters and the histogram back to 0
+	 */
+	public void reset();
+}
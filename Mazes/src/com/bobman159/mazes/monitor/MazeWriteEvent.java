@@ -0,0 +1,52 @@
+package com.bobman159.mazes.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import com.bobman159.mazes.Maze;
+
+/**
+ * A Java Flight Recorder event for writing a maze with one of the maze
+ * writers, the duration includes the time spent waiting on the output.
+ */
+@Name("com.bobman159.mazes.MazeWrite")
+@Label("Maze Write")
+@Category("Mazes")
+@Description("A maze written as text or as an image")
+@StackTrace(false)
+public class MazeWriteEvent extends Event {
+
+	@Label("Format")
+	@Description("The format the maze was written in, text, pbm, png, svg or an ImageIO format")
+	public String format;
+
+	@Label("Rows")
+	public int rows;
+
+	@Label("Columns")
+	public int columns;
+
+	@Label("Seed")
+	public long seed;
+
+	/**
+	 * End the event and commit it if it is being recorded, the fields are
+	 * only filled in for a recorded event.
+	 * @param format the format the maze was written in
+	 * @param maze the maze written
+	 */
+	public void commitWrite(String format, Maze maze) {
+		end();
+		if (shouldCommit()) {
+			this.format = format;
+			rows = maze.getRows();
+			columns = maze.getColumns();
+			seed = maze.getSeed();
+			commit();
+		}
+	}
+}
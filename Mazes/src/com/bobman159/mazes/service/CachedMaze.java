@@ -0,0 +1,118 @@
+package com.bobman159.mazes.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeBinaryFile;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * A maze held by a <code>MazeCache</code>.  The maze is kept as the bytes of
+ * it's <code>MazeBinaryFile</code>, 2 bits per cell, and optionally as the
+ * text written by <code>MazeChannelWriter</code>.  The bytes are never
+ * changed once cached, they are handed out as read only buffers and a new
+ * <code>Maze</code> is decoded for each caller that asks for one.
+ */
+public class CachedMaze {
+
+	private final MazeType mazeType;
+	private final int rows;
+	private final int columns;
+	private final long seed;
+	/* Shared by a maze cached as text with the binary maze of the same key */
+	final byte[] mazeBytes;
+	private final byte[] renderedBytes;
+
+	CachedMaze(MazeType mazeType, int rows, int columns, long seed, byte[] mazeBytes,
+			byte[] renderedBytes) {
+		this.mazeType = mazeType;
+		this.rows = rows;
+		this.columns = columns;
+		this.seed = seed;
+		this.mazeBytes = mazeBytes;
+		this.renderedBytes = renderedBytes;
+	}
+
+	public MazeType getMazeType() {
+		return mazeType;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return a new maze decoded from the cached walls, the caller may
+	 * change it
+	 */
+	public Maze getMaze() {
+		return MazeBinaryFile.decode(getMazeBytes()).getMaze();
+	}
+
+	/**
+	 * @return the maze in the <code>MazeBinaryFile</code> format
+	 */
+	public ByteBuffer getMazeBytes() {
+		return ByteBuffer.wrap(mazeBytes).asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return true if the text of the maze is cached
+	 */
+	public boolean isRendered() {
+		return renderedBytes != null;
+	}
+
+	/**
+	 * @return the text of the maze, null if it is not cached
+	 */
+	public ByteBuffer getRenderedBytes() {
+		return renderedBytes == null ? null : ByteBuffer.wrap(renderedBytes).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Write the maze in the <code>MazeBinaryFile</code> format
+	 * @param outStream the stream to write to
+	 * @throws IOException if the stream can not be written
+	 */
+	public void writeMazeBytes(OutputStream outStream) throws IOException {
+		outStream.write(mazeBytes);
+	}
+
+	/**
+	 * Write the text of the maze
+	 * @param outStream the stream to write to
+	 * @throws IOException if the stream can not be written
+	 * @throws IllegalStateException if the text of the maze is not cached
+	 */
+	public void writeRenderedBytes(OutputStream outStream) throws IOException {
+		if (renderedBytes == null) {
+			throw new IllegalStateException("the maze text is not cached");
+		}
+		outStream.write(renderedBytes);
+	}
+
+	/**
+	 * @return the number of bytes held for the maze, the text if it is cached
+	 * as the binary form is shared with the binary maze, otherwise the
+	 * binary form
+	 */
+	public long getWeight() {
+		return renderedBytes == null ? mazeBytes.length : renderedBytes.length;
+	}
+
+	@Override
+	public String toString() {
+		return mazeType + " " + rows + "x" + columns + " seed " + seed;
+	}
+}
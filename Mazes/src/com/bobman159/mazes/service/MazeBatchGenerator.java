@@ -0,0 +1,232 @@
+package com.bobman159.mazes.service;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.bobman159.mazes.IMazeGenerator;
+
+/**
+ * Generates many mazes concurrently.
+ * <p>
+ * Each request is generated by it's own generator and maze, generators share
+ * no mutable state so requests can run on any thread.  The default executor
+ * runs each request on a virtual thread when the JVM supports them (Java 21
+ * and later) and on a fixed pool with one thread per processor otherwise.
+ * <p>
+ * At most <code>maxInFlight</code> requests are queued or running at once,
+ * counting the requests of <code>submit</code> and of every stream from
+ * <code>generateInCompletionOrder</code>.  <code>submit</code> blocks the
+ * caller until a request completes when the limit is reached, a stream
+ * waits for it's own requests first and only blocks for a request when it
+ * has none running.
+ */
+public class MazeBatchGenerator implements AutoCloseable {
+
+	private final ExecutorService executor;
+	private final boolean ownsExecutor;
+	private final int maxInFlight;
+	private final Semaphore inFlightPermits;
+
+	/**
+	 * Create a batch generator using the default executor
+	 * @param maxInFlight the maximum number of requests queued or running
+	 */
+	public MazeBatchGenerator(int maxInFlight) {
+		this(createDefaultExecutor(),true,maxInFlight);
+	}
+
+	/**
+	 * Create a batch generator using an executor owned by the caller, the
+	 * executor is not shut down by <code>close</code>.
+	 * @param executor the executor that generates the mazes
+	 * @param maxInFlight the maximum number of requests queued or running
+	 */
+	public MazeBatchGenerator(ExecutorService executor, int maxInFlight) {
+		this(executor,false,maxInFlight);
+	}
+
+	private MazeBatchGenerator(ExecutorService executor, boolean ownsExecutor, int maxInFlight) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("maxInFlight must be greater than 0");
+		}
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.maxInFlight = maxInFlight;
+		inFlightPermits = new Semaphore(maxInFlight);
+	}
+
+	/**
+	 * Submit a request, blocking while <code>maxInFlight</code> requests are
+	 * already queued or running.
+	 * @param request the maze to generate
+	 * @return a future completed with the generator holding the created maze
+	 * @throws InterruptedException if interrupted while waiting for a request
+	 * to complete
+	 */
+	public CompletableFuture<IMazeGenerator> submit(MazeRequest request) throws InterruptedException {
+
+		inFlightPermits.acquire();
+		try {
+			CompletableFuture<IMazeGenerator> generatedMaze =
+					CompletableFuture.supplyAsync(request::createMaze, executor);
+			generatedMaze.whenComplete((mazeGenerator, failure) -> inFlightPermits.release());
+			return generatedMaze;
+		} catch (RuntimeException submitFailed) {
+			inFlightPermits.release();
+			throw submitFailed;
+		}
+	}
+
+	/**
+	 * Submit a batch of requests
+	 * @param requests the mazes to generate
+	 * @return a future for each request, in the order of the requests
+	 * @throws InterruptedException if interrupted while waiting for a request
+	 * to complete
+	 */
+	public List<CompletableFuture<IMazeGenerator>> submitAll(Collection<MazeRequest> requests)
+			throws InterruptedException {
+
+		List<CompletableFuture<IMazeGenerator>> generatedMazes = new ArrayList<>(requests.size());
+		for (MazeRequest request : requests) {
+			generatedMazes.add(submit(request));
+		}
+		return generatedMazes;
+	}
+
+	/**
+	 * Generate a batch of requests returning the mazes in the order they are
+	 * completed.  Requests are submitted as the stream is consumed, so at
+	 * most <code>maxInFlight</code> mazes of the stream are being generated
+	 * or waiting to be consumed at any time, and it's running requests count
+	 * against the same limit as <code>submit</code>.  A failed request fails
+	 * the stream with a <code>CompletionException</code>, as does an
+	 * interrupt while waiting for a request.
+	 * @param requests the mazes to generate
+	 * @return a stream of the generators holding the created mazes
+	 */
+	public Stream<IMazeGenerator> generateInCompletionOrder(Collection<MazeRequest> requests) {
+		Iterator<IMazeGenerator> completedMazes = new CompletionOrderIterator(requests);
+		return StreamSupport.stream(Spliterators.spliterator(completedMazes, requests.size(),
+				Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Shut down the default executor, an executor given by the caller is left
+	 * running.
+	 */
+	@Override
+	public void close() {
+		if (ownsExecutor) {
+			executor.shutdown();
+		}
+	}
+
+	/*
+	 * Use a virtual thread per task when running on a JVM that has them,
+	 * found by reflection so the project still builds for older Java versions.
+	 */
+	private static ExecutorService createDefaultExecutor() {
+		try {
+			Method newVirtualThreadExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) newVirtualThreadExecutor.invoke(null);
+		} catch (ReflectiveOperationException noVirtualThreads) {
+			return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new BatchThreadFactory());
+		}
+	}
+
+	/*
+	 * Keeps up to maxInFlight requests running and hands out the results as
+	 * they complete.  Each request holds one of the shared in flight permits
+	 * until it completes, more requests are only started while permits are
+	 * free so a stream never waits for a permit while it's own results are
+	 * pending.
+	 */
+	private class CompletionOrderIterator implements Iterator<IMazeGenerator> {
+
+		private final Iterator<MazeRequest> pendingRequests;
+		private final BlockingQueue<CompletableFuture<IMazeGenerator>> completedMazes =
+				new LinkedBlockingQueue<>();
+		private int running;
+
+		CompletionOrderIterator(Collection<MazeRequest> requests) {
+			pendingRequests = requests.iterator();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return running > 0 || pendingRequests.hasNext();
+		}
+
+		@Override
+		public IMazeGenerator next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			try {
+				while (running < maxInFlight && pendingRequests.hasNext()) {
+					if (running == 0) {
+						inFlightPermits.acquire();
+					} else if (!inFlightPermits.tryAcquire()) {
+						break;
+					}
+					startRequest(pendingRequests.next());
+					running++;
+				}
+				CompletableFuture<IMazeGenerator> generatedMaze = completedMazes.take();
+				running--;
+				return generatedMaze.get();
+			} catch (InterruptedException interrupted) {
+				Thread.currentThread().interrupt();
+				throw new CompletionException(interrupted);
+			} catch (ExecutionException failed) {
+				throw new CompletionException(failed.getCause());
+			}
+		}
+
+		private void startRequest(MazeRequest request) {
+			try {
+				CompletableFuture<IMazeGenerator> generatedMaze =
+						CompletableFuture.supplyAsync(request::createMaze, executor);
+				generatedMaze.whenComplete((mazeGenerator, failure) -> {
+					inFlightPermits.release();
+					completedMazes.add(generatedMaze);
+				});
+			} catch (RuntimeException submitFailed) {
+				inFlightPermits.release();
+				throw submitFailed;
+			}
+		}
+	}
+
+	private static class BatchThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "maze-batch-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,308 @@
+package com.bobman159.mazes.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeBinaryFile;
+import com.bobman159.mazes.MazeChannelWriter;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.MazeWriterConfiguration;
+
+/**
+ * A cache of generated mazes keyed by the maze type, size and seed, and for
+ * mazes cached as text the <code>MazeWriterConfiguration</code> they were
+ * written with.  The same key always generates the same maze, so repeated
+ * requests such as a daily maze or a shared seed are generated and written
+ * once.
+ * <p>
+ * Each key maps to a future of it's <code>CachedMaze</code>.  The first
+ * caller to miss puts the future in the map and generates the maze on it's
+ * own thread, callers asking for the same key meanwhile wait for that future
+ * instead of generating the maze again.  Lookups of cached mazes only read
+ * the map and set a flag on the entry, they never lock.  A maze cached as
+ * text is written from the binary maze of the same key, which is looked up
+ * (and cached) first.
+ * <p>
+ * The cache holds at most <code>maximumWeight</code> bytes, the weight of a
+ * binary maze is the size of it's binary form and the weight of a maze cached
+ * as text is the size of it's text.  The binary form is shared with the
+ * binary maze and counted only with it, if the binary maze is evicted first
+ * it stays held uncounted but it is a small part of the text.  Mazes are
+ * evicted in about least recently used order using the CLOCK approximation:
+ * cached mazes are queued in the order they were added and a maze used since
+ * it was queued is queued again once instead of evicted.  Only callers
+ * adding a maze take the eviction lock.  A maze heavier than the whole cache is
+ * returned to the callers waiting for it but is not kept.
+ */
+public class MazeCache {
+
+	private final long maximumWeight;
+	private final ConcurrentHashMap<Key, CacheEntry> mazes = new ConcurrentHashMap<>();
+	private final ConcurrentLinkedQueue<CacheEntry> evictionQueue = new ConcurrentLinkedQueue<>();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private final AtomicLong weight = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param maximumWeight the maximum number of bytes of mazes to keep
+	 */
+	public MazeCache(long maximumWeight) {
+		if (maximumWeight <= 0) {
+			throw new IllegalArgumentException("maximumWeight must be greater than 0");
+		}
+		this.maximumWeight = maximumWeight;
+	}
+
+	/**
+	 * Get a maze in it's binary form, generating it if it is not cached
+	 * @param mazeType the type of maze generation algorithm to use
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 * @return the cached maze
+	 * @throws java.util.concurrent.CompletionException if the maze was being
+	 * generated by another caller and that failed
+	 */
+	public CachedMaze getMaze(MazeType mazeType, int rows, int columns, long seed) {
+		return get(new Key(mazeType,rows,columns,seed,null));
+	}
+
+	/**
+	 * Get a maze with it's text, generating and writing it if it is not
+	 * cached.  The configuration is copied when the maze is cached, changing
+	 * it afterwards does not change the cached text.
+	 * @param mazeType the type of maze generation algorithm to use
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 * @param configuration the characters and cell sizes to write with
+	 * @return the cached maze
+	 * @throws java.util.concurrent.CompletionException if the maze was being
+	 * generated by another caller and that failed
+	 */
+	public CachedMaze getRenderedMaze(MazeType mazeType, int rows, int columns, long seed,
+			MazeWriterConfiguration configuration) {
+		Objects.requireNonNull(configuration, "configuration");
+		return get(new Key(mazeType,rows,columns,seed,configuration));
+	}
+
+	public long getMaximumWeight() {
+		return maximumWeight;
+	}
+
+	/**
+	 * @return the number of bytes of mazes cached
+	 */
+	public long getWeight() {
+		return weight.get();
+	}
+
+	/**
+	 * @return the number of mazes cached or being generated
+	 */
+	public int getSize() {
+		return mazes.size();
+	}
+
+	/**
+	 * @return the number of lookups that found the maze cached or being
+	 * generated
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that generated the maze
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of mazes evicted to keep the cache under it's
+	 * maximum weight
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	private CachedMaze get(Key key) {
+
+		CacheEntry cacheEntry = mazes.get(key);
+		if (cacheEntry == null) {
+			/* The configuration is copied only when the key is stored */
+			CacheEntry newEntry = new CacheEntry(key.copy());
+			cacheEntry = mazes.putIfAbsent(newEntry.key, newEntry);
+			if (cacheEntry == null) {
+				misses.increment();
+				return generate(newEntry);
+			}
+		}
+		hits.increment();
+		cacheEntry.referenced = true;
+		return cacheEntry.cachedMaze.join();
+	}
+
+	/*
+	 * Generate the maze of an entry on the calling thread, completing the
+	 * entry for the callers waiting on it
+	 */
+	private CachedMaze generate(CacheEntry cacheEntry) {
+
+		CachedMaze cachedMaze;
+		try {
+			Key key = cacheEntry.key;
+			if (key.configuration == null) {
+				cachedMaze = createMaze(key);
+			} else {
+				cachedMaze = renderMaze(key, getMaze(key.mazeType, key.rows, key.columns, key.seed));
+			}
+		} catch (RuntimeException | Error failed) {
+			mazes.remove(cacheEntry.key, cacheEntry);
+			cacheEntry.cachedMaze.completeExceptionally(failed);
+			throw failed;
+		}
+		cacheEntry.cachedMaze.complete(cachedMaze);
+		admit(cacheEntry, cachedMaze.getWeight());
+		return cachedMaze;
+	}
+
+	private CachedMaze createMaze(Key key) {
+
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(key.mazeType, key.rows,
+				key.columns, key.seed);
+		mazeGenerator.createMaze();
+		MazeBinaryFile mazeFile = new MazeBinaryFile(mazeGenerator.getMaze(), key.mazeType);
+		byte[] mazeBytes = new byte[mazeFile.getSizeInBytes()];
+		mazeFile.encode(ByteBuffer.wrap(mazeBytes));
+		return new CachedMaze(key.mazeType, key.rows, key.columns, key.seed, mazeBytes, null);
+	}
+
+	/*
+	 * The rendered maze shares the bytes of the binary maze, neither changes
+	 * them
+	 */
+	private CachedMaze renderMaze(Key key, CachedMaze binaryMaze) {
+
+		Maze maze = binaryMaze.getMaze();
+		ByteArrayOutputStream renderedMaze = new ByteArrayOutputStream();
+		try {
+			new MazeChannelWriter(renderedMaze, maze, key.configuration).writeMaze();
+		} catch (IOException writeFailed) {
+			throw new UncheckedIOException(writeFailed);
+		}
+		return new CachedMaze(key.mazeType, key.rows, key.columns, key.seed,
+				binaryMaze.mazeBytes, renderedMaze.toByteArray());
+	}
+
+	/*
+	 * Count the weight of a generated maze and evict mazes until the cache is
+	 * back under it's maximum weight
+	 */
+	private void admit(CacheEntry cacheEntry, long entryWeight) {
+
+		if (entryWeight > maximumWeight) {
+			mazes.remove(cacheEntry.key, cacheEntry);
+			return;
+		}
+		cacheEntry.weight = entryWeight;
+		weight.addAndGet(entryWeight);
+		evictionQueue.add(cacheEntry);
+		if (weight.get() <= maximumWeight) {
+			return;
+		}
+
+		evictionLock.lock();
+		try {
+			/* Every maze used since it was queued gets one second chance */
+			int secondChances = mazes.size();
+			while (weight.get() > maximumWeight) {
+				CacheEntry oldestEntry = evictionQueue.poll();
+				if (oldestEntry == null) {
+					break;
+				}
+				if (oldestEntry.referenced && secondChances > 0) {
+					oldestEntry.referenced = false;
+					secondChances--;
+					evictionQueue.add(oldestEntry);
+					continue;
+				}
+				mazes.remove(oldestEntry.key, oldestEntry);
+				weight.addAndGet(-oldestEntry.weight);
+				evictions.increment();
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private static class CacheEntry {
+
+		private final Key key;
+		private final CompletableFuture<CachedMaze> cachedMaze = new CompletableFuture<>();
+		private volatile boolean referenced;
+		private long weight;
+
+		CacheEntry(Key key) {
+			this.key = key;
+		}
+	}
+
+	private static class Key {
+
+		private final MazeType mazeType;
+		private final int rows;
+		private final int columns;
+		private final long seed;
+		/* null for the binary maze */
+		private final MazeWriterConfiguration configuration;
+
+		Key(MazeType mazeType, int rows, int columns, long seed,
+				MazeWriterConfiguration configuration) {
+			this.mazeType = Objects.requireNonNull(mazeType, "mazeType");
+			this.rows = rows;
+			this.columns = columns;
+			this.seed = seed;
+			this.configuration = configuration;
+		}
+
+		Key copy() {
+			return configuration == null ? this : new Key(mazeType,rows,columns,seed,
+					new MazeWriterConfiguration(configuration));
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			Key otherKey = (Key) other;
+			return mazeType == otherKey.mazeType && rows == otherKey.rows &&
+				   columns == otherKey.columns && seed == otherKey.seed &&
+				   Objects.equals(configuration, otherKey.configuration);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(mazeType,rows,columns,seed,configuration);
+		}
+	}
+}
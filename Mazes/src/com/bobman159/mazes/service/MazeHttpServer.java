@@ -0,0 +1,380 @@
+package com.bobman159.mazes.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeBinaryFile;
+import com.bobman159.mazes.MazeChannelWriter;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.MazeSvgWriter;
+import com.bobman159.mazes.MazeWriterConfiguration;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A small HTTP service that generates mazes, using the JDK's
+ * <code>com.sun.net.httpserver</code>.  Mazes are requested with
+ * <pre>
+ * GET /maze?algorithm=PRIMS&amp;rows=20&amp;columns=20&amp;seed=42&amp;format=text
+ * </pre>
+ * Every parameter is optional.  The algorithm is a <code>MazeType</code>
+ * name in any case and defaults to PRIMS, the size defaults to 20 by 20 and
+ * the format is <code>text</code> (the default), <code>binary</code>
+ * (<code>MazeBinaryFile</code>) or <code>svg</code>.  Without a seed the maze
+ * gets a random seed, the seed used is returned in the
+ * <code>X-Maze-Seed</code> header.  Bad parameters get a 400 response.
+ * <p>
+ * Each request runs on it's own virtual thread when the JVM supports them
+ * (Java 21 and later) and on a fixed pool of threads otherwise.  Text and
+ * SVG are written by their writers straight to the response body in blocks,
+ * the maze is never built as a string.  Seeded mazes are taken from a
+ * <code>MazeCache</code> when the server is given one.  Mazes without a seed
+ * are taken from a <code>MazePregenerationPool</code> when the server is
+ * given one and their type and size were warmed, other sizes are generated
+ * when requested.
+ * <p>
+ * The JDK server sends the headers and the body of a response separately,
+ * without TCP_NODELAY every response waits for the client's delayed ACK.
+ * TCP_NODELAY is a JVM wide setting of the application, the
+ * <code>sun.net.httpserver.nodelay</code> system property, read when the
+ * first server in the JVM is created.  <code>main</code> turns it on,
+ * applications embedding the server set it themselves, for example with
+ * <code>-Dsun.net.httpserver.nodelay=true</code>.
+ */
+public class MazeHttpServer implements AutoCloseable {
+
+	public static final String MAZE_PATH = "/maze";
+	public static final int DEFAULT_PORT = 8080;
+	/**
+	 * The largest maze that can be requested, about 1MB as binary
+	 */
+	public static final int MAXIMUM_CELLS = 1 << 22;
+
+	private static final MazeType DEFAULT_MAZE_TYPE = MazeType.PRIMS;
+	private static final int DEFAULT_SIZE = 20;
+	/* Connections waiting to be accepted */
+	private static final int BACKLOG = 1024;
+	/* Request threads per processor when there are no virtual threads */
+	private static final int THREADS_PER_PROCESSOR = 4;
+	private static final String SEED_HEADER = "X-Maze-Seed";
+	private static final String BINARY_CONTENT_TYPE = "application/octet-stream";
+	/* Read by the JDK server when the first server is created */
+	private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+	private enum Format {TEXT, BINARY, SVG}
+
+	private final HttpServer httpServer;
+	private final ExecutorService requestExecutor;
+	private final MazeCache mazeCache;
+	private final MazePregenerationPool pregenerationPool;
+	private final MazeWriterConfiguration configuration = new MazeWriterConfiguration();
+	private final String textContentType = "text/plain; charset=" + Charset.defaultCharset().name();
+	private Logger logger = LogManager.getLogger(MazeHttpServer.class);
+
+	/**
+	 * Create a server that generates every maze when it is requested
+	 * @param address the address and port to listen on, port 0 for any free
+	 * port
+	 * @throws IOException if the server can not listen on the address
+	 */
+	public MazeHttpServer(InetSocketAddress address) throws IOException {
+		this(address,null,null);
+	}
+
+	/**
+	 *
+	 * @param address the address and port to listen on, port 0 for any free
+	 * port
+	 * @param mazeCache the cache of seeded mazes, null to generate every
+	 * seeded maze
+	 * @param pregenerationPool the ready mazes for requests without a seed
+	 * of the types and sizes warmed in it, null to generate them when
+	 * requested
+	 * @throws IOException if the server can not listen on the address
+	 */
+	public MazeHttpServer(InetSocketAddress address, MazeCache mazeCache,
+			MazePregenerationPool pregenerationPool) throws IOException {
+		this.mazeCache = mazeCache;
+		this.pregenerationPool = pregenerationPool;
+		httpServer = HttpServer.create(address, BACKLOG);
+		requestExecutor = createRequestExecutor();
+		httpServer.setExecutor(requestExecutor);
+		httpServer.createContext(MAZE_PATH, this::handleMazeRequest);
+	}
+
+	/**
+	 * Start accepting requests, on a background thread
+	 */
+	public void start() {
+		httpServer.start();
+		logger.log(Level.INFO, "Maze server listening on {}", getAddress());
+	}
+
+	/**
+	 * @return the address the server listens on, with the port chosen when
+	 * it was created with port 0
+	 */
+	public InetSocketAddress getAddress() {
+		return httpServer.getAddress();
+	}
+
+	/**
+	 * Stop accepting requests and stop the request threads, requests being
+	 * handled are cut off.  The cache and the pregeneration pool are left
+	 * open.
+	 */
+	@Override
+	public void close() {
+		httpServer.stop(0);
+		requestExecutor.shutdown();
+	}
+
+	/**
+	 * Run a maze server until the JVM is stopped, with TCP_NODELAY unless
+	 * the <code>sun.net.httpserver.nodelay</code> property is set
+	 * @param args the port to listen on, 8080 if not given
+	 * @throws IOException if the server can not listen on the port
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+			System.setProperty(NO_DELAY_PROPERTY, "true");
+		}
+		new MazeHttpServer(new InetSocketAddress(port)).start();
+	}
+
+	private void handleMazeRequest(HttpExchange exchange) throws IOException {
+
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Allow", "GET");
+				sendError(exchange, 405, "only GET is supported");
+				return;
+			}
+			if (!MAZE_PATH.equals(exchange.getRequestURI().getPath())) {
+				sendError(exchange, 404, "not found");
+				return;
+			}
+			MazeQuery mazeQuery;
+			try {
+				mazeQuery = new MazeQuery(exchange.getRequestURI().getRawQuery());
+			} catch (IllegalArgumentException badQuery) {
+				sendError(exchange, 400, badQuery.getMessage());
+				return;
+			}
+			sendMaze(exchange, mazeQuery);
+		} catch (RuntimeException failed) {
+			logger.log(Level.ERROR, "Unable to handle {}", exchange.getRequestURI(), failed);
+			if (exchange.getResponseCode() == -1) {
+				sendError(exchange, 500, "the maze could not be generated");
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void sendMaze(HttpExchange exchange, MazeQuery mazeQuery) throws IOException {
+
+		Headers responseHeaders = exchange.getResponseHeaders();
+		OutputStream responseBody = exchange.getResponseBody();
+		if (mazeQuery.hasSeed && mazeCache != null && mazeQuery.format != Format.SVG) {
+			/* The cached bytes are written as they are, their length is known */
+			responseHeaders.set(SEED_HEADER, Long.toString(mazeQuery.seed));
+			if (mazeQuery.format == Format.TEXT) {
+				CachedMaze cachedMaze = mazeCache.getRenderedMaze(mazeQuery.mazeType, mazeQuery.rows,
+						mazeQuery.columns, mazeQuery.seed, configuration);
+				responseHeaders.set("Content-Type", textContentType);
+				exchange.sendResponseHeaders(200, cachedMaze.getRenderedBytes().remaining());
+				cachedMaze.writeRenderedBytes(responseBody);
+			} else {
+				CachedMaze cachedMaze = mazeCache.getMaze(mazeQuery.mazeType, mazeQuery.rows,
+						mazeQuery.columns, mazeQuery.seed);
+				responseHeaders.set("Content-Type", BINARY_CONTENT_TYPE);
+				exchange.sendResponseHeaders(200, cachedMaze.getMazeBytes().remaining());
+				cachedMaze.writeMazeBytes(responseBody);
+			}
+			return;
+		}
+
+		Maze maze = createMaze(mazeQuery);
+		responseHeaders.set(SEED_HEADER, Long.toString(maze.getSeed()));
+		switch (mazeQuery.format) {
+			case BINARY:
+				MazeBinaryFile mazeFile = new MazeBinaryFile(maze, mazeQuery.mazeType);
+				byte[] mazeBytes = new byte[mazeFile.getSizeInBytes()];
+				mazeFile.encode(ByteBuffer.wrap(mazeBytes));
+				responseHeaders.set("Content-Type", BINARY_CONTENT_TYPE);
+				exchange.sendResponseHeaders(200, mazeBytes.length);
+				responseBody.write(mazeBytes);
+				break;
+			case SVG:
+				responseHeaders.set("Content-Type", "image/svg+xml");
+				exchange.sendResponseHeaders(200, 0);
+				new MazeSvgWriter(maze).writeSvg(responseBody);
+				break;
+			default:
+				responseHeaders.set("Content-Type", textContentType);
+				exchange.sendResponseHeaders(200, 0);
+				new MazeChannelWriter(responseBody, maze, configuration).writeMaze();
+				break;
+		}
+	}
+
+	private Maze createMaze(MazeQuery mazeQuery) {
+
+		IMazeGenerator mazeGenerator;
+		if (!mazeQuery.hasSeed && pregenerationPool != null && pregenerationPool.isWarmed(
+				mazeQuery.mazeType, mazeQuery.rows, mazeQuery.columns)) {
+			mazeGenerator = pregenerationPool.take(mazeQuery.mazeType, mazeQuery.rows, mazeQuery.columns);
+		} else {
+			long seed = mazeQuery.hasSeed ? mazeQuery.seed : new SplittableRandom().nextLong();
+			mazeGenerator = MazeFactory.createMazeGenerator(mazeQuery.mazeType, mazeQuery.rows,
+					mazeQuery.columns, seed);
+			mazeGenerator.createMaze();
+		}
+		return mazeGenerator.getMaze();
+	}
+
+	private void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
+		byte[] messageBytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+		exchange.sendResponseHeaders(statusCode, messageBytes.length);
+		exchange.getResponseBody().write(messageBytes);
+	}
+
+	/*
+	 * Use a virtual thread per request when running on a JVM that has them,
+	 * found by reflection so the project still builds for older Java versions.
+	 */
+	private static ExecutorService createRequestExecutor() {
+		try {
+			Method newVirtualThreadExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) newVirtualThreadExecutor.invoke(null);
+		} catch (ReflectiveOperationException noVirtualThreads) {
+			return Executors.newFixedThreadPool(
+					Runtime.getRuntime().availableProcessors() * THREADS_PER_PROCESSOR,
+					new RequestThreadFactory());
+		}
+	}
+
+	/*
+	 * The parameters of a maze request
+	 */
+	private static class MazeQuery {
+
+		private MazeType mazeType = DEFAULT_MAZE_TYPE;
+		private int rows = DEFAULT_SIZE;
+		private int columns = DEFAULT_SIZE;
+		private boolean hasSeed;
+		private long seed;
+		private Format format = Format.TEXT;
+
+		/**
+		 * @param rawQuery the query of the request URI, still URL encoded,
+		 * null if there is none
+		 * @throws IllegalArgumentException if a parameter is not valid
+		 */
+		MazeQuery(String rawQuery) {
+
+			if (rawQuery != null && !rawQuery.isEmpty()) {
+				for (String parameter : rawQuery.split("&")) {
+					int equals = parameter.indexOf('=');
+					String name = decode(equals < 0 ? parameter : parameter.substring(0, equals));
+					String value = equals < 0 ? "" : decode(parameter.substring(equals + 1));
+					setParameter(name, value);
+				}
+			}
+			if ((long) rows * columns > MAXIMUM_CELLS) {
+				throw new IllegalArgumentException("a maze can have at most " + MAXIMUM_CELLS
+						+ " cells");
+			}
+		}
+
+		private void setParameter(String name, String value) {
+			switch (name) {
+				case "algorithm":
+					mazeType = parseName(MazeType.class, name, value);
+					break;
+				case "rows":
+					rows = parseSize(name, value);
+					break;
+				case "columns":
+					columns = parseSize(name, value);
+					break;
+				case "seed":
+					try {
+						seed = Long.parseLong(value);
+					} catch (NumberFormatException notNumber) {
+						throw new IllegalArgumentException("seed can not be " + value);
+					}
+					hasSeed = true;
+					break;
+				case "format":
+					format = parseName(Format.class, name, value);
+					break;
+				default:
+					throw new IllegalArgumentException("unknown parameter " + name);
+			}
+		}
+
+		private static <E extends Enum<E>> E parseName(Class<E> enumClass, String name, String value) {
+			try {
+				return Enum.valueOf(enumClass, value.toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException unknownName) {
+				throw new IllegalArgumentException(name + " can not be " + value);
+			}
+		}
+
+		private static int parseSize(String name, String value) {
+			int size;
+			try {
+				size = Integer.parseInt(value);
+			} catch (NumberFormatException notNumber) {
+				throw new IllegalArgumentException(name + " can not be " + value);
+			}
+			/* Maze picks it's random starting cell with nextInt(rows - 1) and
+			 * nextInt(columns - 1) and the entrance and exit with
+			 * nextInt(columns - 1), which throw for a single row or column */
+			if (size < 2) {
+				throw new IllegalArgumentException(name + " must be at least 2");
+			}
+			return size;
+		}
+
+		private static String decode(String encoded) {
+			return URLDecoder.decode(encoded, StandardCharsets.UTF_8);
+		}
+	}
+
+	private static class RequestThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "maze-http-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,374 @@
+package com.bobman159.mazes.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.monitor.MazePoolMetrics;
+import com.bobman159.mazes.monitor.MazePoolMetricsMBean;
+
+/**
+ * Keeps mazes with random seeds generated ahead of time, so a caller that
+ * does not need a particular seed gets a maze without waiting for
+ * <code>createMaze</code>.
+ * <p>
+ * Only the maze types and sizes given to <code>warm</code> are generated
+ * ahead, a take of any other type or size generates the maze on the
+ * caller's thread and keeps nothing for it, so callers can not grow the
+ * pool by asking for new sizes.  The ready mazes of each warmed type and
+ * size are kept in a bounded queue, taking a maze is a poll of the queue.
+ * Every take asks for the queue to be refilled in the background, at most
+ * one refill runs for each type and size.  When the queue is empty the maze
+ * is generated on the caller's thread and counted as a starved take.
+ * <p>
+ * The queue is filled up to <code>maximumReadyMazes</code> until the rate
+ * of takes is known, then only to about the number of mazes taken while
+ * twice the time to generate one, so sizes that are rarely asked for keep
+ * few mazes generated.  The metrics of each type and size are registered
+ * with the platform MBean server as a <code>MazePoolMetricsMBean</code>.
+ */
+public class MazePregenerationPool implements AutoCloseable {
+
+	/**
+	 * The domain and type of the registered MBeans, the pool number, maze
+	 * type and size are added as keys
+	 */
+	public static final String OBJECT_NAME_PREFIX = "com.bobman159.mazes:type=MazePregenerationPool";
+
+	/* The ready mazes cover the takes during this many generation times */
+	private static final double REFILL_HEADROOM = 2.0;
+	/* The take rate is measured over at least this long, 100ms */
+	private static final long RATE_INTERVAL_NANOS = 100_000_000L;
+	private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+	private final ExecutorService executor;
+	private final boolean ownsExecutor;
+	private final int maximumReadyMazes;
+	private final int poolNumber = POOL_NUMBER.incrementAndGet();
+	private final ConcurrentHashMap<PoolKey, ReadyMazes> pools = new ConcurrentHashMap<>();
+	private volatile boolean closed;
+	private Logger logger = LogManager.getLogger(MazePregenerationPool.class);
+
+	/**
+	 * Create a pool generating in the background on it's own threads, one
+	 * less than the number of processors so a processor is left for the
+	 * callers
+	 * @param maximumReadyMazes the most mazes kept ready for each maze type
+	 * and size
+	 */
+	public MazePregenerationPool(int maximumReadyMazes) {
+		this(Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+				new PregenerationThreadFactory()),true,maximumReadyMazes);
+	}
+
+	/**
+	 * Create a pool generating in the background using an executor owned by
+	 * the caller, the executor is not shut down by <code>close</code>.
+	 * @param executor the executor that generates the mazes
+	 * @param maximumReadyMazes the most mazes kept ready for each maze type
+	 * and size
+	 */
+	public MazePregenerationPool(ExecutorService executor, int maximumReadyMazes) {
+		this(executor,false,maximumReadyMazes);
+	}
+
+	private MazePregenerationPool(ExecutorService executor, boolean ownsExecutor, int maximumReadyMazes) {
+		if (maximumReadyMazes <= 0) {
+			throw new IllegalArgumentException("maximumReadyMazes must be greater than 0");
+		}
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.maximumReadyMazes = maximumReadyMazes;
+	}
+
+	/**
+	 * Keep mazes of a type and size generated ahead, starting now.  Warming
+	 * a type and size again does nothing.
+	 * @param mazeType the type of maze generation algorithm to use
+	 * @param rows the number of rows in the mazes
+	 * @param columns the number of columns in the mazes
+	 * @throws IllegalStateException if the pool is closed
+	 */
+	public void warm(MazeType mazeType, int rows, int columns) {
+		if (rows <= 0 || columns <= 0) {
+			throw new IllegalArgumentException("rows and columns must be greater than 0");
+		}
+		if (closed) {
+			throw new IllegalStateException("the pool is closed");
+		}
+		PoolKey poolKey = new PoolKey(mazeType, rows, columns);
+		requestRefill(pools.computeIfAbsent(poolKey, this::createReadyMazes));
+	}
+
+	/**
+	 * @param mazeType the type of maze generation algorithm
+	 * @param rows the number of rows in the mazes
+	 * @param columns the number of columns in the mazes
+	 * @return true if mazes of the type and size are generated ahead
+	 */
+	public boolean isWarmed(MazeType mazeType, int rows, int columns) {
+		return pools.containsKey(new PoolKey(mazeType, rows, columns));
+	}
+
+	/**
+	 * Take a ready maze, generating it on the calling thread if none are
+	 * ready or the type and size were not warmed
+	 * @param mazeType the type of maze generation algorithm to use
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 * @return the generator holding the created maze, with a random seed
+	 */
+	public IMazeGenerator take(MazeType mazeType, int rows, int columns) {
+
+		ReadyMazes readyMazes = pools.get(new PoolKey(mazeType, rows, columns));
+		if (readyMazes == null) {
+			IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, rows, columns);
+			mazeGenerator.createMaze();
+			return mazeGenerator;
+		}
+		readyMazes.takes.increment();
+		IMazeGenerator mazeGenerator = readyMazes.mazes.poll();
+		readyMazes.metrics.recordTake(mazeGenerator == null);
+		requestRefill(readyMazes);
+		if (mazeGenerator == null) {
+			mazeGenerator = MazeFactory.createMazeGenerator(mazeType, rows, columns);
+			mazeGenerator.createMaze();
+		}
+		return mazeGenerator;
+	}
+
+	/**
+	 * @param mazeType the type of maze generation algorithm
+	 * @param rows the number of rows in the mazes
+	 * @param columns the number of columns in the mazes
+	 * @return the metrics of the maze type and size, null if it has not been
+	 * warmed
+	 */
+	public MazePoolMetricsMBean getMetrics(MazeType mazeType, int rows, int columns) {
+		ReadyMazes readyMazes = pools.get(new PoolKey(mazeType, rows, columns));
+		return readyMazes == null ? null : readyMazes.metrics;
+	}
+
+	/**
+	 * Stop refilling and drop the ready mazes.  The default executor is shut
+	 * down, an executor given by the caller is left running.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		if (ownsExecutor) {
+			executor.shutdown();
+		}
+		MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		for (ReadyMazes readyMazes : pools.values()) {
+			readyMazes.mazes.clear();
+			try {
+				if (mbeanServer.isRegistered(readyMazes.objectName)) {
+					mbeanServer.unregisterMBean(readyMazes.objectName);
+				}
+			} catch (JMException exception) {
+				logger.log(Level.WARN, "Unable to unregister {}", readyMazes.objectName, exception);
+			}
+		}
+	}
+
+	private ReadyMazes createReadyMazes(PoolKey poolKey) {
+
+		ReadyMazes readyMazes = new ReadyMazes(poolKey, maximumReadyMazes);
+		try {
+			readyMazes.objectName = new ObjectName(OBJECT_NAME_PREFIX + ",pool=" + poolNumber
+					+ ",mazeType=" + poolKey.mazeType.name() + ",rows=" + poolKey.rows
+					+ ",columns=" + poolKey.columns);
+			MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+			if (!mbeanServer.isRegistered(readyMazes.objectName)) {
+				mbeanServer.registerMBean(readyMazes.metrics, readyMazes.objectName);
+			}
+		} catch (JMException exception) {
+			/* The metrics are still recorded, only the JMX view is lost */
+			logger.log(Level.WARN, "Unable to register the {} pool metrics MBean", poolKey, exception);
+		}
+		return readyMazes;
+	}
+
+	/*
+	 * Start a refill unless one is running or the queue is already full
+	 * enough
+	 */
+	private void requestRefill(ReadyMazes readyMazes) {
+
+		if (closed || readyMazes.mazes.size() >= readyMazes.targetReadyMazes
+				|| !readyMazes.refilling.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			executor.execute(() -> refill(readyMazes));
+		} catch (RejectedExecutionException rejected) {
+			readyMazes.refilling.set(false);
+		}
+	}
+
+	/*
+	 * Generate mazes until the queue reaches it's target, the only thread
+	 * refilling this queue
+	 */
+	private void refill(ReadyMazes readyMazes) {
+
+		PoolKey poolKey = readyMazes.poolKey;
+		boolean refillFailed = false;
+		try {
+			while (!closed) {
+				updateTargetReadyMazes(readyMazes);
+				if (readyMazes.mazes.size() >= readyMazes.targetReadyMazes) {
+					break;
+				}
+				long startNanos = System.nanoTime();
+				IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(poolKey.mazeType,
+						poolKey.rows, poolKey.columns);
+				mazeGenerator.createMaze();
+				long generationNanos = System.nanoTime() - startNanos;
+				readyMazes.metrics.recordRefill(generationNanos);
+				readyMazes.generationNanos = readyMazes.generationNanos == 0 ? generationNanos
+						: (readyMazes.generationNanos * 3 + generationNanos) / 4;
+				if (!readyMazes.mazes.offer(mazeGenerator)) {
+					break;
+				}
+			}
+		} catch (RuntimeException failed) {
+			/* The next take starts a new refill, the caller generates meanwhile */
+			refillFailed = true;
+			readyMazes.metrics.recordRefillFailure();
+			logger.log(Level.WARN, "Unable to pregenerate a {} maze", poolKey, failed);
+		} finally {
+			readyMazes.refilling.set(false);
+		}
+		/* A take after the last check found the refill still running */
+		if (!refillFailed) {
+			requestRefill(readyMazes);
+		}
+	}
+
+	/*
+	 * Keep enough mazes ready for the takes expected while generating
+	 * REFILL_HEADROOM more, measured from the takes since the last update
+	 */
+	private void updateTargetReadyMazes(ReadyMazes readyMazes) {
+
+		long nowNanos = System.nanoTime();
+		long elapsedNanos = nowNanos - readyMazes.rateStartNanos;
+		if (elapsedNanos < RATE_INTERVAL_NANOS || readyMazes.generationNanos == 0) {
+			return;
+		}
+		long takes = readyMazes.takes.sum();
+		if (!readyMazes.rateMeasured && takes == 0) {
+			/* Warmed and not taken yet, the rate starts with the first take */
+			readyMazes.rateStartNanos = nowNanos;
+			return;
+		}
+		double takesPerNano = (takes - readyMazes.rateStartTakes) / (double) elapsedNanos;
+		readyMazes.takesPerNano = readyMazes.rateMeasured
+				? (readyMazes.takesPerNano + takesPerNano) / 2 : takesPerNano;
+		readyMazes.rateMeasured = true;
+		readyMazes.rateStartNanos = nowNanos;
+		readyMazes.rateStartTakes = takes;
+
+		double takesWhileGenerating = readyMazes.takesPerNano * readyMazes.generationNanos;
+		int targetReadyMazes = (int) Math.ceil(REFILL_HEADROOM * takesWhileGenerating);
+		readyMazes.targetReadyMazes = Math.max(1, Math.min(maximumReadyMazes, targetReadyMazes));
+		readyMazes.metrics.setTargetReadyMazes(readyMazes.targetReadyMazes);
+	}
+
+	/*
+	 * The ready mazes of one maze type and size.  The rate and generation
+	 * time are only changed by the refilling thread.
+	 */
+	private static class ReadyMazes {
+
+		private final PoolKey poolKey;
+		private final ArrayBlockingQueue<IMazeGenerator> mazes;
+		private final MazePoolMetrics metrics;
+		private final AtomicBoolean refilling = new AtomicBoolean();
+		private final LongAdder takes = new LongAdder();
+		private ObjectName objectName;
+		private volatile int targetReadyMazes;
+		private long generationNanos;
+		private double takesPerNano;
+		private boolean rateMeasured;
+		private long rateStartNanos = System.nanoTime();
+		private long rateStartTakes;
+
+		ReadyMazes(PoolKey poolKey, int maximumReadyMazes) {
+			this.poolKey = poolKey;
+			mazes = new ArrayBlockingQueue<>(maximumReadyMazes);
+			metrics = new MazePoolMetrics(poolKey.mazeType, poolKey.rows, poolKey.columns,
+					maximumReadyMazes, mazes::size);
+			targetReadyMazes = maximumReadyMazes;
+		}
+	}
+
+	private static class PoolKey {
+
+		private final MazeType mazeType;
+		private final int rows;
+		private final int columns;
+
+		PoolKey(MazeType mazeType, int rows, int columns) {
+			this.mazeType = Objects.requireNonNull(mazeType, "mazeType");
+			this.rows = rows;
+			this.columns = columns;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof PoolKey)) {
+				return false;
+			}
+			PoolKey otherKey = (PoolKey) other;
+			return mazeType == otherKey.mazeType && rows == otherKey.rows &&
+				   columns == otherKey.columns;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(mazeType,rows,columns);
+		}
+
+		@Override
+		public String toString() {
+			return mazeType + " " + rows + "x" + columns;
+		}
+	}
+
+	private static class PregenerationThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "maze-pregeneration-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.bobman159.mazes.service;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * A request to generate one maze, the maze type, size and seed.
+ */
+public class MazeRequest {
+
+	private final MazeType mazeType;
+	private final int rows;
+	private final int columns;
+	private final long seed;
+	
+	/**
+	 * Request a maze with a random seed
+	 * @param mazeType the type of maze generation algorithm to use
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 */
+	public MazeRequest(MazeType mazeType, int rows, int columns) {
+		this(mazeType,rows,columns,new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * Request a maze 
+	 * @param mazeType the type of maze generation algorithm to use
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 */
+	public MazeRequest(MazeType mazeType, int rows, int columns, long seed) {
+		this.mazeType = Objects.requireNonNull(mazeType, "mazeType");
+		this.rows = rows;
+		this.columns = columns;
+		this.seed = seed;
+	}
+
+	public MazeType getMazeType() {
+		return mazeType;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Create the generator for the request and create the maze, on the 
+	 * calling thread.
+	 * @return the generator holding the created maze
+	 */
+	public IMazeGenerator createMaze() {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType,rows,columns,seed);
+		mazeGenerator.createMaze();
+		return mazeGenerator;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof MazeRequest)) {
+			return false;
+		}
+		MazeRequest otherRequest = (MazeRequest) other;
+		return mazeType == otherRequest.mazeType && rows == otherRequest.rows &&
+			   columns == otherRequest.columns && seed == otherRequest.seed;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(mazeType,rows,columns,seed);
+	}
+
+	@Override
+	public String toString() {
+		return mazeType + " " + rows + "x" + columns + " seed " + seed;
+	}
+}
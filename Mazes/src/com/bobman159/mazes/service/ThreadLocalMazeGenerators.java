@@ -0,0 +1,59 @@
+package com.bobman159.mazes.service;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * Generates mazes with generators kept for each thread, a thread that
+ * generates many mazes of the same size recreates one maze in place instead
+ * of allocating a new maze each time.
+ * <p>
+ * Each thread keeps the last generator of each <code>MazeType</code>, it is
+ * replaced when a maze of a different size is asked for.  The generator
+ * returned, and it's maze, are recreated by the next call on the same thread
+ * for the same type so the caller must be done with the maze before then.
+ * Virtual threads are not reused, the generators are only reused on
+ * platform threads such as the threads of a fixed pool.
+ */
+public class ThreadLocalMazeGenerators {
+
+	private static final MazeType[] MAZE_TYPES = MazeType.values();
+	private static final ThreadLocal<IMazeGenerator[]> GENERATORS =
+			ThreadLocal.withInitial(() -> new IMazeGenerator[MAZE_TYPES.length]);
+
+	private ThreadLocalMazeGenerators() {
+	}
+
+	/**
+	 * Create a maze using the current thread's generator for the type
+	 * @param type the type of maze generation algorithm to use
+	 * @param rows the number of rows in the maze
+	 * @param columns the number of columns in the maze
+	 * @param seed the seed for the maze's random numbers
+	 * @return the generator holding the created maze, valid until the next
+	 * maze of the same type is created on this thread
+	 */
+	public static IMazeGenerator createMaze(MazeType type, int rows, int columns, long seed) {
+
+		IMazeGenerator[] generators = GENERATORS.get();
+		IMazeGenerator mazeGenerator = generators[type.ordinal()];
+		Maze maze = mazeGenerator != null ? mazeGenerator.getMaze() : null;
+		if (maze != null && maze.getRows() == rows && maze.getColumns() == columns) {
+			mazeGenerator.recreateMaze(seed);
+		} else {
+			mazeGenerator = MazeFactory.createMazeGenerator(type, rows, columns, seed);
+			mazeGenerator.createMaze();
+			generators[type.ordinal()] = mazeGenerator;
+		}
+		return mazeGenerator;
+	}
+
+	/**
+	 * Drop the current thread's generators and their mazes
+	 */
+	public static void clear() {
+		GENERATORS.remove();
+	}
+}
@@ -0,0 +1,131 @@
+package com.bobman159.mazes.solve;
+
+import java.util.Arrays;
+
+import com.bobman159.mazes.IMazeGrid;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.Maze.Direction;
+
+/**
+ * The common parts of the maze solvers.  The direction moved to reach each
+ * cell is kept in a byte per cell, the path is rebuilt from it by walking 
+ * back from the end cell.  The buffers are kept and reused by the next solve
+ * of a maze with the same or fewer cells, so a solver is not thread safe.
+ */
+public abstract class AbstractMazeSolver implements IMazeSolver {
+
+	/* The low bits of reachedFrom hold 1 + the ordinal of the direction 
+	 * moved to reach a cell, NOT_REACHED must be 0.  Solvers may keep their
+	 * own state for a cell in the high bits.
+	 */
+	protected static final byte NOT_REACHED = 0;
+	protected static final byte START = 5;
+	protected static final int REACHED_FROM_BITS = 7;
+	protected static final int DIRECTIONS = 4;
+	
+	/* The passage bit back to the cell a cell was reached from, by the 
+	 * reachedFrom value of the cell
+	 */
+	private static final int[] PASSAGE_BACK = {
+			0,
+			1 << Direction.DOWN.ordinal(),
+			1 << Direction.UP.ordinal(),
+			1 << Direction.RIGHT.ordinal(),
+			1 << Direction.LEFT.ordinal(),
+			0};
+	
+	protected IMazeGrid grid;
+	protected int columns;
+	protected byte[] reachedFrom = new byte[0];
+	/* The change in cell index for a move in each direction, by ordinal */
+	protected int[] moveOffsets = new int[DIRECTIONS];
+	
+	@Override
+	public MazePath solve(Maze maze) {
+		
+		if (maze.getEntranceColumn() < 0) {
+			throw new IllegalStateException("the start and end of the maze have not been set");
+		}
+		IMazeGrid mazeGrid = maze.getGrid();
+		return solve(maze, mazeGrid.getCellIndex(0, maze.getEntranceColumn()),
+				mazeGrid.getCellIndex(maze.getRows() - 1, maze.getExitColumn()));
+	}
+	
+	@Override
+	public MazePath solve(Maze maze, int startIndex, int endIndex) {
+		
+		grid = maze.getGrid();
+		columns = grid.getColumns();
+		int cellCount = grid.getCellCount();
+		if (startIndex < 0 || startIndex >= cellCount || endIndex < 0 || endIndex >= cellCount) {
+			throw new IllegalArgumentException("start " + startIndex + " or end " + endIndex
+						+ " is not a cell of the maze");
+		}
+		moveOffsets[Direction.UP.ordinal()] = -columns;
+		moveOffsets[Direction.DOWN.ordinal()] = columns;
+		moveOffsets[Direction.LEFT.ordinal()] = -1;
+		moveOffsets[Direction.RIGHT.ordinal()] = 1;
+		if (reachedFrom.length < cellCount) {
+			reachedFrom = new byte[cellCount];
+		} else {
+			Arrays.fill(reachedFrom, 0, cellCount, NOT_REACHED);
+		}
+		
+		reachedFrom[startIndex] = START;
+		int cellsExplored = search(startIndex, endIndex);
+		if (reachedFrom[endIndex] == NOT_REACHED) {
+			return null;
+		}
+		return new MazePath(buildPath(endIndex), cellCount, cellsExplored);
+	}
+	
+	/**
+	 * Search from the start cell until the end cell is reached or every 
+	 * reachable cell has been explored, setting <code>reachedFrom</code> for
+	 * each cell reached.  The start cell is already marked <code>START</code>.
+	 * @param startIndex the index of the cell to start from
+	 * @param endIndex the index of the cell to end at
+	 * @return the number of cells explored
+	 */
+	protected abstract int search(int startIndex, int endIndex);
+	
+	/**
+	 * @return the passages from a cell to it's neighbors, without the passage
+	 * back to the cell it was reached from
+	 */
+	protected int forwardPassages(int cellIndex, int column) {
+		int from = reachedFrom[cellIndex] & REACHED_FROM_BITS;
+		return grid.getPassages(cellIndex,column) & ~PASSAGE_BACK[from];
+	}
+	
+	/*
+	 * Walk back from the end cell to the start cell, once to count the path 
+	 * length and once to fill in the path.
+	 */
+	private int[] buildPath(int endIndex) {
+		
+		int length = 1;
+		for (int cellIndex = endIndex; (reachedFrom[cellIndex] & REACHED_FROM_BITS) != START; length++) {
+			cellIndex = previousCell(cellIndex);
+		}
+		
+		int[] path = new int[length];
+		int cellIndex = endIndex;
+		for (int step = length - 1; step >= 0; step--) {
+			path[step] = cellIndex;
+			if (step > 0) {
+				cellIndex = previousCell(cellIndex);
+			}
+		}
+		return path;
+	}
+	
+	private int previousCell(int cellIndex) {
+		
+		int from = reachedFrom[cellIndex] & REACHED_FROM_BITS;
+		if (from == NOT_REACHED || from == START) {
+			throw new IllegalStateException("cell " + cellIndex + " has no previous cell");
+		}
+		return cellIndex - moveOffsets[from - 1];
+	}
+}
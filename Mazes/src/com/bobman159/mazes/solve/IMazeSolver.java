@@ -0,0 +1,24 @@
+package com.bobman159.mazes.solve;
+
+import com.bobman159.mazes.Maze;
+
+public interface IMazeSolver {
+
+	/**
+	 * Find the shortest path from the entrance to the exit of a maze
+	 * @param maze the maze to solve, it's start and end must have been set
+	 * @return the path from the entrance cell to the exit cell, null if there
+	 * is no path
+	 */
+	public MazePath solve(Maze maze);
+	
+	/**
+	 * Find the shortest path between two cells of a maze
+	 * @param maze the maze to solve
+	 * @param startIndex the index of the cell to start from
+	 * @param endIndex the index of the cell to end at
+	 * @return the path from the start cell to the end cell, null if there is
+	 * no path
+	 */
+	public MazePath solve(Maze maze, int startIndex, int endIndex);
+}
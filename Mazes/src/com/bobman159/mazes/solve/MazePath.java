@@ -0,0 +1,77 @@
+package com.bobman159.mazes.solve;
+
+/**
+ * A path through a maze, the indexes of the cells from the start cell to the
+ * end cell.
+ */
+public class MazePath {
+
+	private final int[] cellIndexes;
+	private final int cellCount;
+	private final int cellsExplored;
+	private long[] pathCells;
+	
+	/**
+	 * @param cellIndexes the cells of the path in order from the start cell
+	 * @param cellCount the number of cells in the maze
+	 * @param cellsExplored the number of cells the solver explored to find
+	 * the path
+	 */
+	public MazePath(int[] cellIndexes, int cellCount, int cellsExplored) {
+		this.cellIndexes = cellIndexes;
+		this.cellCount = cellCount;
+		this.cellsExplored = cellsExplored;
+	}
+	
+	/**
+	 * @return the number of cells in the path, including the start and end 
+	 * cells
+	 */
+	public int getLength() {
+		return cellIndexes.length;
+	}
+	
+	/**
+	 * @param step the position in the path from 0 to getLength() - 1
+	 * @return the index of the cell at the position
+	 */
+	public int getCellIndex(int step) {
+		return cellIndexes[step];
+	}
+	
+	public int getStartIndex() {
+		return cellIndexes[0];
+	}
+	
+	public int getEndIndex() {
+		return cellIndexes[cellIndexes.length - 1];
+	}
+	
+	/**
+	 * @return the number of cells the solver explored to find the path
+	 */
+	public int getCellsExplored() {
+		return cellsExplored;
+	}
+	
+	/**
+	 * @return a copy of the cell indexes of the path
+	 */
+	public int[] toArray() {
+		return cellIndexes.clone();
+	}
+	
+	/**
+	 * @return true if the cell is on the path, false otherwise
+	 */
+	public boolean isOnPath(int cellIndex) {
+		
+		if (pathCells == null) {
+			pathCells = new long[(int) (((long) cellCount + Long.SIZE - 1) / Long.SIZE)];
+			for (int pathCell : cellIndexes) {
+				pathCells[pathCell >>> 6] |= 1L << pathCell;
+			}
+		}
+		return (pathCells[cellIndex >>> 6] & (1L << cellIndex)) != 0;
+	}
+}
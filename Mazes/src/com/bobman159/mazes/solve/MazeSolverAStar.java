@@ -0,0 +1,142 @@
+package com.bobman159.mazes.solve;
+
+import java.util.Arrays;
+
+/**
+ * Solves a maze with an A* search using the Manhattan distance to the end
+ * cell as the heuristic.
+ * <p>
+ * Every step is between neighboring cells, so the estimated length of a
+ * path through a neighbor (the path length plus the heuristic) is either the
+ * same as the estimate for the cell or 2 more.  The open cells are kept in 
+ * two stacks of cell indexes instead of a general priority heap, one for the
+ * smallest estimate being explored and one for the estimate 2 more.  Taking
+ * the newest cell first breaks ties toward the cell furthest along it's 
+ * path, which follows the corridors of a maze.
+ * <p>
+ * No path lengths are stored.  The length of the path to a cell is it's
+ * estimate less the heuristic, and an open cell's estimate is one of the two
+ * being explored, so one bit per cell (in the <code>reachedFrom</code> byte)
+ * tells them apart.  A cell whose estimate is lowered is pushed again, the
+ * stale entry is skipped because the cell is closed when it is popped.
+ */
+public class MazeSolverAStar extends AbstractMazeSolver {
+
+	private static final int INITIAL_CAPACITY = 1024;
+	/* Cell state kept above the reachedFrom direction bits */
+	private static final int CLOSED = 8;
+	private static final int NEXT_ESTIMATE = 16;
+	/* The change in row and column for a move in each direction, by ordinal
+	 * (UP, DOWN, LEFT, RIGHT)
+	 */
+	private static final int[] ROW_STEPS = {-1, 1, 0, 0};
+	private static final int[] COLUMN_STEPS = {0, 0, -1, 1};
+	
+	/* The open cells as row << 32 | column, saving a divide to find the 
+	 * heuristic for each cell
+	 */
+	private long[] openCells = new long[INITIAL_CAPACITY];
+	private int openCellCount;
+	private long[] nextOpenCells = new long[INITIAL_CAPACITY];
+	private int nextOpenCellCount;
+	private int endRow;
+	private int endColumn;
+	
+	@Override
+	protected int search(int startIndex, int endIndex) {
+		
+		endRow = grid.getCellRow(endIndex);
+		endColumn = grid.getCellColumn(endIndex);
+		
+		int cellsExplored = 0;
+		openCellCount = 0;
+		nextOpenCellCount = 0;
+		int startRow = grid.getCellRow(startIndex);
+		int startColumn = grid.getCellColumn(startIndex);
+		int smallestEstimate = distanceToEnd(startRow, startColumn);
+		reachedFrom[startIndex] = (byte) (START | estimateBit(smallestEstimate));
+		pushOpenCell(startRow, startColumn);
+		while (openCellCount > 0 || nextOpenCellCount > 0) {
+			if (openCellCount == 0) {
+				swapOpenCells();
+				smallestEstimate += 2;
+			}
+			long openCell = openCells[--openCellCount];
+			int row = (int) (openCell >>> 32);
+			int column = (int) openCell;
+			int cellIndex = row * columns + column;
+			int state = reachedFrom[cellIndex];
+			if ((state & CLOSED) != 0) {
+				/* Pushed again after a shorter path to the cell was found */
+				continue;
+			}
+			reachedFrom[cellIndex] = (byte) (state | CLOSED);
+			cellsExplored++;
+			if (cellIndex == endIndex) {
+				break;
+			}
+			
+			int pathLength = smallestEstimate - distanceToEnd(row, column) + 1;
+			int passages = forwardPassages(cellIndex,column);
+			while (passages != 0) {
+				int direction = Integer.numberOfTrailingZeros(passages);
+				passages &= passages - 1;
+				int neighborIndex = cellIndex + moveOffsets[direction];
+				int neighborState = reachedFrom[neighborIndex];
+				int neighborRow = row + ROW_STEPS[direction];
+				int neighborColumn = column + COLUMN_STEPS[direction];
+				boolean sameEstimate = 
+						pathLength + distanceToEnd(neighborRow, neighborColumn) == smallestEstimate;
+				/* Reach a new cell, or an open cell waiting with the larger
+				 * estimate by a shorter path
+				 */
+				if (neighborState == NOT_REACHED 
+						|| (sameEstimate && (neighborState & CLOSED) == 0 
+							&& (neighborState & NEXT_ESTIMATE) != estimateBit(smallestEstimate))) {
+					if (sameEstimate) {
+						reachedFrom[neighborIndex] = (byte) (direction + 1 | estimateBit(smallestEstimate));
+						pushOpenCell(neighborRow, neighborColumn);
+					} else {
+						reachedFrom[neighborIndex] = (byte) (direction + 1 | estimateBit(smallestEstimate + 2));
+						pushNextOpenCell(neighborRow, neighborColumn);
+					}
+				}
+			}
+		}
+		return cellsExplored;
+	}
+	
+	private int distanceToEnd(int row, int column) {
+		return Math.abs(row - endRow) + Math.abs(column - endColumn);
+	}
+	
+	/*
+	 * The estimates being explored differ by 2, so bit 1 of the estimate 
+	 * tells which of them a cell has
+	 */
+	private static int estimateBit(int estimate) {
+		return (estimate & 2) == 0 ? 0 : NEXT_ESTIMATE;
+	}
+	
+	private void pushOpenCell(int row, int column) {
+		if (openCellCount == openCells.length) {
+			openCells = Arrays.copyOf(openCells, openCells.length * 2);
+		}
+		openCells[openCellCount++] = (long) row << 32 | column;
+	}
+	
+	private void pushNextOpenCell(int row, int column) {
+		if (nextOpenCellCount == nextOpenCells.length) {
+			nextOpenCells = Arrays.copyOf(nextOpenCells, nextOpenCells.length * 2);
+		}
+		nextOpenCells[nextOpenCellCount++] = (long) row << 32 | column;
+	}
+	
+	private void swapOpenCells() {
+		long[] swapCells = openCells;
+		openCells = nextOpenCells;
+		openCellCount = nextOpenCellCount;
+		nextOpenCells = swapCells;
+		nextOpenCellCount = 0;
+	}
+}
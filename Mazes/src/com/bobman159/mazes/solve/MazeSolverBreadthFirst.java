@@ -0,0 +1,69 @@
+package com.bobman159.mazes.solve;
+
+/**
+ * Solves a maze with a breadth first search.  The cells waiting to be 
+ * explored are kept in a ring buffer that grows as needed, each entry holds
+ * the cell's row and column (<code>row << 32 | column</code>) which saves a
+ * divide to find the column for each cell explored.
+ */
+public class MazeSolverBreadthFirst extends AbstractMazeSolver {
+
+	private static final int INITIAL_CAPACITY = 1024;
+	/* The change in row and column for a move in each direction, by ordinal
+	 * (UP, DOWN, LEFT, RIGHT)
+	 */
+	private static final int[] ROW_STEPS = {-1, 1, 0, 0};
+	private static final int[] COLUMN_STEPS = {0, 0, -1, 1};
+	
+	/* A power of 2 sized ring buffer */
+	private long[] queue = new long[INITIAL_CAPACITY];
+	private int head;
+	private int tail;
+	
+	@Override
+	protected int search(int startIndex, int endIndex) {
+		
+		int cellsExplored = 0;
+		head = 0;
+		tail = 0;
+		enqueue(grid.getCellRow(startIndex), grid.getCellColumn(startIndex));
+		while (head != tail) {
+			long queuedCell = queue[head];
+			head = (head + 1) & (queue.length - 1);
+			int row = (int) (queuedCell >>> 32);
+			int column = (int) queuedCell;
+			int cellIndex = row * columns + column;
+			cellsExplored++;
+			if (cellIndex == endIndex) {
+				break;
+			}
+			int passages = forwardPassages(cellIndex,column);
+			while (passages != 0) {
+				int direction = Integer.numberOfTrailingZeros(passages);
+				passages &= passages - 1;
+				int neighborIndex = cellIndex + moveOffsets[direction];
+				if (reachedFrom[neighborIndex] == NOT_REACHED) {
+					reachedFrom[neighborIndex] = (byte) (direction + 1);
+					enqueue(row + ROW_STEPS[direction], column + COLUMN_STEPS[direction]);
+				}
+			}
+		}
+		return cellsExplored;
+	}
+	
+	private void enqueue(int row, int column) {
+		
+		queue[tail] = (long) row << 32 | column;
+		tail = (tail + 1) & (queue.length - 1);
+		if (tail == head) {
+			/* Full, unroll the ring into a buffer twice the size */
+			long[] grownQueue = new long[queue.length * 2];
+			int headEntries = queue.length - head;
+			System.arraycopy(queue, head, grownQueue, 0, headEntries);
+			System.arraycopy(queue, 0, grownQueue, headEntries, head);
+			head = 0;
+			tail = queue.length;
+			queue = grownQueue;
+		}
+	}
+}
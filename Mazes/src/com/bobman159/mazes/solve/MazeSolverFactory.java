@@ -0,0 +1,27 @@
+package com.bobman159.mazes.solve;
+
+public class MazeSolverFactory {
+
+	public enum SolverType {BREADTHFIRST, ASTAR}
+	
+	/**
+	 * Creates a maze solver, a solver may be reused for many mazes but not 
+	 * by more than one thread at a time
+	 * @param type the type of maze solving algorithm to use
+	 * @return the new solver
+	 */
+	public static IMazeSolver createMazeSolver(SolverType type) {
+		
+		IMazeSolver mazeSolver = null;
+		switch(type) {
+			case BREADTHFIRST:
+				mazeSolver = new MazeSolverBreadthFirst();
+				break;
+			case ASTAR:
+				mazeSolver = new MazeSolverAStar();
+				break;
+		}
+		
+		return mazeSolver;
+	}
+}
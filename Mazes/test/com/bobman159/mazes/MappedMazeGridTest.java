@@ -0,0 +1,45 @@
+package com.bobman159.mazes;
+
+import static com.bobman159.mazes.MazeAssertions.assertPerfect;
+import static com.bobman159.mazes.MazeAssertions.assertSameMaze;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+class MappedMazeGridTest {
+
+	@TempDir
+	Path tempDirectory;
+
+	@Test
+	void generatesTheSameMazeAsTheHeapGrid() throws IOException {
+		Path gridFile = tempDirectory.resolve("maze.grid");
+		try (MappedMazeGrid mappedGrid = new MappedMazeGrid(300, 257, gridFile)) {
+			Maze mappedMaze = new Maze(mappedGrid, 11);
+			MazeFactory.createParallelMazeGenerator(MazeType.RECURSIVEBACKTRACKER, mappedMaze, 64, 3)
+					.createMaze();
+			Maze heapMaze = new Maze(300, 257, 11);
+			MazeFactory.createParallelMazeGenerator(MazeType.RECURSIVEBACKTRACKER, heapMaze, 64, 3)
+					.createMaze();
+			assertPerfect(mappedMaze);
+			assertSameMaze(heapMaze, mappedMaze);
+			/* The same bitmaps as the heap grid, kept in the file */
+			assertEquals(heapMaze.getGrid().getSizeInBytes(), mappedGrid.getSizeInBytes());
+			assertEquals(Files.size(gridFile), mappedGrid.getSizeInBytes());
+		}
+	}
+
+	@Test
+	void rejectsGridsOfMoreThanIntegerMaxValueCells() {
+		assertThrows(IllegalArgumentException.class,
+				() -> MappedMazeGrid.createTemporary(100_000, 100_000));
+	}
+}
@@ -0,0 +1,112 @@
+package com.bobman159.mazes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+/**
+ * Checks shared by the maze tests
+ */
+public final class MazeAssertions {
+
+	private MazeAssertions() {
+	}
+
+	/**
+	 * Assert a maze is perfect, every cell can be reached from every other
+	 * cell by exactly one path, and it has an entrance in the top row and an
+	 * exit in the bottom row
+	 * @param maze the generated maze
+	 */
+	public static void assertPerfect(Maze maze) {
+
+		IMazeGrid grid = maze.getGrid();
+		int columns = grid.getColumns();
+		int cellCount = grid.getCellCount();
+		long passages = 0;
+		for (int cellIndex = 0; cellIndex < cellCount; cellIndex++) {
+			if (cellIndex % columns < columns - 1 && !grid.hasRightWall(cellIndex)) {
+				passages++;
+			}
+			if (cellIndex + columns < cellCount && !grid.hasBottomWall(cellIndex)) {
+				passages++;
+			}
+		}
+		/* A spanning tree of the cells has one passage less than cells */
+		assertEquals(cellCount - 1, passages, "passages in " + maze);
+
+		int[] distances = getDistances(maze, 0);
+		for (int cellIndex = 0; cellIndex < cellCount; cellIndex++) {
+			assertTrue(distances[cellIndex] >= 0, "cell " + cellIndex + " can not be reached");
+		}
+
+		int entranceColumn = maze.getEntranceColumn();
+		int exitColumn = maze.getExitColumn();
+		assertTrue(entranceColumn >= 0 && entranceColumn < maze.getColumns(), "entrance column");
+		assertTrue(exitColumn >= 0 && exitColumn < maze.getColumns(), "exit column");
+		assertFalse(grid.hasTopWall(grid.getCellIndex(0, entranceColumn)), "entrance is open");
+		assertFalse(grid.hasBottomWall(grid.getCellIndex(maze.getRows() - 1, exitColumn)),
+				"exit is open");
+	}
+
+	/**
+	 * Assert two mazes have the same size, walls, entrance and exit
+	 * @param expected the maze expected
+	 * @param actual the maze to check
+	 */
+	public static void assertSameMaze(Maze expected, Maze actual) {
+
+		assertEquals(expected.getRows(), actual.getRows(), "rows");
+		assertEquals(expected.getColumns(), actual.getColumns(), "columns");
+		assertEquals(expected.getEntranceColumn(), actual.getEntranceColumn(), "entrance column");
+		assertEquals(expected.getExitColumn(), actual.getExitColumn(), "exit column");
+		IMazeGrid expectedGrid = expected.getGrid();
+		IMazeGrid actualGrid = actual.getGrid();
+		for (int cellIndex = 0; cellIndex < expectedGrid.getCellCount(); cellIndex++) {
+			assertEquals(expectedGrid.hasRightWall(cellIndex), actualGrid.hasRightWall(cellIndex),
+					"right wall of cell " + cellIndex);
+			assertEquals(expectedGrid.hasBottomWall(cellIndex), actualGrid.hasBottomWall(cellIndex),
+					"bottom wall of cell " + cellIndex);
+		}
+	}
+
+	/**
+	 * Find the number of steps from a cell to every cell with a plain
+	 * breadth first search
+	 * @param maze the maze to search
+	 * @param startIndex the cell to start from
+	 * @return the steps to each cell, -1 for cells that can not be reached
+	 */
+	public static int[] getDistances(Maze maze, int startIndex) {
+
+		IMazeGrid grid = maze.getGrid();
+		int columns = grid.getColumns();
+		int cellCount = grid.getCellCount();
+		int[] distances = new int[cellCount];
+		Arrays.fill(distances, -1);
+		int[] queue = new int[cellCount];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = startIndex;
+		distances[startIndex] = 0;
+		while (head < tail) {
+			int cellIndex = queue[head++];
+			int column = cellIndex % columns;
+			int[] neighbors = {
+				column < columns - 1 && !grid.hasRightWall(cellIndex) ? cellIndex + 1 : -1,
+				column > 0 && !grid.hasRightWall(cellIndex - 1) ? cellIndex - 1 : -1,
+				cellIndex + columns < cellCount && !grid.hasBottomWall(cellIndex) ? cellIndex + columns : -1,
+				cellIndex >= columns && !grid.hasBottomWall(cellIndex - columns) ? cellIndex - columns : -1
+			};
+			for (int neighbor : neighbors) {
+				if (neighbor >= 0 && distances[neighbor] < 0) {
+					distances[neighbor] = distances[cellIndex] + 1;
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return distances;
+	}
+}
@@ -0,0 +1,130 @@
+package com.bobman159.mazes;
+
+import static com.bobman159.mazes.MazeAssertions.assertSameMaze;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+class MazeBinaryFileTest {
+
+	@TempDir
+	Path tempDirectory;
+
+	@ParameterizedTest
+	@EnumSource(MazeType.class)
+	void encodeAndDecodeRoundTrip(MazeType mazeType) {
+		for (int[] size : new int[][] {{2, 2}, {5, 33}, {31, 64}, {100, 7}}) {
+			Maze maze = createMaze(mazeType, size[0], size[1], 17);
+			MazeBinaryFile mazeFile = new MazeBinaryFile(maze, mazeType);
+			/* Encode after some other bytes to check the positions are used */
+			ByteBuffer buffer = ByteBuffer.allocate(3 + mazeFile.getSizeInBytes() + 5);
+			buffer.position(3);
+			mazeFile.encode(buffer);
+			assertEquals(3 + mazeFile.getSizeInBytes(), buffer.position());
+
+			buffer.position(3);
+			MazeBinaryFile decodedFile = MazeBinaryFile.decode(buffer);
+			assertEquals(3 + mazeFile.getSizeInBytes(), buffer.position());
+			assertEquals(mazeType, decodedFile.getMazeType());
+			assertEquals(maze.getSeed(), decodedFile.getMaze().getSeed());
+			assertSameMaze(maze, decodedFile.getMaze());
+		}
+	}
+
+	@Test
+	void saveAndLoadRoundTrip() throws IOException {
+		Maze maze = createMaze(MazeType.KRUSKALS, 123, 45, -3);
+		Path mazePath = tempDirectory.resolve("maze.bin");
+		MazeBinaryFile mazeFile = new MazeBinaryFile(maze, MazeType.KRUSKALS);
+		mazeFile.save(mazePath);
+		assertEquals(mazeFile.getSizeInBytes(), Files.size(mazePath));
+
+		MazeBinaryFile loadedFile = MazeBinaryFile.load(mazePath);
+		assertEquals(MazeType.KRUSKALS, loadedFile.getMazeType());
+		assertEquals(-3, loadedFile.getMaze().getSeed());
+		assertSameMaze(maze, loadedFile.getMaze());
+	}
+
+	@Test
+	void unknownMazeTypeRoundTrip() {
+		Maze maze = createMaze(MazeType.PRIMS, 4, 4, 1);
+		ByteBuffer buffer = ByteBuffer.allocate(new MazeBinaryFile(maze, null).getSizeInBytes());
+		new MazeBinaryFile(maze, null).encode(buffer);
+		buffer.flip();
+		MazeBinaryFile decodedFile = MazeBinaryFile.decode(buffer);
+		assertNull(decodedFile.getMazeType());
+		assertSameMaze(maze, decodedFile.getMaze());
+	}
+
+	@Test
+	void rejectsBuffersThatAreNotMazes() {
+		Maze maze = createMaze(MazeType.PRIMS, 20, 20, 1);
+		MazeBinaryFile mazeFile = new MazeBinaryFile(maze, MazeType.PRIMS);
+		ByteBuffer buffer = ByteBuffer.allocate(mazeFile.getSizeInBytes());
+		mazeFile.encode(buffer);
+
+		ByteBuffer shortHeader = ByteBuffer.wrap(buffer.array(), 0, MazeBinaryFile.HEADER_SIZE - 1);
+		assertThrows(IllegalArgumentException.class, () -> MazeBinaryFile.decode(shortHeader));
+		ByteBuffer shortWalls = ByteBuffer.wrap(buffer.array(), 0, mazeFile.getSizeInBytes() - 1);
+		assertThrows(IllegalArgumentException.class, () -> MazeBinaryFile.decode(shortWalls));
+
+		byte[] badMagic = buffer.array().clone();
+		badMagic[0] = 'X';
+		assertThrows(IllegalArgumentException.class, () -> MazeBinaryFile.decode(ByteBuffer.wrap(badMagic)));
+		byte[] badVersion = buffer.array().clone();
+		badVersion[4] = 2;
+		assertThrows(IllegalArgumentException.class, () -> MazeBinaryFile.decode(ByteBuffer.wrap(badVersion)));
+
+		/* Header values, offsets from the format in MazeBinaryFile */
+		assertBadHeader(buffer, 8, 0);
+		assertBadHeader(buffer, 12, -5);
+		assertBadHeader(buffer, 24, 20);
+		assertBadHeader(buffer, 24, -2);
+		assertBadHeader(buffer, 28, Integer.MAX_VALUE);
+		assertBadHeader(buffer, 28, -1);
+		/* A huge size is rejected from the header, before a maze is allocated */
+		ByteBuffer hugeHeader = ByteBuffer.wrap(buffer.array().clone(), 0, MazeBinaryFile.HEADER_SIZE)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		hugeHeader.putInt(8, 40_000).putInt(12, 50_000);
+		assertThrows(IllegalArgumentException.class, () -> MazeBinaryFile.decode(hugeHeader));
+		hugeHeader.putInt(8, 400_000);
+		assertThrows(IllegalArgumentException.class, () -> MazeBinaryFile.decode(hugeHeader));
+	}
+
+	@Test
+	void acceptsMazesWithoutAnEntranceAndExit() {
+		Maze maze = new Maze(3, 9, 1);
+		ByteBuffer buffer = ByteBuffer.allocate(new MazeBinaryFile(maze, null).getSizeInBytes());
+		new MazeBinaryFile(maze, null).encode(buffer);
+		buffer.flip();
+		Maze decodedMaze = MazeBinaryFile.decode(buffer).getMaze();
+		assertEquals(-1, decodedMaze.getEntranceColumn());
+		assertEquals(-1, decodedMaze.getExitColumn());
+	}
+
+	private static void assertBadHeader(ByteBuffer mazeBuffer, int offset, int value) {
+		ByteBuffer badHeader = ByteBuffer.wrap(mazeBuffer.array().clone()).order(ByteOrder.LITTLE_ENDIAN);
+		badHeader.putInt(offset, value);
+		assertThrows(IllegalArgumentException.class, () -> MazeBinaryFile.decode(badHeader),
+				"offset " + offset + " value " + value);
+	}
+
+	private static Maze createMaze(MazeType mazeType, int rows, int columns, long seed) {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, rows, columns, seed);
+		mazeGenerator.createMaze();
+		return mazeGenerator.getMaze();
+	}
+}
@@ -0,0 +1,96 @@
+package com.bobman159.mazes;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+
+import org.junit.jupiter.api.Test;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.solve.MazePath;
+import com.bobman159.mazes.solve.MazeSolverFactory;
+import com.bobman159.mazes.solve.MazeSolverFactory.SolverType;
+
+class MazeChannelWriterTest {
+
+	private static final int[][] SIZES = {{2, 2}, {3, 17}, {10, 10}, {50, 300}, {300, 40}};
+
+	@Test
+	void writesTheSameTextAsMazeWriter() throws IOException {
+		for (int[] size : SIZES) {
+			Maze maze = createMaze(size[0], size[1]);
+			for (MazeWriterConfiguration configuration : getConfigurations()) {
+				assertArrayEquals(writeWithMazeWriter(maze, configuration, null),
+						writeWithChannelWriter(maze, configuration, null),
+						size[0] + "x" + size[1]);
+			}
+		}
+	}
+
+	@Test
+	void writesTheSameSolutionPathAsMazeWriter() throws IOException {
+		for (int[] size : SIZES) {
+			Maze maze = createMaze(size[0], size[1]);
+			MazePath solutionPath = MazeSolverFactory.createMazeSolver(SolverType.BREADTHFIRST)
+					.solve(maze);
+			for (MazeWriterConfiguration configuration : getConfigurations()) {
+				assertArrayEquals(writeWithMazeWriter(maze, configuration, solutionPath),
+						writeWithChannelWriter(maze, configuration, solutionPath),
+						size[0] + "x" + size[1]);
+			}
+		}
+	}
+
+	@Test
+	void writesTheSameTextWithAReusedConfiguration() throws IOException {
+		/* The encoded segments of the last configuration are reused */
+		MazeWriterConfiguration configuration = new MazeWriterConfiguration();
+		Maze maze = createMaze(20, 30);
+		byte[] firstText = writeWithChannelWriter(maze, configuration, null);
+		configuration.setCellSeparator('#');
+		assertArrayEquals(writeWithMazeWriter(maze, configuration, null),
+				writeWithChannelWriter(maze, configuration, null));
+		configuration.setCellSeparator('+');
+		assertArrayEquals(firstText, writeWithChannelWriter(maze, configuration, null));
+	}
+
+	private static MazeWriterConfiguration[] getConfigurations() {
+		MazeWriterConfiguration customConfiguration = new MazeWriterConfiguration();
+		customConfiguration.setCellSeparator('#');
+		customConfiguration.setTopBottomWallCharacter('=');
+		customConfiguration.setLeftRightWall('!');
+		customConfiguration.setPathCharacter('*');
+		return new MazeWriterConfiguration[] {new MazeWriterConfiguration(), customConfiguration};
+	}
+
+	private static Maze createMaze(int rows, int columns) {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(MazeType.PRIMS, rows, columns,
+				rows * 1000L + columns);
+		mazeGenerator.createMaze();
+		return mazeGenerator.getMaze();
+	}
+
+	private static byte[] writeWithMazeWriter(Maze maze, MazeWriterConfiguration configuration,
+			MazePath solutionPath) {
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		PrintStream printStream = new PrintStream(text);
+		MazeWriter mazeWriter = new MazeWriter(printStream, maze, configuration);
+		mazeWriter.setSolutionPath(solutionPath);
+		mazeWriter.writeMaze();
+		printStream.flush();
+		return text.toByteArray();
+	}
+
+	private static byte[] writeWithChannelWriter(Maze maze, MazeWriterConfiguration configuration,
+			MazePath solutionPath) throws IOException {
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		MazeChannelWriter mazeWriter = new MazeChannelWriter(Channels.newChannel(text), maze,
+				configuration);
+		mazeWriter.setSolutionPath(solutionPath);
+		mazeWriter.writeMaze();
+		return text.toByteArray();
+	}
+}
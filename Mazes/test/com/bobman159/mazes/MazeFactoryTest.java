@@ -0,0 +1,79 @@
+package com.bobman159.mazes;
+
+import static com.bobman159.mazes.MazeAssertions.assertPerfect;
+import static com.bobman159.mazes.MazeAssertions.assertSameMaze;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+class MazeFactoryTest {
+
+	private static final int[][] SIZES = {{2, 2}, {2, 9}, {9, 2}, {17, 31}, {64, 64}};
+
+	@ParameterizedTest
+	@EnumSource(MazeType.class)
+	void createsPerfectMazes(MazeType mazeType) {
+		for (int[] size : SIZES) {
+			for (long seed = 0; seed < 5; seed++) {
+				IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, size[0],
+						size[1], seed);
+				mazeGenerator.createMaze();
+				Maze maze = mazeGenerator.getMaze();
+				assertEquals(size[0], maze.getRows());
+				assertEquals(size[1], maze.getColumns());
+				assertEquals(seed, mazeGenerator.getSeed());
+				assertPerfect(maze);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(MazeType.class)
+	void sameSeedCreatesSameMaze(MazeType mazeType) {
+		for (long seed : new long[] {0, 42, -7, Long.MAX_VALUE}) {
+			IMazeGenerator firstGenerator = MazeFactory.createMazeGenerator(mazeType, 40, 50, seed);
+			firstGenerator.createMaze();
+			IMazeGenerator secondGenerator = MazeFactory.createMazeGenerator(mazeType, 40, 50, seed);
+			secondGenerator.createMaze();
+			assertSameMaze(firstGenerator.getMaze(), secondGenerator.getMaze());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(MazeType.class)
+	void differentSeedsCreateDifferentMazes(MazeType mazeType) {
+		IMazeGenerator firstGenerator = MazeFactory.createMazeGenerator(mazeType, 40, 50, 1);
+		firstGenerator.createMaze();
+		IMazeGenerator secondGenerator = MazeFactory.createMazeGenerator(mazeType, 40, 50, 2);
+		secondGenerator.createMaze();
+		assertNotEquals(Arrays.toString(getWallWords(firstGenerator.getMaze())),
+				Arrays.toString(getWallWords(secondGenerator.getMaze())));
+	}
+
+	@ParameterizedTest
+	@EnumSource(MazeType.class)
+	void recreatedMazeMatchesNewMaze(MazeType mazeType) {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, 30, 30, 1);
+		mazeGenerator.createMaze();
+		mazeGenerator.recreateMaze(99);
+		IMazeGenerator newGenerator = MazeFactory.createMazeGenerator(mazeType, 30, 30, 99);
+		newGenerator.createMaze();
+		assertEquals(99, mazeGenerator.getSeed());
+		assertSameMaze(newGenerator.getMaze(), mazeGenerator.getMaze());
+	}
+
+	private static long[] getWallWords(Maze maze) {
+		IMazeGrid grid = maze.getGrid();
+		long[] wallWords = new long[grid.getWallWordCount()];
+		for (int wordIndex = 0; wordIndex < wallWords.length; wordIndex++) {
+			wallWords[wordIndex] = grid.getWallWord(wordIndex);
+		}
+		return wallWords;
+	}
+}
@@ -0,0 +1,191 @@
+package com.bobman159.mazes;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+class MazeImageWriterTest {
+
+	/* Column counts that leave part of a group of 8 cells */
+	private static final int[][] SIZES = {{2, 2}, {3, 17}, {13, 37}, {50, 301}, {301, 9}};
+	/* Cell and wall sizes, the cell pitches are not multiples of 8 */
+	private static final int[][] DRAWING_SIZES = {{4, 1}, {3, 3}, {5, 2}, {1, 1}, {6, 5}};
+
+	@Test
+	void drawsTheWallsOfTheGridAsAPng() throws IOException {
+		for (int[] size : SIZES) {
+			Maze maze = createMaze(size[0], size[1]);
+			for (int[] drawingSize : DRAWING_SIZES) {
+				MazeImageConfiguration configuration = createConfiguration(drawingSize);
+				MazeImageWriter imageWriter = new MazeImageWriter(maze, configuration, 3);
+				boolean[][] pixels = readImage(writePng(imageWriter));
+				assertWalls(maze, configuration, pixels);
+			}
+		}
+	}
+
+	@Test
+	void drawsThePbmTheSameAsThePng() throws IOException {
+		for (int[] size : SIZES) {
+			Maze maze = createMaze(size[0], size[1]);
+			for (int[] drawingSize : DRAWING_SIZES) {
+				MazeImageConfiguration configuration = createConfiguration(drawingSize);
+				MazeImageWriter imageWriter = new MazeImageWriter(maze, configuration, 3);
+				boolean[][] pbmPixels = readPbm(writePbm(imageWriter));
+				assertWalls(maze, configuration, pbmPixels);
+				assertPixelsEqual(readImage(writePng(imageWriter)), pbmPixels);
+			}
+		}
+	}
+
+	@Test
+	void drawsTheSameBandsWithAnyParallelism() throws IOException {
+		/* 3 bands of about 1MB */
+		Maze maze = createMaze(1200, 301);
+		MazeImageConfiguration configuration = createConfiguration(new int[] {5, 2});
+		byte[] png = writePng(new MazeImageWriter(maze, configuration, 1));
+		byte[] pbm = writePbm(new MazeImageWriter(maze, configuration, 1));
+		boolean[][] pixels = readImage(png);
+		assertWalls(maze, configuration, pixels);
+		assertPixelsEqual(pixels, readPbm(pbm));
+		for (int parallelism : new int[] {2, 5}) {
+			MazeImageWriter imageWriter = new MazeImageWriter(maze, configuration, parallelism);
+			assertArrayEquals(png, writePng(imageWriter), "parallelism " + parallelism);
+			assertArrayEquals(pbm, writePbm(imageWriter), "parallelism " + parallelism);
+		}
+	}
+
+	@Test
+	void writesOtherFormatsWithImageIO() throws IOException {
+		for (int[] size : new int[][] {{3, 17}, {1200, 301}}) {
+			Maze maze = createMaze(size[0], size[1]);
+			MazeImageConfiguration configuration = createConfiguration(new int[] {3, 3});
+			ByteArrayOutputStream bmp = new ByteArrayOutputStream();
+			new MazeImageWriter(maze, configuration).writeImage("bmp", bmp);
+			assertWalls(maze, configuration, readImage(bmp.toByteArray()));
+		}
+	}
+
+	private static MazeImageConfiguration createConfiguration(int[] drawingSize) {
+		MazeImageConfiguration configuration = new MazeImageConfiguration();
+		configuration.setCellSize(drawingSize[0]);
+		configuration.setWallSize(drawingSize[1]);
+		return configuration;
+	}
+
+	private static Maze createMaze(int rows, int columns) {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(MazeType.PRIMS, rows, columns,
+				rows * 1000L + columns);
+		mazeGenerator.createMaze();
+		return mazeGenerator.getMaze();
+	}
+
+	private static byte[] writePng(MazeImageWriter imageWriter) throws IOException {
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		imageWriter.writePng(png);
+		return png.toByteArray();
+	}
+
+	private static byte[] writePbm(MazeImageWriter imageWriter) throws IOException {
+		ByteArrayOutputStream pbm = new ByteArrayOutputStream();
+		imageWriter.writePbm(pbm);
+		return pbm.toByteArray();
+	}
+
+	/*
+	 * The black pixels of an image decoded by ImageIO, indexed by y then x
+	 */
+	private static boolean[][] readImage(byte[] image) throws IOException {
+		BufferedImage decodedImage = ImageIO.read(new ByteArrayInputStream(image));
+		assertNotNull(decodedImage);
+		boolean[][] pixels = new boolean[decodedImage.getHeight()][decodedImage.getWidth()];
+		for (int y = 0; y < pixels.length; y++) {
+			for (int x = 0; x < pixels[y].length; x++) {
+				pixels[y][x] = (decodedImage.getRGB(x, y) & 0xffffff) == 0;
+			}
+		}
+		return pixels;
+	}
+
+	private static boolean[][] readPbm(byte[] pbm) {
+		int headerEnd = 0;
+		for (int newLines = 0; newLines < 2; headerEnd++) {
+			if (pbm[headerEnd] == '\n') {
+				newLines++;
+			}
+		}
+		String[] header = new String(pbm, 0, headerEnd, StandardCharsets.US_ASCII).split("\\s+");
+		assertEquals("P4", header[0]);
+		int width = Integer.parseInt(header[1]);
+		int height = Integer.parseInt(header[2]);
+		int rowBytes = (width + 7) / 8;
+		assertEquals(headerEnd + height * rowBytes, pbm.length);
+		boolean[][] pixels = new boolean[height][width];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				pixels[y][x] = (pbm[headerEnd + y * rowBytes + x / 8] & (0x80 >>> (x % 8))) != 0;
+			}
+		}
+		return pixels;
+	}
+
+	/*
+	 * Every pixel is black exactly where the grid has a wall or a post
+	 */
+	private static void assertWalls(Maze maze, MazeImageConfiguration configuration,
+			boolean[][] pixels) {
+
+		int cellPitch = configuration.getCellSize() + configuration.getWallSize();
+		int wallSize = configuration.getWallSize();
+		int rows = maze.getRows();
+		int columns = maze.getColumns();
+		String label = rows + "x" + columns + " cell " + configuration.getCellSize() + " wall "
+				+ wallSize;
+		assertEquals(rows * cellPitch + wallSize, pixels.length, label);
+		assertEquals(columns * cellPitch + wallSize, pixels[0].length, label);
+		IMazeGrid grid = maze.getGrid();
+		for (int y = 0; y < pixels.length; y++) {
+			int row = y / cellPitch;
+			boolean wallRow = y % cellPitch < wallSize;
+			for (int x = 0; x < pixels[y].length; x++) {
+				int column = x / cellPitch;
+				boolean wallColumn = x % cellPitch < wallSize;
+				boolean wall;
+				if (wallRow && wallColumn) {
+					wall = true;
+				} else if (wallRow) {
+					wall = row < rows ? grid.hasTopWall(row * columns + column)
+							: grid.hasBottomWall((row - 1) * columns + column);
+				} else if (wallColumn) {
+					wall = column < columns ? grid.hasLeftWall(row * columns + column)
+							: grid.hasRightWall(row * columns + column - 1);
+				} else {
+					wall = false;
+				}
+				if (pixels[y][x] != wall) {
+					fail(label + " pixel " + x + "," + y + " should be " + (wall ? "black" : "white"));
+				}
+			}
+		}
+	}
+
+	private static void assertPixelsEqual(boolean[][] expected, boolean[][] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int y = 0; y < expected.length; y++) {
+			assertArrayEquals(expected[y], actual[y], "pixel row " + y);
+		}
+	}
+}
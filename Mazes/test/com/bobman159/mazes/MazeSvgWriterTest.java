@@ -0,0 +1,198 @@
+package com.bobman159.mazes;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+class MazeSvgWriterTest {
+
+	private static final Pattern SVG_SIZE = Pattern.compile(
+			"<svg [^>]*width=\"(\\d+)\" height=\"(\\d+)\" viewBox=\"([-.\\d]+) ([-.\\d]+) (\\d+) (\\d+)\"");
+	private static final Pattern STROKE_WIDTH = Pattern.compile("stroke-width=\"(\\d+)\"");
+	private static final Pattern PATH = Pattern.compile("<path d=\"M0 0([^\"]*)\"/>");
+	private static final Pattern RUN = Pattern.compile("m(-?\\d+) (-?\\d+)([hv])(\\d+)");
+
+	/* Column counts that leave part of a group of 8 cells */
+	private static final int[][] SIZES = {{2, 2}, {3, 17}, {13, 37}, {50, 301}, {301, 9}};
+	/* Cell and wall sizes, the cell pitches are not multiples of 8 */
+	private static final int[][] DRAWING_SIZES = {{4, 1}, {3, 3}, {5, 2}, {1, 1}, {6, 5}};
+
+	@Test
+	void drawsTheWallsOfTheGrid() throws IOException {
+		for (int[] size : SIZES) {
+			Maze maze = createMaze(size[0], size[1]);
+			for (int[] drawingSize : DRAWING_SIZES) {
+				assertWalls(maze, createConfiguration(drawingSize));
+			}
+		}
+	}
+
+	@Test
+	void splitsLargeMazesIntoManyPaths() throws IOException {
+		Maze maze = createMaze(1200, 301);
+		String svg = writeSvg(maze, new MazeImageConfiguration());
+		Matcher path = PATH.matcher(svg);
+		int paths = 0;
+		while (path.find()) {
+			Matcher run = RUN.matcher(path.group(1));
+			int runs = 0;
+			while (run.find()) {
+				runs++;
+			}
+			assertTrue(runs <= MazeSvgWriter.RUNS_PER_PATH, runs + " runs in a path");
+			paths++;
+		}
+		assertTrue(paths > 1, paths + " paths");
+		assertWalls(maze, new MazeImageConfiguration());
+	}
+
+	@Test
+	void centersTheWallsOnTheCellEdges() throws IOException {
+		Maze maze = createMaze(3, 17);
+		assertViewBox(maze, new int[] {4, 1}, "-0.5");
+		assertViewBox(maze, new int[] {3, 3}, "-1.5");
+		assertViewBox(maze, new int[] {5, 2}, "-1");
+	}
+
+	private static void assertViewBox(Maze maze, int[] drawingSize, String halfWall) throws IOException {
+		MazeImageConfiguration configuration = createConfiguration(drawingSize);
+		String svg = writeSvg(maze, configuration);
+		int cellPitch = configuration.getCellSize() + configuration.getWallSize();
+		String width = String.valueOf(maze.getColumns() * cellPitch + configuration.getWallSize());
+		String height = String.valueOf(maze.getRows() * cellPitch + configuration.getWallSize());
+		Matcher svgSize = SVG_SIZE.matcher(svg);
+		assertTrue(svgSize.find());
+		assertArrayEquals(new String[] {width, height, halfWall, halfWall, width, height},
+				new String[] {svgSize.group(1), svgSize.group(2), svgSize.group(3),
+						svgSize.group(4), svgSize.group(5), svgSize.group(6)});
+		Matcher strokeWidth = STROKE_WIDTH.matcher(svg);
+		assertTrue(strokeWidth.find());
+		assertEquals(configuration.getWallSize(), Integer.parseInt(strokeWidth.group(1)));
+	}
+
+	/*
+	 * Rebuild the walls from the runs of every path and compare them with
+	 * the grid.  Each wall is drawn once, and runs are merged so no run
+	 * starts where another ends.
+	 */
+	private static void assertWalls(Maze maze, MazeImageConfiguration configuration)
+			throws IOException {
+
+		int rows = maze.getRows();
+		int columns = maze.getColumns();
+		int cellPitch = configuration.getCellSize() + configuration.getWallSize();
+		String label = rows + "x" + columns + " cell " + configuration.getCellSize() + " wall "
+				+ configuration.getWallSize();
+		/* The walls above each row and below the last, and left of each column
+		 * and right of the last */
+		boolean[][] horizontalWalls = new boolean[rows + 1][columns];
+		boolean[][] verticalWalls = new boolean[rows][columns + 1];
+		int horizontalRuns = 0;
+		int verticalRuns = 0;
+
+		String svg = writeSvg(maze, configuration);
+		Matcher path = PATH.matcher(svg);
+		while (path.find()) {
+			long penX = 0;
+			long penY = 0;
+			Matcher run = RUN.matcher(path.group(1));
+			int runEnd = 0;
+			while (run.find()) {
+				assertEquals(runEnd, run.start(), label + " unexpected path data");
+				runEnd = run.end();
+				long x = penX + Long.parseLong(run.group(1));
+				long y = penY + Long.parseLong(run.group(2));
+				long length = Long.parseLong(run.group(4));
+				assertEquals(0, x % cellPitch, label);
+				assertEquals(0, y % cellPitch, label);
+				assertEquals(0, length % cellPitch, label);
+				assertTrue(length > 0, label);
+				int column = (int) (x / cellPitch);
+				int row = (int) (y / cellPitch);
+				int cells = (int) (length / cellPitch);
+				if (run.group(3).equals("h")) {
+					assertFalse(column > 0 && horizontalWalls[row][column - 1],
+							label + " unmerged run at " + row + "," + column);
+					for (int cell = column; cell < column + cells; cell++) {
+						assertFalse(horizontalWalls[row][cell], label + " wall drawn twice");
+						horizontalWalls[row][cell] = true;
+					}
+					penX = x + length;
+					penY = y;
+					horizontalRuns++;
+				} else {
+					assertFalse(row > 0 && verticalWalls[row - 1][column],
+							label + " unmerged run at " + row + "," + column);
+					for (int cell = row; cell < row + cells; cell++) {
+						assertFalse(verticalWalls[cell][column], label + " wall drawn twice");
+						verticalWalls[cell][column] = true;
+					}
+					penX = x;
+					penY = y + length;
+					verticalRuns++;
+				}
+			}
+			assertEquals(path.group(1).length(), runEnd, label + " unexpected path data");
+		}
+
+		IMazeGrid grid = maze.getGrid();
+		int expectedHorizontalRuns = 0;
+		for (int row = 0; row <= rows; row++) {
+			for (int column = 0; column < columns; column++) {
+				boolean wall = row < rows ? grid.hasTopWall(row * columns + column)
+						: grid.hasBottomWall((row - 1) * columns + column);
+				assertEquals(wall, horizontalWalls[row][column],
+						label + " wall above " + row + "," + column);
+				if (wall && (column == 0 || !horizontalWalls[row][column - 1])) {
+					expectedHorizontalRuns++;
+				}
+			}
+		}
+		int expectedVerticalRuns = 0;
+		for (int row = 0; row < rows; row++) {
+			for (int column = 0; column <= columns; column++) {
+				boolean wall = column < columns ? grid.hasLeftWall(row * columns + column)
+						: grid.hasRightWall(row * columns + column - 1);
+				assertEquals(wall, verticalWalls[row][column],
+						label + " wall left of " + row + "," + column);
+				if (wall && (row == 0 || !verticalWalls[row - 1][column])) {
+					expectedVerticalRuns++;
+				}
+			}
+		}
+		assertEquals(expectedHorizontalRuns, horizontalRuns, label);
+		assertEquals(expectedVerticalRuns, verticalRuns, label);
+	}
+
+	private static MazeImageConfiguration createConfiguration(int[] drawingSize) {
+		MazeImageConfiguration configuration = new MazeImageConfiguration();
+		configuration.setCellSize(drawingSize[0]);
+		configuration.setWallSize(drawingSize[1]);
+		return configuration;
+	}
+
+	private static Maze createMaze(int rows, int columns) {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(MazeType.PRIMS, rows, columns,
+				rows * 1000L + columns);
+		mazeGenerator.createMaze();
+		return mazeGenerator.getMaze();
+	}
+
+	private static String writeSvg(Maze maze, MazeImageConfiguration configuration)
+			throws IOException {
+		ByteArrayOutputStream svg = new ByteArrayOutputStream();
+		new MazeSvgWriter(maze, configuration).writeSvg(svg);
+		return svg.toString(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,75 @@
+package com.bobman159.mazes.generate;
+
+import static com.bobman159.mazes.MazeAssertions.assertPerfect;
+import static com.bobman159.mazes.MazeAssertions.assertSameMaze;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+class MazeGeneratorParallelTilesTest {
+
+	/* Rows, columns and tile size, the last tile row and column are larger
+	 * when the tile size does not divide the maze */
+	private static final int[][] TILINGS = {{2, 2, 2}, {7, 9, 2}, {37, 53, 3}, {23, 41, 5},
+			{64, 48, 16}, {5, 70, 8}};
+	private static final int[] PARALLELISMS = {1, 3, 8};
+
+	@ParameterizedTest
+	@EnumSource(MazeType.class)
+	void createsTheSamePerfectMazeWithAnyParallelism(MazeType mazeType) {
+		for (int[] tiling : TILINGS) {
+			for (long seed = 0; seed < 3; seed++) {
+				Maze firstMaze = null;
+				for (int parallelism : PARALLELISMS) {
+					IMazeGenerator mazeGenerator = MazeFactory.createParallelMazeGenerator(mazeType,
+							tiling[0], tiling[1], seed, tiling[2], parallelism);
+					mazeGenerator.createMaze();
+					Maze maze = mazeGenerator.getMaze();
+					assertEquals(tiling[0], maze.getRows());
+					assertEquals(tiling[1], maze.getColumns());
+					assertPerfect(maze);
+					if (firstMaze == null) {
+						firstMaze = maze;
+					} else {
+						assertSameMaze(firstMaze, maze);
+					}
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(MazeType.class)
+	void createsTheSameMazeInAGivenMaze(MazeType mazeType) {
+		for (int[] tiling : TILINGS) {
+			IMazeGenerator newMazeGenerator = MazeFactory.createParallelMazeGenerator(mazeType,
+					tiling[0], tiling[1], 11, tiling[2], 3);
+			newMazeGenerator.createMaze();
+			IMazeGenerator givenMazeGenerator = MazeFactory.createParallelMazeGenerator(mazeType,
+					new Maze(tiling[0], tiling[1], 11), tiling[2], 8);
+			givenMazeGenerator.createMaze();
+			assertSameMaze(newMazeGenerator.getMaze(), givenMazeGenerator.getMaze());
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = MazeType.class, names = {"PRIMS", "RECURSIVEBACKTRACKER"})
+	void splitsTheMazeIntoWholeTiles(MazeType mazeType) {
+		MazeGeneratorParallelTiles tilesGenerator = new MazeGeneratorParallelTiles(mazeType, 37, 53,
+				1, 3, 2);
+		tilesGenerator.createMaze();
+		assertEquals(12, tilesGenerator.getTileRows());
+		assertEquals(17, tilesGenerator.getTileColumns());
+		assertThrows(IllegalArgumentException.class,
+				() -> new MazeGeneratorParallelTiles(mazeType, 10, 10, 1, 1, 2));
+		assertThrows(IllegalArgumentException.class,
+				() -> new MazeGeneratorParallelTiles(mazeType, 10, 10, 1, 2, 0));
+	}
+}
@@ -0,0 +1,127 @@
+package com.bobman159.mazes.generate;
+
+import static com.bobman159.mazes.MazeAssertions.assertPerfect;
+import static com.bobman159.mazes.MazeAssertions.assertSameMaze;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.IMazeGrid;
+import com.bobman159.mazes.IMazeRowSink;
+import com.bobman159.mazes.IStreamingMazeGenerator;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+class RowMazeGeneratorTest {
+
+	/* Large enough to be split into several row ranges, with column counts
+	 * that start most ranges part way through a 32 cell wall word */
+	private static final int[][] SPLIT_SIZES = {{4000, 33}, {3001, 45}, {700, 100}, {2, 2}};
+	private static final int[][] STREAM_SIZES = {{2, 2}, {1, 7}, {9, 2}, {17, 31}, {300, 45}};
+	private static final int[] PARALLELISMS = {1, 3, 8};
+
+	@ParameterizedTest
+	@EnumSource(value = MazeType.class, names = {"SIDEWINDER", "BINARYTREE"})
+	void carvesTheSamePerfectMazeWithAnyParallelism(MazeType mazeType) {
+		for (int[] size : SPLIT_SIZES) {
+			for (long seed = 0; seed < 3; seed++) {
+				Maze firstMaze = null;
+				for (int parallelism : PARALLELISMS) {
+					IMazeGenerator mazeGenerator = MazeFactory.createParallelMazeGenerator(mazeType,
+							size[0], size[1], seed, MazeGeneratorParallelTiles.DEFAULT_TILE_SIZE,
+							parallelism);
+					mazeGenerator.createMaze();
+					Maze maze = mazeGenerator.getMaze();
+					assertPerfect(maze);
+					if (firstMaze == null) {
+						firstMaze = maze;
+					} else {
+						assertSameMaze(firstMaze, maze);
+					}
+				}
+				IMazeGenerator serialGenerator = MazeFactory.createMazeGenerator(mazeType, size[0],
+						size[1], seed);
+				serialGenerator.createMaze();
+				assertSameMaze(firstMaze, serialGenerator.getMaze());
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = MazeType.class, names = {"SIDEWINDER", "BINARYTREE", "ELLERS"})
+	void streamsTheMazeItCreates(MazeType mazeType) {
+		for (int[] size : STREAM_SIZES) {
+			for (long seed = 0; seed < 3; seed++) {
+				IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, size[0],
+						size[1], seed);
+				mazeGenerator.createMaze();
+				RecordingRowSink rowSink = new RecordingRowSink();
+				IStreamingMazeGenerator streamingGenerator = (IStreamingMazeGenerator)
+						MazeFactory.createMazeGenerator(mazeType, size[0], size[1], seed);
+				streamingGenerator.streamMaze(rowSink);
+				assertStreamedMaze(mazeGenerator.getMaze(), rowSink);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = MazeType.class, names = {"SIDEWINDER", "BINARYTREE"})
+	void rejectsMazesWithOneColumn(MazeType mazeType) {
+		assertThrows(IllegalArgumentException.class,
+				() -> MazeFactory.createMazeGenerator(mazeType, 10, 1, 1));
+		assertThrows(IllegalArgumentException.class,
+				() -> MazeFactory.createParallelMazeGenerator(mazeType, 10, 10, 1, 2, 0));
+	}
+
+	private static void assertStreamedMaze(Maze maze, RecordingRowSink rowSink) {
+
+		int columns = maze.getColumns();
+		String label = maze.getRows() + "x" + columns + " seed " + maze.getSeed();
+		IMazeGrid grid = maze.getGrid();
+		boolean[] topWalls = new boolean[columns];
+		for (int column = 0; column < columns; column++) {
+			topWalls[column] = grid.hasTopWall(column);
+		}
+		assertArrayEquals(topWalls, rowSink.topWalls, label + " top walls");
+		assertEquals(maze.getRows(), rowSink.rightWalls.size(), label + " rows");
+		for (int row = 0; row < maze.getRows(); row++) {
+			boolean[] rightWalls = new boolean[columns];
+			boolean[] bottomWalls = new boolean[columns];
+			for (int column = 0; column < columns; column++) {
+				rightWalls[column] = grid.hasRightWall(row * columns + column);
+				bottomWalls[column] = grid.hasBottomWall(row * columns + column);
+			}
+			assertArrayEquals(rightWalls, rowSink.rightWalls.get(row), label + " row " + row);
+			assertArrayEquals(bottomWalls, rowSink.bottomWalls.get(row), label + " row " + row);
+		}
+	}
+
+	/*
+	 * Keeps a copy of every row, the generator reuses it's arrays
+	 */
+	private static class RecordingRowSink implements IMazeRowSink {
+
+		private boolean[] topWalls;
+		private final List<boolean[]> rightWalls = new ArrayList<>();
+		private final List<boolean[]> bottomWalls = new ArrayList<>();
+
+		@Override
+		public void writeTopRow(boolean[] topWalls) {
+			this.topWalls = topWalls.clone();
+		}
+
+		@Override
+		public void writeRow(boolean[] rightWalls, boolean[] bottomWalls) {
+			this.rightWalls.add(rightWalls.clone());
+			this.bottomWalls.add(bottomWalls.clone());
+		}
+	}
+}
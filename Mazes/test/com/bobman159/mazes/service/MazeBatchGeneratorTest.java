@@ -0,0 +1,117 @@
+package com.bobman159.mazes.service;
+
+import static com.bobman159.mazes.MazeAssertions.assertPerfect;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+class MazeBatchGeneratorTest {
+
+	private static final long TIMEOUT_MILLIS = 10_000;
+
+	@Test
+	void generatesEveryRequestInCompletionOrder() {
+		List<MazeRequest> requests = new ArrayList<>();
+		for (long seed = 0; seed < 20; seed++) {
+			requests.add(new MazeRequest(MazeType.values()[(int) seed % MazeType.values().length],
+					15, 20, seed));
+		}
+		try (MazeBatchGenerator batchGenerator = new MazeBatchGenerator(3)) {
+			List<IMazeGenerator> mazeGenerators = batchGenerator.generateInCompletionOrder(requests)
+					.collect(Collectors.toList());
+			assertEquals(requests.size(), mazeGenerators.size());
+			Set<Long> seeds = mazeGenerators.stream().map(IMazeGenerator::getSeed)
+					.collect(Collectors.toSet());
+			assertEquals(requests.size(), seeds.size());
+			for (IMazeGenerator mazeGenerator : mazeGenerators) {
+				assertPerfect(mazeGenerator.getMaze());
+			}
+		}
+	}
+
+	@Test
+	void streamsShareTheInFlightLimitWithSubmit() throws Exception {
+		ManualExecutor executor = new ManualExecutor();
+		MazeBatchGenerator batchGenerator = new MazeBatchGenerator(executor, 4);
+		MazeRequest request = new MazeRequest(MazeType.PRIMS, 5, 5, 1);
+		CompletableFuture<IMazeGenerator> firstMaze = batchGenerator.submit(request);
+		CompletableFuture<IMazeGenerator> secondMaze = batchGenerator.submit(request);
+		List<MazeRequest> requests = List.of(request, request, request, request, request);
+		CompletableFuture<List<IMazeGenerator>> streamedMazes = new CompletableFuture<>();
+		Thread streamThread = new Thread(() -> streamedMazes.complete(
+				batchGenerator.generateInCompletionOrder(requests).collect(Collectors.toList())));
+		streamThread.start();
+
+		/* The stream only gets the 2 permits submit left free */
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (executor.tasks.size() < 4) {
+			assertTrue(System.currentTimeMillis() < deadline, "the stream did not start");
+			Thread.sleep(1);
+		}
+		Thread.sleep(50);
+		assertEquals(4, executor.tasks.size());
+
+		/* Run the requests one at a time, never more than 4 are in flight */
+		while (!streamedMazes.isDone() || !firstMaze.isDone() || !secondMaze.isDone()) {
+			assertTrue(executor.tasks.size() <= 4, executor.tasks.size() + " requests in flight");
+			Runnable task = executor.tasks.poll(10, TimeUnit.MILLISECONDS);
+			if (task != null) {
+				task.run();
+			}
+			assertTrue(System.currentTimeMillis() < deadline + TIMEOUT_MILLIS,
+					"the requests did not finish");
+		}
+		assertEquals(5, streamedMazes.get().size());
+		streamThread.join();
+	}
+
+	/*
+	 * Queues the tasks for the test to run
+	 */
+	private static class ManualExecutor extends AbstractExecutorService {
+
+		private final LinkedBlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+		@Override
+		public void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		@Override
+		public void shutdown() {
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return new ArrayList<>(tasks);
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return false;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return false;
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package com.bobman159.mazes.service;
+
+import static com.bobman159.mazes.MazeAssertions.assertSameMaze;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeChannelWriter;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.MazeWriterConfiguration;
+
+class MazeCacheTest {
+
+	@Test
+	void hitsReturnTheCachedMaze() {
+		MazeCache mazeCache = new MazeCache(1 << 20);
+		CachedMaze cachedMaze = mazeCache.getMaze(MazeType.PRIMS, 20, 30, 7);
+		assertEquals(0, mazeCache.getHitCount());
+		assertEquals(1, mazeCache.getMissCount());
+
+		assertSame(cachedMaze, mazeCache.getMaze(MazeType.PRIMS, 20, 30, 7));
+		assertEquals(1, mazeCache.getHitCount());
+		assertEquals(1, mazeCache.getSize());
+		assertEquals(cachedMaze.getWeight(), mazeCache.getWeight());
+
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(MazeType.PRIMS, 20, 30, 7);
+		mazeGenerator.createMaze();
+		assertSameMaze(mazeGenerator.getMaze(), cachedMaze.getMaze());
+
+		/* A different type, size or seed is a different maze */
+		mazeCache.getMaze(MazeType.KRUSKALS, 20, 30, 7);
+		mazeCache.getMaze(MazeType.PRIMS, 30, 20, 7);
+		mazeCache.getMaze(MazeType.PRIMS, 20, 30, 8);
+		assertEquals(4, mazeCache.getMissCount());
+		assertEquals(4, mazeCache.getSize());
+	}
+
+	@Test
+	void rendersTheMazeTextOnce() throws IOException {
+		MazeCache mazeCache = new MazeCache(1 << 20);
+		MazeWriterConfiguration configuration = new MazeWriterConfiguration();
+		CachedMaze renderedMaze = mazeCache.getRenderedMaze(MazeType.ELLERS, 15, 25, 3, configuration);
+		CachedMaze binaryMaze = mazeCache.getMaze(MazeType.ELLERS, 15, 25, 3);
+		/* The binary maze was cached first to render the text */
+		assertEquals(2, mazeCache.getMissCount());
+		assertEquals(1, mazeCache.getHitCount());
+
+		ByteArrayOutputStream expectedText = new ByteArrayOutputStream();
+		new MazeChannelWriter(expectedText, binaryMaze.getMaze(), configuration).writeMaze();
+		ByteArrayOutputStream renderedText = new ByteArrayOutputStream();
+		renderedMaze.writeRenderedBytes(renderedText);
+		assertArrayEquals(expectedText.toByteArray(), renderedText.toByteArray());
+
+		/* The binary form is shared and counted once */
+		assertEquals(binaryMaze.getMazeBytes(), renderedMaze.getMazeBytes());
+		assertEquals(expectedText.size(), renderedMaze.getWeight());
+		assertEquals(binaryMaze.getWeight() + renderedMaze.getWeight(), mazeCache.getWeight());
+
+		/* An equal configuration is the same key, a changed one is not */
+		assertSame(renderedMaze, mazeCache.getRenderedMaze(MazeType.ELLERS, 15, 25, 3,
+				new MazeWriterConfiguration()));
+		configuration.setCellSeparator('#');
+		mazeCache.getRenderedMaze(MazeType.ELLERS, 15, 25, 3, configuration);
+		assertEquals(3, mazeCache.getMissCount());
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedMaze() {
+		long mazeWeight = new MazeCache(1 << 20).getMaze(MazeType.PRIMS, 16, 16, 0).getWeight();
+		MazeCache mazeCache = new MazeCache(3 * mazeWeight);
+		mazeCache.getMaze(MazeType.PRIMS, 16, 16, 1);
+		mazeCache.getMaze(MazeType.PRIMS, 16, 16, 2);
+		mazeCache.getMaze(MazeType.PRIMS, 16, 16, 3);
+		assertEquals(0, mazeCache.getEvictionCount());
+
+		/* Seed 1 is used again so seed 2 is evicted instead */
+		mazeCache.getMaze(MazeType.PRIMS, 16, 16, 1);
+		mazeCache.getMaze(MazeType.PRIMS, 16, 16, 4);
+		assertEquals(1, mazeCache.getEvictionCount());
+		assertEquals(3, mazeCache.getSize());
+		assertEquals(3 * mazeWeight, mazeCache.getWeight());
+
+		long hits = mazeCache.getHitCount();
+		mazeCache.getMaze(MazeType.PRIMS, 16, 16, 1);
+		assertEquals(hits + 1, mazeCache.getHitCount());
+		long misses = mazeCache.getMissCount();
+		mazeCache.getMaze(MazeType.PRIMS, 16, 16, 2);
+		assertEquals(misses + 1, mazeCache.getMissCount());
+	}
+
+	@Test
+	void doesNotKeepMazesHeavierThanTheCache() {
+		MazeCache mazeCache = new MazeCache(16);
+		CachedMaze cachedMaze = mazeCache.getMaze(MazeType.PRIMS, 20, 20, 1);
+		assertEquals(20, cachedMaze.getRows());
+		assertEquals(0, mazeCache.getSize());
+		assertEquals(0, mazeCache.getWeight());
+	}
+
+	@Test
+	void doesNotKeepFailedMazes() {
+		MazeCache mazeCache = new MazeCache(1 << 20);
+		assertThrows(IllegalArgumentException.class, () -> mazeCache.getMaze(MazeType.PRIMS, 0, 20, 1));
+		assertEquals(0, mazeCache.getSize());
+		assertThrows(IllegalArgumentException.class, () -> new MazeCache(0));
+	}
+
+	@Test
+	void generatesEachKeyOnceForConcurrentCallers() throws Exception {
+		MazeCache mazeCache = new MazeCache(1 << 20);
+		int callers = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<CachedMaze>> cachedMazes = new ArrayList<>();
+			for (int caller = 0; caller < callers; caller++) {
+				cachedMazes.add(executor.submit(() -> {
+					start.await();
+					return mazeCache.getMaze(MazeType.WILSONS, 100, 100, 9);
+				}));
+			}
+			start.countDown();
+			CachedMaze firstMaze = cachedMazes.get(0).get();
+			for (Future<CachedMaze> cachedMaze : cachedMazes) {
+				assertSame(firstMaze, cachedMaze.get());
+			}
+			assertEquals(1, mazeCache.getMissCount());
+			assertEquals(callers - 1, mazeCache.getHitCount());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.bobman159.mazes.service;
+
+import static com.bobman159.mazes.MazeAssertions.assertPerfect;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.monitor.MazePoolMetricsMBean;
+
+class MazePregenerationPoolTest {
+
+	private static final long READY_TIMEOUT_MILLIS = 10_000;
+
+	@Test
+	void takesWarmedMazes() throws Exception {
+		try (MazePregenerationPool pregenerationPool = new MazePregenerationPool(4)) {
+			pregenerationPool.warm(MazeType.PRIMS, 21, 22);
+			assertTrue(pregenerationPool.isWarmed(MazeType.PRIMS, 21, 22));
+			MazePoolMetricsMBean metrics = pregenerationPool.getMetrics(MazeType.PRIMS, 21, 22);
+			waitForReadyMazes(metrics, 4);
+
+			IMazeGenerator mazeGenerator = pregenerationPool.take(MazeType.PRIMS, 21, 22);
+			assertEquals(MazeType.PRIMS, mazeGenerator.getMazeType());
+			assertEquals(21, mazeGenerator.getMaze().getRows());
+			assertEquals(22, mazeGenerator.getMaze().getColumns());
+			assertPerfect(mazeGenerator.getMaze());
+			assertEquals(1, metrics.getMazesTaken());
+			assertEquals(0, metrics.getStarvedTakes());
+		}
+	}
+
+	@Test
+	void generatesMazesThatWereNotWarmed() throws Exception {
+		try (MazePregenerationPool pregenerationPool = new MazePregenerationPool(4)) {
+			IMazeGenerator mazeGenerator = pregenerationPool.take(MazeType.KRUSKALS, 23, 24);
+			assertEquals(23, mazeGenerator.getMaze().getRows());
+			assertPerfect(mazeGenerator.getMaze());
+			/* Nothing is kept for sizes that were not warmed */
+			assertFalse(pregenerationPool.isWarmed(MazeType.KRUSKALS, 23, 24));
+			assertNull(pregenerationPool.getMetrics(MazeType.KRUSKALS, 23, 24));
+			assertTrue(getRegisteredMBeans(MazeType.KRUSKALS, 23, 24).isEmpty());
+		}
+	}
+
+	@Test
+	void closeUnregistersTheMetrics() throws Exception {
+		MazePregenerationPool pregenerationPool = new MazePregenerationPool(2);
+		pregenerationPool.warm(MazeType.ELLERS, 25, 26);
+		pregenerationPool.warm(MazeType.ELLERS, 25, 26);
+		assertEquals(1, getRegisteredMBeans(MazeType.ELLERS, 25, 26).size());
+		assertNotNull(pregenerationPool.getMetrics(MazeType.ELLERS, 25, 26));
+
+		pregenerationPool.close();
+		assertTrue(getRegisteredMBeans(MazeType.ELLERS, 25, 26).isEmpty());
+		assertThrows(IllegalStateException.class,
+				() -> pregenerationPool.warm(MazeType.ELLERS, 27, 28));
+		/* A closed pool still generates on the caller's thread */
+		assertPerfect(pregenerationPool.take(MazeType.ELLERS, 25, 26).getMaze());
+	}
+
+	@Test
+	void closeLeavesTheCallersExecutorRunning() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			MazePregenerationPool pregenerationPool = new MazePregenerationPool(executor, 2);
+			pregenerationPool.warm(MazeType.SIDEWINDER, 29, 30);
+			pregenerationPool.close();
+			assertFalse(executor.isShutdown());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void rejectsBadSizes() {
+		assertThrows(IllegalArgumentException.class, () -> new MazePregenerationPool(0));
+		try (MazePregenerationPool pregenerationPool = new MazePregenerationPool(2)) {
+			assertThrows(IllegalArgumentException.class,
+					() -> pregenerationPool.warm(MazeType.PRIMS, 0, 10));
+			assertFalse(pregenerationPool.isWarmed(MazeType.PRIMS, 0, 10));
+		}
+	}
+
+	private static void waitForReadyMazes(MazePoolMetricsMBean metrics, int readyMazes)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + READY_TIMEOUT_MILLIS;
+		while (metrics.getReadyMazes() < readyMazes) {
+			assertTrue(System.currentTimeMillis() < deadline, "the pool was not refilled");
+			Thread.sleep(10);
+		}
+	}
+
+	private static Set<ObjectName> getRegisteredMBeans(MazeType mazeType, int rows, int columns)
+			throws MalformedObjectNameException {
+		MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		return mbeanServer.queryNames(new ObjectName(MazePregenerationPool.OBJECT_NAME_PREFIX
+				+ ",mazeType=" + mazeType.name() + ",rows=" + rows + ",columns=" + columns + ",*"),
+				null);
+	}
+}
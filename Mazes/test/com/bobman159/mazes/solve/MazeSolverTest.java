@@ -0,0 +1,114 @@
+package com.bobman159.mazes.solve;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.IMazeGrid;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeAssertions;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.solve.MazeSolverFactory.SolverType;
+
+class MazeSolverTest {
+
+	@ParameterizedTest
+	@EnumSource(SolverType.class)
+	void solvesFromEntranceToExit(SolverType solverType) {
+		IMazeSolver mazeSolver = MazeSolverFactory.createMazeSolver(solverType);
+		for (MazeType mazeType : MazeType.values()) {
+			Maze maze = createMaze(mazeType, 25, 35, 5);
+			IMazeGrid grid = maze.getGrid();
+			int entranceIndex = grid.getCellIndex(0, maze.getEntranceColumn());
+			int exitIndex = grid.getCellIndex(maze.getRows() - 1, maze.getExitColumn());
+
+			MazePath solutionPath = mazeSolver.solve(maze);
+			assertNotNull(solutionPath, mazeType.name());
+			assertEquals(entranceIndex, solutionPath.getStartIndex());
+			assertEquals(exitIndex, solutionPath.getEndIndex());
+			assertShortestPath(maze, solutionPath);
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(SolverType.class)
+	void findsShortestPathsInMazesWithLoops(SolverType solverType) {
+		IMazeSolver mazeSolver = MazeSolverFactory.createMazeSolver(solverType);
+		SplittableRandom random = new SplittableRandom(3);
+		for (int mazeNumber = 0; mazeNumber < 300; mazeNumber++) {
+			int rows = 2 + random.nextInt(30);
+			int columns = 2 + random.nextInt(30);
+			Maze maze = createMaze(MazeType.values()[mazeNumber % MazeType.values().length], rows,
+					columns, mazeNumber);
+			/* Knocking out walls adds loops, more than one path between
+			 * cells */
+			IMazeGrid grid = maze.getGrid();
+			for (int knockedOut = random.nextInt(rows * columns / 3 + 1); knockedOut > 0; knockedOut--) {
+				int cellIndex = random.nextInt(rows * columns);
+				if (random.nextBoolean()) {
+					if (cellIndex % columns < columns - 1) {
+						grid.clearRightWall(cellIndex);
+					}
+				} else if (cellIndex < (rows - 1) * columns) {
+					grid.clearBottomWall(cellIndex);
+				}
+			}
+			int startIndex = random.nextInt(rows * columns);
+			int endIndex = random.nextInt(rows * columns);
+
+			MazePath path = mazeSolver.solve(maze, startIndex, endIndex);
+			assertNotNull(path);
+			assertEquals(startIndex, path.getStartIndex());
+			assertEquals(endIndex, path.getEndIndex());
+			assertShortestPath(maze, path);
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(SolverType.class)
+	void returnsNullWithoutAPath(SolverType solverType) {
+		/* Every wall of a new maze is closed */
+		Maze maze = new Maze(5, 5, 1);
+		IMazeSolver mazeSolver = MazeSolverFactory.createMazeSolver(solverType);
+		assertNull(mazeSolver.solve(maze, 0, 24));
+		assertEquals(1, mazeSolver.solve(maze, 7, 7).getLength());
+	}
+
+	/*
+	 * The path must step between open neighbors and be as short as the
+	 * distance found by a plain breadth first search
+	 */
+	private static void assertShortestPath(Maze maze, MazePath path) {
+
+		IMazeGrid grid = maze.getGrid();
+		int columns = grid.getColumns();
+		for (int step = 1; step < path.getLength(); step++) {
+			int fromIndex = path.getCellIndex(step - 1);
+			int toIndex = path.getCellIndex(step);
+			int lowerIndex = Math.min(fromIndex, toIndex);
+			boolean open;
+			if (Math.abs(toIndex - fromIndex) == 1) {
+				open = lowerIndex % columns < columns - 1 && !grid.hasRightWall(lowerIndex);
+			} else {
+				open = Math.abs(toIndex - fromIndex) == columns && !grid.hasBottomWall(lowerIndex);
+			}
+			assertTrue(open, "step " + step + " from " + fromIndex + " to " + toIndex);
+		}
+		int[] distances = MazeAssertions.getDistances(maze, path.getStartIndex());
+		assertEquals(distances[path.getEndIndex()] + 1, path.getLength(), "path length");
+	}
+
+	private static Maze createMaze(MazeType mazeType, int rows, int columns, long seed) {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, rows, columns, seed);
+		mazeGenerator.createMaze();
+		return mazeGenerator.getMaze();
+	}
+}
@@ -0,0 +1,100 @@
+package com.bobman159.mazes.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.service.MazeBatchGenerator;
+import com.bobman159.mazes.service.MazeRequest;
+
+/**
+ * Compares generating a batch of small mazes one after another on the
+ * calling thread, like <code>MazeMain</code>, with generating them using a
+ * <code>MazeBatchGenerator</code>.  The score is mazes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class MazeBatchGenerationBenchmark {
+
+	private static final int BATCH_SIZE = 1000;
+
+	@Param({"PRIMS", "RECURSIVEBACKTRACKER"})
+	public MazeType mazeType;
+
+	@Param({"20", "50", "100"})
+	public int size;
+
+	@Param({"64"})
+	public int maxInFlight;
+
+	private List<MazeRequest> requests;
+	private MazeBatchGenerator batchGenerator;
+
+	@Setup(Level.Trial)
+	public void createBatch() {
+		requests = new ArrayList<>(BATCH_SIZE);
+		for (int request = 0; request < BATCH_SIZE; request++) {
+			requests.add(new MazeRequest(mazeType, size, size, request));
+		}
+		batchGenerator = new MazeBatchGenerator(maxInFlight);
+	}
+
+	@TearDown(Level.Trial)
+	public void closeBatchGenerator() {
+		batchGenerator.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public long sequential() {
+		long seeds = 0;
+		for (MazeRequest request : requests) {
+			IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(request.getMazeType(),
+					request.getRows(), request.getColumns(), request.getSeed());
+			mazeGenerator.createMaze();
+			seeds += mazeGenerator.getSeed();
+		}
+		return seeds;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public long submitAll() throws InterruptedException {
+		long seeds = 0;
+		for (CompletableFuture<IMazeGenerator> generatedMaze : batchGenerator.submitAll(requests)) {
+			seeds += generatedMaze.join().getSeed();
+		}
+		return seeds;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public long completionOrder() {
+		return batchGenerator.generateInCompletionOrder(requests)
+				.mapToLong(IMazeGenerator::getSeed)
+				.sum();
+	}
+}
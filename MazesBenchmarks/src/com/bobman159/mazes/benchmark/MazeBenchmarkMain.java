@@ -0,0 +1,30 @@
+package com.bobman159.mazes.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the maze benchmarks with the GC profiler so every result reports the
+ * allocation rate (gc.alloc.rate.norm is bytes allocated per operation) next
+ * to the throughput.
+ * <p>
+ * Accepts the usual JMH command line, for example
+ * <code>java -jar benchmarks.jar MazeGeneration -p size=1000</code>
+ */
+public class MazeBenchmarkMain {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		Options options = new OptionsBuilder()
+				.parent(commandLineOptions)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,86 @@
+package com.bobman159.mazes.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeBinaryFile;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * Measures writing and reading mazes in the binary format, to a heap
+ * buffer and to a memory mapped file.  The maze is generated once per trial
+ * with Eller's algorithm, the fastest way to create a 10000x10000 maze.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazeBinaryFileBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	public int size;
+
+	private MazeBinaryFile mazeFile;
+	private ByteBuffer mazeBuffer;
+	private Path savedMaze;
+
+	@Setup
+	public void createMaze() throws IOException {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(MazeType.ELLERS, size, size, 1L);
+		mazeGenerator.createMaze();
+		mazeFile = new MazeBinaryFile(mazeGenerator.getMaze(), MazeType.ELLERS);
+		mazeBuffer = ByteBuffer.allocate(mazeFile.getSizeInBytes());
+		mazeFile.encode(mazeBuffer);
+		savedMaze = Files.createTempFile("maze", ".bin");
+		mazeFile.save(savedMaze);
+	}
+
+	@TearDown
+	public void deleteMaze() throws IOException {
+		Files.deleteIfExists(savedMaze);
+	}
+
+	@Benchmark
+	public ByteBuffer encode() {
+		mazeBuffer.clear();
+		mazeFile.encode(mazeBuffer);
+		return mazeBuffer;
+	}
+
+	@Benchmark
+	public MazeBinaryFile decode() {
+		mazeBuffer.clear();
+		return MazeBinaryFile.decode(mazeBuffer);
+	}
+
+	@Benchmark
+	public Path save() throws IOException {
+		mazeFile.save(savedMaze);
+		return savedMaze;
+	}
+
+	@Benchmark
+	public MazeBinaryFile load() throws IOException {
+		return MazeBinaryFile.load(savedMaze);
+	}
+}
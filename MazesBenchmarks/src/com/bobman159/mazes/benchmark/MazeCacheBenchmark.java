@@ -0,0 +1,84 @@
+package com.bobman159.mazes.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeChannelWriter;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.MazeWriterConfiguration;
+import com.bobman159.mazes.service.CachedMaze;
+import com.bobman159.mazes.service.MazeCache;
+
+/**
+ * Compares generating and writing a maze as text for every request with
+ * getting it from a <code>MazeCache</code>.  The requests cycle through
+ * <code>seeds</code> seeds, the cache holds all of them so after the first
+ * cycle every request is a hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazeCacheBenchmark {
+
+	private static final long CACHE_WEIGHT = 512L << 20;
+
+	@Param({"PRIMS", "KRUSKALS"})
+	public MazeType mazeType;
+
+	@Param({"100"})
+	public int size;
+
+	@Param({"64"})
+	public int seeds;
+
+	private MazeCache mazeCache;
+	private MazeWriterConfiguration configuration = new MazeWriterConfiguration();
+	private long seed;
+
+	@Setup(Level.Trial)
+	public void createCache() {
+		mazeCache = new MazeCache(CACHE_WEIGHT);
+	}
+
+	@Benchmark
+	public byte[] generateAndWrite() throws IOException {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, size, size,
+				++seed % seeds);
+		mazeGenerator.createMaze();
+		ByteArrayOutputStream renderedMaze = new ByteArrayOutputStream();
+		new MazeChannelWriter(renderedMaze, mazeGenerator.getMaze(), configuration).writeMaze();
+		return renderedMaze.toByteArray();
+	}
+
+	@Benchmark
+	public CachedMaze cachedText() {
+		return mazeCache.getRenderedMaze(mazeType, size, size, ++seed % seeds, configuration);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public CachedMaze cachedTextContended() {
+		return mazeCache.getRenderedMaze(mazeType, size, size,
+				Thread.currentThread().getId() % seeds, configuration);
+	}
+}
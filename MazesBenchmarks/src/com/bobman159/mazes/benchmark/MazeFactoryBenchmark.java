@@ -0,0 +1,43 @@
+package com.bobman159.mazes.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * Measures the cost of creating a maze generator (and it's empty maze) for
+ * each <code>MazeType</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class MazeFactoryBenchmark {
+
+	/* No values so every MazeType is benchmarked */
+	@Param
+	public MazeType mazeType;
+
+	@Param({"10", "100", "1000"})
+	public int size;
+
+	@Benchmark
+	public IMazeGenerator createMazeGenerator() {
+		return MazeFactory.createMazeGenerator(mazeType, size, size);
+	}
+}
@@ -0,0 +1,49 @@
+package com.bobman159.mazes.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * Measures <code>IMazeGenerator.createMaze()</code> for each 
+ * <code>MazeType</code> on square mazes from 10x10 to 4000x4000.  A generator
+ * can only create it's maze once so each operation includes creating the 
+ * generator, <code>MazeFactoryBenchmark</code> measures that part alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazeGenerationBenchmark {
+
+	@Param
+	public MazeType mazeType;
+
+	@Param({"10", "100", "1000", "2000", "4000"})
+	public int size;
+
+	@Param({"1"})
+	public long seed;
+
+	@Benchmark
+	public IMazeGenerator createMaze() {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, size, size, seed);
+		mazeGenerator.createMaze();
+		return mazeGenerator;
+	}
+}
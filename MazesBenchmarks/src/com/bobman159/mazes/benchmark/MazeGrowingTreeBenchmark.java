@@ -0,0 +1,49 @@
+package com.bobman159.mazes.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * Compares each Growing Tree cell selection with the generator it stands in
+ * for, GROWINGTREE_NEWEST with RECURSIVEBACKTRACKER and GROWINGTREE_RANDOM
+ * with PRIMS.  OLDEST and MIXED have no generator of their own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazeGrowingTreeBenchmark {
+
+	@Param({"RECURSIVEBACKTRACKER", "GROWINGTREE_NEWEST", "PRIMS", "GROWINGTREE_RANDOM",
+			"GROWINGTREE_OLDEST", "GROWINGTREE_MIXED"})
+	public MazeType mazeType;
+
+	@Param({"1000", "4000"})
+	public int size;
+
+	@Param({"1"})
+	public long seed;
+
+	@Benchmark
+	public IMazeGenerator createMaze() {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, size, size, seed);
+		mazeGenerator.createMaze();
+		return mazeGenerator;
+	}
+}
@@ -0,0 +1,154 @@
+package com.bobman159.mazes.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.service.MazeCache;
+import com.bobman159.mazes.service.MazeHttpServer;
+
+/**
+ * Requests small mazes from a <code>MazeHttpServer</code> on localhost over
+ * kept alive connections, one client per benchmark thread.  The client runs
+ * in the same JVM so the result is a lower bound of what the server can
+ * handle.  With <code>cached</code> the requests cycle through
+ * <code>seeds</code> seeds served from a <code>MazeCache</code>.  The fork
+ * turns on TCP_NODELAY for the server, as an application would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml",
+		"-Dsun.net.httpserver.nodelay=true"})
+public class MazeHttpServerBenchmark {
+
+	private static final long CACHE_WEIGHT = 64L << 20;
+
+	@Param({"text", "binary", "svg"})
+	public String format;
+
+	@Param({"10"})
+	public int size;
+
+	@Param({"false", "true"})
+	public boolean cached;
+
+	@Param({"1024"})
+	public int seeds;
+
+	private MazeHttpServer server;
+	private String mazePath;
+
+	@Setup(Level.Trial)
+	public void startServer() throws IOException {
+		server = new MazeHttpServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+				cached ? new MazeCache(CACHE_WEIGHT) : null, null);
+		server.start();
+		mazePath = MazeHttpServer.MAZE_PATH + "?rows=" + size + "&columns=" + size + "&format=" + format + "&seed=";
+	}
+
+	@TearDown(Level.Trial)
+	public void stopServer() {
+		server.close();
+	}
+
+	/*
+	 * A minimal HTTP/1.1 client on one kept alive connection, reading just
+	 * enough of the response to find the end of it's body
+	 */
+	@State(Scope.Thread)
+	public static class Client {
+
+		private Socket socket;
+		private OutputStream requestStream;
+		private InputStream responseStream;
+		private long seed;
+
+		@Setup(Level.Trial)
+		public void connect(MazeHttpServerBenchmark benchmark) throws IOException {
+			socket = new Socket(InetAddress.getLoopbackAddress(), benchmark.server.getAddress().getPort());
+			socket.setTcpNoDelay(true);
+			requestStream = socket.getOutputStream();
+			responseStream = new BufferedInputStream(socket.getInputStream());
+		}
+
+		@TearDown(Level.Trial)
+		public void disconnect() throws IOException {
+			socket.close();
+		}
+
+		byte[] get(String requestPath) throws IOException {
+			requestStream.write(("GET " + requestPath + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+					.getBytes(StandardCharsets.US_ASCII));
+			requestStream.flush();
+			String statusLine = readLine();
+			if (!statusLine.startsWith("HTTP/1.1 200")) {
+				throw new IOException(statusLine);
+			}
+			int contentLength = -1;
+			for (String header = readLine(); !header.isEmpty(); header = readLine()) {
+				String lowerCaseHeader = header.toLowerCase(Locale.ROOT);
+				if (lowerCaseHeader.startsWith("content-length:")) {
+					contentLength = Integer.parseInt(header.substring("content-length:".length()).trim());
+				}
+			}
+			if (contentLength >= 0) {
+				return responseStream.readNBytes(contentLength);
+			}
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			for (int chunkLength = Integer.parseInt(readLine(), 16); chunkLength > 0;
+					chunkLength = Integer.parseInt(readLine(), 16)) {
+				body.write(responseStream.readNBytes(chunkLength));
+				readLine();
+			}
+			readLine();
+			return body.toByteArray();
+		}
+
+		private String readLine() throws IOException {
+			StringBuilder line = new StringBuilder();
+			for (int character = responseStream.read(); character != '\n';
+					character = responseStream.read()) {
+				if (character < 0) {
+					throw new EOFException();
+				}
+				if (character != '\r') {
+					line.append((char) character);
+				}
+			}
+			return line.toString();
+		}
+	}
+
+	@Benchmark
+	public byte[] requestMaze(Client client) throws IOException {
+		return client.get(mazePath + ++client.seed % seeds);
+	}
+}
@@ -0,0 +1,71 @@
+package com.bobman159.mazes.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.MazeImageConfiguration;
+import com.bobman159.mazes.MazeImageWriter;
+import com.bobman159.mazes.MazeSvgWriter;
+
+/**
+ * Measures drawing a generated maze as a PBM and a PNG image with
+ * <code>MazeImageWriter</code> and as an SVG document with
+ * <code>MazeSvgWriter</code>, into a stream that discards everything.  The
+ * images use the default 4 pixel cells and 1 pixel walls, a 10000x10000
+ * maze is a 50001x50001 pixel image.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazeImageWriterBenchmark {
+
+	@Param({"1000", "4000", "10000"})
+	public int size;
+
+	private MazeImageWriter imageWriter;
+	private MazeSvgWriter svgWriter;
+	private OutputStream nullStream;
+
+	@Setup
+	public void createMaze() {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(MazeType.ELLERS, size, size, 1L);
+		mazeGenerator.createMaze();
+		imageWriter = new MazeImageWriter(mazeGenerator.getMaze(), new MazeImageConfiguration());
+		svgWriter = new MazeSvgWriter(mazeGenerator.getMaze(), new MazeImageConfiguration());
+		nullStream = OutputStream.nullOutputStream();
+	}
+
+	@Benchmark
+	public void writePbm() throws IOException {
+		imageWriter.writePbm(nullStream);
+	}
+
+	@Benchmark
+	public void writePng() throws IOException {
+		imageWriter.writePng(nullStream);
+	}
+
+	@Benchmark
+	public void writeSvg() throws IOException {
+		svgWriter.writeSvg(nullStream);
+	}
+}
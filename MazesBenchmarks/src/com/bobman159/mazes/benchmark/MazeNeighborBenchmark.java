@@ -0,0 +1,79 @@
+package com.bobman159.mazes.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bobman159.mazes.IMazeGrid;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.Maze.Direction;
+import com.bobman159.mazes.MazeCell;
+
+/**
+ * Measures neighbor lookups, both through the <code>MazeCell</code> view
+ * (<code>Maze.getMazeCell(MazeCell, Direction)</code>) and by cell index 
+ * through the <code>MazeGrid</code>.  Each operation looks up the four 
+ * neighbors of 1024 random cells.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class MazeNeighborBenchmark {
+
+	private static final int LOOKUP_CELLS = 1024;
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	@Param({"100", "1000"})
+	public int size;
+
+	private Maze maze;
+	private IMazeGrid grid;
+	private MazeCell[] cells;
+	private int[] cellIndexes;
+
+	@Setup
+	public void createMaze() {
+		maze = new Maze(size, size);
+		grid = maze.getGrid();
+		cells = new MazeCell[LOOKUP_CELLS];
+		cellIndexes = new int[LOOKUP_CELLS];
+		Random random = new Random(LOOKUP_CELLS);
+		for (int cell = 0; cell < LOOKUP_CELLS; cell++) {
+			cells[cell] = maze.getMazeCell(random.nextInt(size), random.nextInt(size));
+			cellIndexes[cell] = cells[cell].getIndex();
+		}
+	}
+
+	@Benchmark
+	public void getMazeCellByDirection(Blackhole blackhole) {
+		for (MazeCell cell : cells) {
+			for (Direction direction : DIRECTIONS) {
+				blackhole.consume(maze.getMazeCell(cell, direction));
+			}
+		}
+	}
+
+	@Benchmark
+	public void getNeighborIndex(Blackhole blackhole) {
+		for (int cellIndex : cellIndexes) {
+			for (Direction direction : DIRECTIONS) {
+				blackhole.consume(grid.getNeighborIndex(cellIndex, direction));
+			}
+		}
+	}
+}
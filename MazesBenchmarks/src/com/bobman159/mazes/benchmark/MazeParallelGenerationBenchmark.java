@@ -0,0 +1,53 @@
+package com.bobman159.mazes.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * Measures parallel generation for increasing parallelism, the scaling is
+ * the throughput at each parallelism divided by the throughput at
+ * parallelism 1.  Sidewinder and Binary Tree mazes are split into ranges of
+ * rows, the other types into tiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazeParallelGenerationBenchmark {
+
+	@Param({"RECURSIVEBACKTRACKER", "SIDEWINDER", "BINARYTREE"})
+	public MazeType mazeType;
+
+	@Param({"4000", "20000"})
+	public int size;
+
+	@Param({"256"})
+	public int tileSize;
+
+	@Param({"1", "2", "4", "8", "16", "32"})
+	public int parallelism;
+
+	@Benchmark
+	public IMazeGenerator createMaze() {
+		IMazeGenerator mazeGenerator = MazeFactory.createParallelMazeGenerator(mazeType, 
+				size, size, 1L, tileSize, parallelism);
+		mazeGenerator.createMaze();
+		return mazeGenerator;
+	}
+}
@@ -0,0 +1,81 @@
+package com.bobman159.mazes.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.service.MazePregenerationPool;
+
+/**
+ * Compares the latency of generating a maze on the request thread with
+ * taking it from a <code>MazePregenerationPool</code>.  Each request is
+ * followed by <code>thinkMicros</code> of idle time, the time a server
+ * spends on other work between requests, which the pool uses to refill.
+ * The percentiles of the sample time show the starved takes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazePregenerationBenchmark {
+
+	@Param({"PRIMS", "RECURSIVEBACKTRACKER"})
+	public MazeType mazeType;
+
+	@Param({"200"})
+	public int size;
+
+	@Param({"20000"})
+	public long thinkMicros;
+
+	@Param({"16"})
+	public int maximumReadyMazes;
+
+	private MazePregenerationPool pool;
+
+	@Setup(Level.Trial)
+	public void createPool() {
+		pool = new MazePregenerationPool(maximumReadyMazes);
+		pool.warm(mazeType, size, size);
+	}
+
+	@TearDown(Level.Trial)
+	public void closePool() {
+		pool.close();
+	}
+
+	@TearDown(Level.Invocation)
+	public void think() throws InterruptedException {
+		TimeUnit.MICROSECONDS.sleep(thinkMicros);
+	}
+
+	@Benchmark
+	public void generateOnRequest(Blackhole blackhole) {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, size, size);
+		mazeGenerator.createMaze();
+		blackhole.consume(mazeGenerator);
+	}
+
+	@Benchmark
+	public void takePregenerated(Blackhole blackhole) {
+		blackhole.consume(pool.take(mazeType, size, size));
+	}
+}
@@ -0,0 +1,70 @@
+package com.bobman159.mazes.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.service.ThreadLocalMazeGenerators;
+
+/**
+ * Compares creating a new generator and maze for every maze with recreating
+ * one maze in place, directly and through
+ * <code>ThreadLocalMazeGenerators</code>.  Run it with <code>-prof gc</code>,
+ * gc.alloc.rate.norm is the bytes allocated for each maze.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazeRegenerationBenchmark {
+
+	@Param({"PRIMS", "RECURSIVEBACKTRACKER", "ELLERS", "KRUSKALS", "GROWINGTREE_NEWEST",
+			"BINARYTREE"})
+	public MazeType mazeType;
+
+	@Param({"20", "100"})
+	public int size;
+
+	private IMazeGenerator reusedGenerator;
+	private long seed;
+
+	@Setup(Level.Trial)
+	public void createGenerator() {
+		reusedGenerator = MazeFactory.createMazeGenerator(mazeType, size, size, seed);
+		reusedGenerator.createMaze();
+	}
+
+	@Benchmark
+	public IMazeGenerator newMaze() {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, size, size, ++seed);
+		mazeGenerator.createMaze();
+		return mazeGenerator;
+	}
+
+	@Benchmark
+	public IMazeGenerator recreateMaze() {
+		reusedGenerator.recreateMaze(++seed);
+		return reusedGenerator;
+	}
+
+	@Benchmark
+	public IMazeGenerator threadLocalMaze() {
+		return ThreadLocalMazeGenerators.createMaze(mazeType, size, size, ++seed);
+	}
+}
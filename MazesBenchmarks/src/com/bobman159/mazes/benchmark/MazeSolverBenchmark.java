@@ -0,0 +1,63 @@
+package com.bobman159.mazes.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+import com.bobman159.mazes.solve.IMazeSolver;
+import com.bobman159.mazes.solve.MazePath;
+import com.bobman159.mazes.solve.MazeSolverFactory;
+import com.bobman159.mazes.solve.MazeSolverFactory.SolverType;
+
+/**
+ * Measures solving a maze from it's entrance to it's exit for each 
+ * <code>SolverType</code>.  The maze is generated once per trial, the
+ * solver is reused for every operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazeSolverBenchmark {
+
+	@Param
+	public SolverType solverType;
+
+	@Param({"PRIMS", "RECURSIVEBACKTRACKER"})
+	public MazeType mazeType;
+
+	@Param({"100", "1000", "5000"})
+	public int size;
+
+	private Maze maze;
+	private IMazeSolver mazeSolver;
+
+	@Setup
+	public void createMaze() {
+		IMazeGenerator mazeGenerator = MazeFactory.createMazeGenerator(mazeType, size, size, 1L);
+		mazeGenerator.createMaze();
+		maze = mazeGenerator.getMaze();
+		mazeSolver = MazeSolverFactory.createMazeSolver(solverType);
+	}
+
+	@Benchmark
+	public MazePath solve() {
+		return mazeSolver.solve(maze);
+	}
+}
@@ -0,0 +1,49 @@
+package com.bobman159.mazes.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.Maze;
+import com.bobman159.mazes.generate.MazeGeneratorWilsonsAlgorithm;
+
+/**
+ * Measures Wilson's algorithm alone and with the first cells carved by
+ * Aldous-Broder, compare with <code>MazeGenerationBenchmark</code> for the
+ * other generators.  The time of Wilson's algorithm depends a lot on how
+ * long the first walks wander, so every operation uses a new seed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 4)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazeWilsonsBenchmark {
+
+	@Param({"1000", "2000", "4000"})
+	public int size;
+
+	@Param({"0", "0.1", "0.3"})
+	public double aldousBroderFraction;
+
+	private long seed;
+
+	@Benchmark
+	public IMazeGenerator createMaze() {
+		IMazeGenerator mazeGenerator = new MazeGeneratorWilsonsAlgorithm(
+				new Maze(size, size, seed++), aldousBroderFraction);
+		mazeGenerator.createMaze();
+		return mazeGenerator;
+	}
+}
@@ -0,0 +1,94 @@
+package com.bobman159.mazes.benchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bobman159.mazes.IMazeGenerator;
+import com.bobman159.mazes.MazeChannelWriter;
+import com.bobman159.mazes.MazeFactory;
+import com.bobman159.mazes.MazeFactory.MazeType;
+
+/**
+ * Measures writing a generated maze with <code>MazeWriter</code> and
+ * <code>MazeChannelWriter</code>.  The <code>writeMaze</code> benchmarks
+ * write into a stream or channel that discards everything, so only the cost
+ * of building the rows is measured, the <code>File</code> benchmarks write
+ * a file.  Multiply the score by the size of the file for bytes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlog4j2.configurationFile=log4j2-benchmark.xml"})
+public class MazeWriterBenchmark {
+
+	@Param({"10", "100", "1000", "4000"})
+	public int size;
+
+	private IMazeGenerator mazeGenerator;
+	private PrintStream nullStream;
+	private WritableByteChannel nullChannel;
+	private Path mazeFile;
+
+	@Setup
+	public void createMaze() throws IOException {
+		mazeGenerator = MazeFactory.createMazeGenerator(MazeType.RECURSIVEBACKTRACKER, size, size, 1L);
+		mazeGenerator.createMaze();
+		nullStream = new PrintStream(OutputStream.nullOutputStream());
+		nullChannel = Channels.newChannel(OutputStream.nullOutputStream());
+		mazeFile = Files.createTempFile("maze", ".txt");
+	}
+
+	@TearDown
+	public void deleteMazeFile() throws IOException {
+		Files.deleteIfExists(mazeFile);
+	}
+
+	@Benchmark
+	public void writeMaze() {
+		mazeGenerator.writeMaze(nullStream);
+	}
+
+	@Benchmark
+	public void writeMazeChannel() throws IOException {
+		new MazeChannelWriter(nullChannel, mazeGenerator.getMaze()).writeMaze();
+	}
+
+	@Benchmark
+	public void writeMazeFile() throws IOException {
+		try (PrintStream fileStream = new PrintStream(new FileOutputStream(mazeFile.toFile()))) {
+			mazeGenerator.writeMaze(fileStream);
+		}
+	}
+
+	@Benchmark
+	public void writeMazeChannelFile() throws IOException {
+		try (FileChannel fileChannel = FileChannel.open(mazeFile, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			new MazeChannelWriter(fileChannel, mazeGenerator.getMaze()).writeMaze();
+		}
+	}
+}